@@ -0,0 +1,140 @@
+package cz.muni.fi.scheduler.benchmarks;
+
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Marking, unmarking and analyzing time slots in the {@link Agenda} of a synthetic model.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgendaBenchmark {
+    static final int SAMPLES = 1024; // must be a power of two
+
+    @Param({"20", "100"})
+    public int teachers;
+
+    @Param({"100", "1000"})
+    public int students;
+
+    @Param({"5"})
+    public int days;
+
+    @Param({"16", "128"})
+    public int rows;
+
+    private Agenda     agenda;
+
+    // teachers paired with slots they do not attend
+    private Teacher[]  freeTeachers;
+    private TimeSlot[] freeSlots;
+
+    // teachers paired with slots of their students
+    private Teacher[]  assignedTeachers;
+    private TimeSlot[] assignedSlots;
+
+    private int        index;
+
+    private static boolean attends(Ticket ticket, Teacher teacher) {
+        return (ticket != null) && ((Student) ticket.getPerson()).getThesis().hasTeacher(teacher);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticModel synthetic = new SyntheticModel(teachers, students, days, rows, 42L);
+        Random         random    = synthetic.getRandom();
+        List<TimeSlot> slots     = synthetic.getTimeSlots();
+        List<Teacher>  people    = synthetic.getTeachers();
+
+        agenda           = synthetic.getModel().getContext(synthetic.getAssignment()).getAgenda();
+        freeTeachers     = new Teacher[SAMPLES];
+        freeSlots        = new TimeSlot[SAMPLES];
+        assignedTeachers = new Teacher[SAMPLES];
+        assignedSlots    = new TimeSlot[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; ++i) {
+            TimeSlot slot;
+            Teacher  teacher;
+
+            do {
+                slot    = slots.get(random.nextInt(slots.size()));
+                teacher = people.get(random.nextInt(people.size()));
+            } while (attends(synthetic.getAssignment().getValue(slot), teacher));
+
+            freeTeachers[i] = teacher;
+            freeSlots[i]    = slot;
+        }
+
+        List<Ticket> assigned = new ArrayList<>();
+        slots.stream()
+                .map(synthetic.getAssignment()::getValue)
+                .filter(ticket -> ticket != null)
+                .forEach(assigned::add);
+
+        if (assigned.isEmpty())
+            throw new IllegalStateException("The synthetic model has no assigned time slots.");
+
+        for (int i = 0; i < SAMPLES; ++i) {
+            Ticket        ticket = assigned.get(random.nextInt(assigned.size()));
+            List<Teacher> tchrs  = ((Student) ticket.getPerson()).getThesis().getTeachers();
+
+            assignedTeachers[i] = tchrs.get(random.nextInt(tchrs.size()));
+            assignedSlots[i]    = (TimeSlot) ticket.variable();
+        }
+    }
+
+    private int next() {
+        return (index = (index + 1) & (SAMPLES - 1));
+    }
+
+    @Benchmark
+    public int markUnmarkTimeSlot() {
+        final int i = next();
+        return agenda.markTimeSlot(freeTeachers[i], freeSlots[i])
+             + agenda.unmarkTimeSlot(freeTeachers[i], freeSlots[i]);
+    }
+
+    @Benchmark
+    public int unmarkMarkTimeSlot() {
+        final int i = next();
+        return agenda.unmarkTimeSlot(assignedTeachers[i], assignedSlots[i])
+             + agenda.markTimeSlot(assignedTeachers[i], assignedSlots[i]);
+    }
+
+    @Benchmark
+    public int analyzeTimeSlotAssign() {
+        final int i = next();
+        return agenda.analyzeTimeSlotAssign(freeTeachers[i], freeSlots[i]);
+    }
+
+    @Benchmark
+    public int analyzeTimeSlotUnassign() {
+        final int i = next();
+        return agenda.analyzeTimeSlotUnassign(assignedTeachers[i], assignedSlots[i]);
+    }
+}
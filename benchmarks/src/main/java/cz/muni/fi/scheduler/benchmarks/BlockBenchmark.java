@@ -0,0 +1,86 @@
+package cz.muni.fi.scheduler.benchmarks;
+
+import cz.muni.fi.scheduler.model.Block;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Joining and splitting {@link Block}s made of consecutive time slots.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlockBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int slots;
+
+    private Block    left;
+    private Block    right;
+    private Block    full;
+    private TimeSlot middle;
+
+    private static Block join(List<TimeSlot> slots) {
+        return slots.stream().map(Block::new).reduce(Block::join).get();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Configuration config = new Configuration.Builder()
+                .addDate(LocalDate.of(2016, Month.MAY, 2))
+                .setFullExamLength(30)
+                .value();
+
+        EntryRow row = new SchModel().newEntryRow(0, config);
+
+        for (int i = 1; i < slots; ++i) {
+            row.extendBack();
+        }
+
+        List<TimeSlot> all = row.streamTimeSlots().collect(Collectors.toList());
+
+        left   = join(all.subList(0, slots / 2));
+        right  = join(all.subList(slots / 2, slots));
+        full   = join(all);
+        middle = all.get(slots / 2);
+    }
+
+    @Benchmark
+    public Block join() {
+        return left.join(right);
+    }
+
+    @Benchmark
+    public List<Block> split() {
+        return full.split(middle);
+    }
+
+    @Benchmark
+    public int splitFactor() {
+        return full.splitFactor(middle);
+    }
+}
@@ -0,0 +1,99 @@
+package cz.muni.fi.scheduler.benchmarks;
+
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Evaluation of {@link MinimizeBlocksCriterion#getValue} for random values
+ * together with the conflicts the model reports for them.
+ *
+ * The {@link #toDouble()} case evaluates the tickets with the default
+ * criteria as the neighbourhoods do. Run it with {@code -prof gc}, the
+ * normalized allocation rate ({@code gc.alloc.rate.norm}) should be zero.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriterionBenchmark {
+    static final int SAMPLES = AgendaBenchmark.SAMPLES;
+
+    @Param({"20", "100"})
+    public int teachers;
+
+    @Param({"100", "1000"})
+    public int students;
+
+    @Param({"5"})
+    public int days;
+
+    @Param({"16", "128"})
+    public int rows;
+
+    private MinimizeBlocksCriterion  criterion;
+    private Assignment<Slot, Ticket> assignment;
+    private Ticket[]                 tickets;
+    private Set<Ticket>[]            conflicts;
+
+    private int                      index;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        SyntheticModel synthetic = new SyntheticModel(teachers, students, days, rows, 42L);
+        SchModel       model     = synthetic.getModel();
+        List<Ticket>   sample    = synthetic.randomTickets(SAMPLES);
+
+        criterion  = synthetic.getCriterion();
+        assignment = synthetic.getAssignment();
+        tickets    = sample.toArray(new Ticket[SAMPLES]);
+        conflicts  = new Set[SAMPLES];
+
+        for (int i = 0; i < SAMPLES; ++i) {
+            conflicts[i] = model.conflictValues(assignment, tickets[i]);
+        }
+    }
+
+    private int next() {
+        return (index = (index + 1) & (SAMPLES - 1));
+    }
+
+    @Benchmark
+    public double getValue() {
+        final int i = next();
+        return criterion.getValue(assignment, tickets[i], conflicts[i]);
+    }
+
+    @Benchmark
+    public double getValueWithoutConflicts() {
+        final int i = next();
+        return criterion.getValue(assignment, tickets[i], null);
+    }
+
+    @Benchmark
+    public double toDouble() {
+        return tickets[next()].toDouble(assignment);
+    }
+}
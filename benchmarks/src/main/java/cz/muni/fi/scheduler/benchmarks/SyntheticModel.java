@@ -0,0 +1,195 @@
+package cz.muni.fi.scheduler.benchmarks;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.constraints.DefenceTeacherOverlapConstraint;
+import cz.muni.fi.scheduler.model.constraints.UniqueCommissionMembersConstraint;
+import cz.muni.fi.scheduler.model.constraints.UniqueStudentTicketConstraint;
+import cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion;
+import cz.muni.fi.scheduler.model.domain.Domain;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+
+/**
+ * A randomly generated model with a partial assignment.
+ *
+ * The model contains the given number of teachers, students (all of them
+ * defending a thesis), days and rows. Rows are spread evenly over the days
+ * and are long enough to hold all students. Every slot may hold any student
+ * or teacher, and the assignment is filled by trying a few random values
+ * for every slot and keeping the first one without conflicts, so that the
+ * agenda and the context look like in the middle of a search.
+ *
+ * The same parameters and seed always produce the same model.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class SyntheticModel {
+    private static final int ATTEMPTS = 16;
+
+    private final Random                   random;
+    private final SchModel                 model;
+    private final Configuration            config;
+    private final MinimizeBlocksCriterion  criterion;
+    private final Assignment<Slot, Ticket> assignment;
+
+    private final List<Teacher>    teachers;
+    private final List<Student>    students;
+    private final List<EntryRow>   rows;
+    private final List<TimeSlot>   timeSlots;
+    private final List<MemberSlot> memberSlots;
+
+    public SyntheticModel(int teachers, int students, int days, int rows, long seed) {
+        requirePositive(teachers, "teachers");
+        requirePositive(students, "students");
+        requirePositive(days,     "days");
+        requirePositive(rows,     "rows");
+
+        if (teachers < 2)
+            throw new IllegalArgumentException("At least two teachers are required.");
+
+        this.random      = new Random(seed);
+        this.model       = new SchModel();
+        this.criterion   = new MinimizeBlocksCriterion();
+        this.assignment  = new DefaultSingleAssignment<>();
+        this.teachers    = new ArrayList<>(teachers);
+        this.students    = new ArrayList<>(students);
+        this.rows        = new ArrayList<>(rows);
+        this.timeSlots   = new ArrayList<>();
+        this.memberSlots = new ArrayList<>();
+
+        Configuration.Builder builder = new Configuration.Builder()
+                .setDayStart(LocalTime.of(8, 0))
+                .setFullExamLength(30)
+                .setShortExamLength(15);
+
+        for (int i = 0; i < days; ++i) {
+            builder.addDate(LocalDate.of(2016, Month.MAY, 2).plusDays(i));
+        }
+
+        this.config = builder.value();
+
+        createPeople(teachers, students);
+        createRows(days, rows);
+
+        model.addGlobalConstraint(new UniqueStudentTicketConstraint());
+        model.addGlobalConstraint(new UniqueCommissionMembersConstraint());
+        model.addGlobalConstraint(new DefenceTeacherOverlapConstraint());
+        model.addCriterion(criterion);
+
+        assignRandomly();
+    }
+
+    private void createPeople(int teacherCount, int studentCount) {
+        final Field field = new Field(1, "Informatics", "INF");
+
+        for (int i = 0; i < teacherCount; ++i) {
+            Teacher teacher = new Teacher(i, "Name" + i, "Teacher" + i);
+            teachers.add(teacher);
+            model.addTeacher(teacher);
+        }
+
+        for (int i = 0; i < studentCount; ++i) {
+            Teacher supervisor = teachers.get(random.nextInt(teacherCount));
+            List<Teacher> opponents = new ArrayList<>(teachers);
+            opponents.remove(supervisor);
+            Collections.shuffle(opponents, random);
+
+            int    nopps  = Math.min(opponents.size(), 1 + random.nextInt(2));
+            Thesis thesis = new Thesis(i, "Thesis" + i, supervisor, opponents.subList(0, nopps));
+
+            Student student = new Student(teacherCount + i, "Name" + i, "Student" + i,
+                    field, Repetition.NOTHING, ExamLevel.MASTER, thesis);
+            students.add(student);
+            model.addStudent(student);
+        }
+    }
+
+    private void createRows(int days, int rowCount) {
+        final int capacity = (students.size() + rowCount - 1) / rowCount;
+
+        final Domain<Teacher> teacherDomain = new Domain<>(teachers);
+        final Domain<Student> studentDomain = new Domain<>(students);
+
+        for (int i = 0; i < rowCount; ++i) {
+            EntryRow row = model.newEntryRow(i % days, config);
+
+            for (int j = 1; j < capacity; ++j) {
+                row.extendBack();
+            }
+
+            row.streamAllSlots().forEach(model::addVariable);
+            row.streamCommissarySlots().forEach(slot -> slot.setCommissaries(teacherDomain));
+            row.streamTimeSlots().forEach(slot -> slot.setStudents(studentDomain));
+
+            row.streamTimeSlots().forEach(timeSlots::add);
+            row.streamCommissarySlots().forEach(memberSlots::add);
+            rows.add(row);
+        }
+    }
+
+    private void assignRandomly() {
+        long iteration = 0;
+
+        for (Slot slot : model.variables()) {
+            List<Ticket> values = slot.values(assignment);
+
+            for (int i = 0; i < ATTEMPTS; ++i) {
+                Ticket ticket = values.get(random.nextInt(values.size()));
+
+                if (model.conflictValues(assignment, ticket).isEmpty()) {
+                    assignment.assign(iteration++, ticket);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Picks random values of random slots, assigned or not.
+     *
+     * @param count     number of values
+     * @return          list of values
+     */
+    public List<Ticket> randomTickets(int count) {
+        List<Slot> slots = model.variables();
+
+        return random.ints(count, 0, slots.size())
+                .mapToObj(slots::get)
+                .map(slot -> slot.values(assignment))
+                .map(values -> values.get(random.nextInt(values.size())))
+                .collect(Collectors.toList());
+    }
+
+    public Random                   getRandom()      { return random;      }
+    public SchModel                 getModel()       { return model;       }
+    public Configuration            getConfig()      { return config;      }
+    public MinimizeBlocksCriterion  getCriterion()   { return criterion;   }
+    public Assignment<Slot, Ticket> getAssignment()  { return assignment;  }
+    public List<Teacher>            getTeachers()    { return teachers;    }
+    public List<Student>            getStudents()    { return students;    }
+    public List<EntryRow>           getRows()        { return rows;        }
+    public List<TimeSlot>           getTimeSlots()   { return timeSlots;   }
+    public List<MemberSlot>         getMemberSlots() { return memberSlots; }
+}
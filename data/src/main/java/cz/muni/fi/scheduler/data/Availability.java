@@ -26,6 +26,17 @@ public class Availability {
         restrictedDays.computeIfAbsent(person, k -> new HashSet<>()).add(day);
     }
 
+    /**
+     * Marks the day as restricted without adding any interval, so the person
+     * is only available in intervals added separately.
+     *
+     * @param person    person
+     * @param day       day
+     */
+    public void addRestrictedDay(Person person, LocalDate day) {
+        restrictedDays.computeIfAbsent(person, k -> new HashSet<>()).add(day);
+    }
+
     public void addAvailability(Person person, LocalDateTime from, LocalDateTime to) {
         if (from.isAfter(to))
             throw new IllegalArgumentException("DateTime from is after to.");
@@ -42,8 +53,17 @@ public class Availability {
         if (to.isAfter(dayend.atTime(LocalTime.MIN))) {
             restrictedDays.computeIfAbsent(person, k -> new HashSet<>()).add(dayend);
         }
+    }
 
-        // TODO: condense intervals?
+    /**
+     * Creates an immutable snapshot optimized for queries.
+     *
+     * Later changes of this object are not reflected in the snapshot.
+     *
+     * @return  compiled availability
+     */
+    public CompiledAvailability compile() {
+        return new CompiledAvailability(mapping, restrictedDays);
     }
 
     public boolean isAvailable(Person person, LocalDateTime when) {
@@ -67,7 +87,7 @@ public class Availability {
         Set<Pair<LocalDateTime, LocalDateTime>> intervals = mapping.get(person);
 
         if (intervals == null)
-            return true;
+            return false; // restricted without any interval
 
         LocalDateTime start = LocalDateTime.of(day, from);
         LocalDateTime end   = LocalDateTime.of(day, to);
@@ -0,0 +1,326 @@
+package cz.muni.fi.scheduler.data;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.utils.Pair;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of {@link Availability} optimized for queries.
+ *
+ * For every person the snapshot stores a bitmap of restricted days and, for
+ * every such day, the intervals the person is available in as two sorted
+ * arrays of minute offsets from midnight. Overlapping and adjacent intervals
+ * are merged, so a query is a single binary search on primitives.
+ *
+ * Times are stored with the precision of one minute; interval starts are
+ * rounded up and ends down, except for {@link LocalTime#MAX} and midnight of
+ * the following day, which both map to {@code 1440}. Queries round their
+ * start down and their end up, so the rounding never makes a person
+ * available when the original intervals would not.
+ *
+ * Use {@link Availability#compile()} to create instances.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class CompiledAvailability {
+    /** Number of minutes in a day. */
+    public static final int DAY_MINUTES = 24 * 60;
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * Availability of a single person.
+     */
+    private static final class Entry {
+        private final long    firstDay;   // epoch day of bit 0
+        private final BitSet  restricted; // restricted days relative to firstDay
+        private final int[][] starts;     // sorted starts per day, null if none
+        private final int[][] ends;       // matching ends
+
+        Entry(long firstDay, BitSet restricted, int[][] starts, int[][] ends) {
+            this.firstDay   = firstDay;
+            this.restricted = restricted;
+            this.starts     = starts;
+            this.ends       = ends;
+        }
+
+        boolean isRestricted(long epochDay) {
+            long index = epochDay - firstDay;
+            return (index >= 0) && (index < Integer.MAX_VALUE) && restricted.get((int) index);
+        }
+
+        /**
+         * Finds the merged interval that starts at or before the minute
+         * on the given day and returns its end, or -1 if there is none.
+         */
+        int endOfIntervalAt(long epochDay, int minute) {
+            long index = epochDay - firstDay;
+
+            if ((index < 0) || (index >= starts.length) || (starts[(int) index] == null))
+                return -1;
+
+            int[] daystarts = starts[(int) index];
+            int   pos       = Arrays.binarySearch(daystarts, minute);
+
+            if (pos < 0)
+                pos = -pos - 2; // last start before the minute
+
+            return pos < 0 ? -1 : ends[(int) index][pos];
+        }
+    }
+
+    private final Map<Person, Entry> entries;
+
+    CompiledAvailability(Map<Person, Set<Pair<LocalDateTime, LocalDateTime>>> mapping,
+            Map<Person, Set<LocalDate>> restrictedDays) {
+        entries = new HashMap<>(2 * mapping.size());
+
+        for (Map.Entry<Person, Set<Pair<LocalDateTime, LocalDateTime>>> e : mapping.entrySet()) {
+            Set<LocalDate> days = restrictedDays.getOrDefault(e.getKey(), Collections.emptySet());
+            entries.put(e.getKey(), compile(e.getValue(), days));
+        }
+
+        // people with restricted days but no intervals, see Availability#addRestrictedDay
+        for (Map.Entry<Person, Set<LocalDate>> e : restrictedDays.entrySet()) {
+            if (!mapping.containsKey(e.getKey()))
+                entries.put(e.getKey(), compile(Collections.emptySet(), e.getValue()));
+        }
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Compilation  ]">
+
+    private static int ceilMinutes(LocalTime time) {
+        return (int) ((time.toNanoOfDay() + NANOS_PER_MINUTE - 1) / NANOS_PER_MINUTE);
+    }
+
+    private static int floorMinutes(LocalTime time) {
+        return (int) (time.toNanoOfDay() / NANOS_PER_MINUTE);
+    }
+
+    private static int endMinutes(LocalTime time) {
+        return time.equals(LocalTime.MAX) ? DAY_MINUTES : floorMinutes(time);
+    }
+
+    private static Entry compile(Set<Pair<LocalDateTime, LocalDateTime>> intervals, Set<LocalDate> days) {
+        long first = Long.MAX_VALUE;
+        long last  = Long.MIN_VALUE;
+
+        for (LocalDate day : days) {
+            first = Math.min(first, day.toEpochDay());
+            last  = Math.max(last,  day.toEpochDay());
+        }
+
+        for (Pair<LocalDateTime, LocalDateTime> interval : intervals) {
+            first = Math.min(first, interval.first().toLocalDate().toEpochDay());
+            last  = Math.max(last,  interval.second().toLocalDate().toEpochDay());
+        }
+
+        if (first > last)
+            return new Entry(0, new BitSet(0), new int[0][], new int[0][]);
+
+        final int span = (int) (last - first + 1);
+
+        BitSet restricted = new BitSet(span);
+        for (LocalDate day : days) {
+            restricted.set((int) (day.toEpochDay() - first));
+        }
+
+        // split the intervals into days, as [start, end] minute pairs
+        List<List<int[]>> perday = new ArrayList<>(Collections.nCopies(span, null));
+
+        for (Pair<LocalDateTime, LocalDateTime> interval : intervals) {
+            final long fromDay = interval.first().toLocalDate().toEpochDay();
+            final long toDay   = interval.second().toLocalDate().toEpochDay();
+
+            for (long day = fromDay; day <= toDay; ++day) {
+                int start = day == fromDay ? ceilMinutes(interval.first().toLocalTime()) : 0;
+                int end   = day == toDay   ? endMinutes(interval.second().toLocalTime()) : DAY_MINUTES;
+
+                // an interval ending at midnight does not reach into the next day
+                if ((start > end) || ((start == end) && (day != fromDay)))
+                    continue;
+
+                int index = (int) (day - first);
+
+                if (perday.get(index) == null)
+                    perday.set(index, new ArrayList<>());
+
+                perday.get(index).add(new int[] { start, end });
+            }
+        }
+
+        int[][] starts = new int[span][];
+        int[][] ends   = new int[span][];
+
+        for (int i = 0; i < span; ++i) {
+            List<int[]> list = perday.get(i);
+
+            if (list == null)
+                continue;
+
+            list.sort((a, b) -> Integer.compare(a[0], b[0]));
+
+            int[] s = new int[list.size()];
+            int[] e = new int[list.size()];
+            int   n = 0;
+
+            for (int[] interval : list) {
+                if ((n > 0) && (interval[0] <= e[n - 1])) {
+                    e[n - 1] = Math.max(e[n - 1], interval[1]);
+                } else {
+                    s[n]   = interval[0];
+                    e[n++] = interval[1];
+                }
+            }
+
+            starts[i] = n == s.length ? s : Arrays.copyOf(s, n);
+            ends[i]   = n == e.length ? e : Arrays.copyOf(e, n);
+        }
+
+        return new Entry(first, restricted, starts, ends);
+    }
+
+    //</editor-fold>
+
+    /**
+     * Checks whether the person has any restrictions on the given day.
+     *
+     * @param person    person
+     * @param day       day
+     * @return          {@code true} if the person is only available in some
+     *                  intervals on the day
+     */
+    public boolean isRestricted(Person person, LocalDate day) {
+        Entry entry = entries.get(person);
+        return (entry != null) && entry.isRestricted(requireNonNull(day, "day").toEpochDay());
+    }
+
+    /**
+     * Checks whether the person is available in the whole interval.
+     *
+     * @param person    person
+     * @param epochDay  day as returned by {@link LocalDate#toEpochDay()}
+     * @param from      start of the interval in minutes from midnight
+     * @param to        end of the interval in minutes from midnight, at most
+     *                  {@link #DAY_MINUTES}
+     * @return          {@code true} if the day is not restricted or if the
+     *                  interval lies within a single merged interval
+     */
+    public boolean isAvailable(Person person, long epochDay, int from, int to) {
+        Entry entry = entries.get(person);
+
+        if ((entry == null) || !entry.isRestricted(epochDay))
+            return true;
+
+        return entry.endOfIntervalAt(epochDay, from) >= to;
+    }
+
+    /**
+     * Checks whether the person is available in the whole interval.
+     *
+     * Unlike {@link Availability#isAvailable(Person, LocalDate, LocalTime, LocalTime)},
+     * which requires the interval to lie within a single interval of the
+     * person, the interval only has to lie within a merged interval; e.g.
+     * 09:00&ndash;11:00 is available for a person with intervals
+     * 08:00&ndash;10:00 and 10:00&ndash;12:00 here but not in the original.
+     * Both arguments are rounded to whole minutes outwards, which may only
+     * turn the answer to {@code false}.
+     *
+     * @param person    person
+     * @param day       day
+     * @param from      start of the interval
+     * @param to        end of the interval
+     * @return          {@code true} if the person is available
+     */
+    public boolean isAvailable(Person person, LocalDate day, LocalTime from, LocalTime to) {
+        return isAvailable(person, day.toEpochDay(), floorMinutes(from), ceilMinutes(to));
+    }
+
+    /**
+     * Checks whether some interval of the person contains the given time.
+     *
+     * Answers as {@link Availability#isAvailable(Person, LocalDateTime)}
+     * except for intervals that start or end in the middle of a minute:
+     * the minutes they cover only partially do not count as available.
+     *
+     * @param person    person
+     * @param when      point in time
+     * @return          {@code true} if the person has no intervals at all or
+     *                  if some interval contains the given minute
+     */
+    public boolean isAvailable(Person person, LocalDateTime when) {
+        Entry entry = entries.get(person);
+
+        if (entry == null)
+            return true;
+
+        long epochDay = when.toLocalDate().toEpochDay();
+        int  minute   = floorMinutes(when.toLocalTime());
+
+        return entry.endOfIntervalAt(epochDay, minute) > minute;
+    }
+
+    /**
+     * Returns the restricted days of the person.
+     *
+     * @param person    person
+     * @return          days in ascending order, empty if there are none
+     */
+    public List<LocalDate> getRestrictedDays(Person person) {
+        Entry entry = entries.get(person);
+
+        if (entry == null)
+            return Collections.emptyList();
+
+        List<LocalDate> days = new ArrayList<>(entry.restricted.cardinality());
+        for (int i = entry.restricted.nextSetBit(0); i >= 0; i = entry.restricted.nextSetBit(i + 1)) {
+            days.add(LocalDate.ofEpochDay(entry.firstDay + i));
+        }
+
+        return days;
+    }
+
+    /**
+     * Returns the merged intervals of the person on the given day.
+     *
+     * @param person    person
+     * @param day       day
+     * @return          array of {@code [start, end]} pairs in minutes, ordered
+     *                  by their starts; empty if there are none
+     */
+    public int[] getIntervals(Person person, LocalDate day) {
+        Entry entry = entries.get(person);
+
+        if (entry == null)
+            return EMPTY;
+
+        long index = day.toEpochDay() - entry.firstDay;
+
+        if ((index < 0) || (index >= entry.starts.length) || (entry.starts[(int) index] == null))
+            return EMPTY;
+
+        int[] s      = entry.starts[(int) index];
+        int[] e      = entry.ends[(int) index];
+        int[] result = new int[2 * s.length];
+
+        for (int i = 0; i < s.length; ++i) {
+            result[2 * i]     = s[i];
+            result[2 * i + 1] = e[i];
+        }
+
+        return result;
+    }
+}
@@ -28,6 +28,7 @@ public abstract class Person {
 
     private String  memFullName; // memoized full name
     private Integer memHash;     // memoized hash code
+    private int     ordinal;     // dense index assigned by the model, -1 if none
 
     // titles must contain at least one character, a-z, A-Z or a dot and nothing else
     private static final Pattern TITLE_PATTERN = Pattern.compile("^[a-zA-Z\\.]+$");
@@ -55,6 +56,8 @@ public abstract class Person {
 
         this.prefixTitles.stream().forEach(title -> requireMatch(TITLE_PATTERN, title, "prefixTitle"));
         this.suffixTitles.stream().forEach(title -> requireMatch(TITLE_PATTERN, title, "suffixTitle"));
+
+        this.ordinal = -1;
     }
 
     //<editor-fold defaultstate="collapsed" desc="[  Getters  ]">
@@ -66,8 +69,75 @@ public abstract class Person {
     public List<String> getPrefixTitles() { return Collections.unmodifiableList(prefixTitles); }
     public List<String> getSuffixTitles() { return Collections.unmodifiableList(suffixTitles); }
 
+    public int     getOrdinal() { return ordinal;      }
+    public boolean isInterned() { return ordinal >= 0; }
+
     //</editor-fold>
 
+    /**
+     * Assigns a dense index to the person.
+     *
+     * Ordinals are assigned by the model when the person is added to it;
+     * teachers and students are numbered independently from zero.
+     * The ordinal is mutable state of a shared data object and models and
+     * their contexts keep it in their indices, so a person can be interned
+     * only once and must not be shared by two models. Models that are built
+     * from the same data need their own instances of the persons, e.g. from
+     * separate data sources.
+     *
+     * @param ordinal   non-negative index
+     * @throws IllegalStateException if the person is already interned
+     */
+    public void setOrdinal(int ordinal) {
+        requireNonNegative(ordinal, "Person.ordinal");
+
+        if (this.ordinal >= 0)
+            throw new IllegalStateException("Person " + id + " is already interned with ordinal " + this.ordinal + ".");
+
+        this.ordinal = ordinal;
+    }
+
+    /**
+     * Checks whether the given person is the same as this one.
+     *
+     * If both persons are interned, only their ordinals are compared,
+     * otherwise the result is the same as {@link #equals(Object)}.
+     *
+     * @param other person to compare with
+     * @return      {@code true} if both instances represent the same person
+     */
+    public boolean sameAs(Person other) {
+        if (other == this)
+            return true;
+
+        if ((other == null) || (getClass() != other.getClass()))
+            return false;
+
+        return (ordinal >= 0) && (other.ordinal >= 0)
+                ? ordinal == other.ordinal
+                : equals(other);
+    }
+
+    /**
+     * Checks whether the list contains a person that is
+     * {@linkplain #sameAs the same} as the given one.
+     *
+     * Unlike {@link List#contains}, interned persons are compared by their
+     * ordinals only.
+     *
+     * @param people    list of persons
+     * @param person    person to look for
+     * @return          {@code true} if some person in the list is the same
+     */
+    public static boolean containsSame(List<? extends Person> people, Person person) {
+        for (int i = 0; i < people.size(); ++i) {
+            if (people.get(i).sameAs(person))
+                return true;
+        }
+
+        return false;
+    }
+
     public String getFullName() {
         if (memFullName != null)
             return memFullName;
@@ -58,7 +58,15 @@ public class Thesis {
     }
 
     public boolean hasTeacher(Teacher teacher) {
-        return (supervisor.equals(teacher) || opponents.contains(teacher));
+        if (supervisor.sameAs(teacher))
+            return true;
+
+        for (Teacher opponent : opponents) {
+            if (opponent.sameAs(teacher))
+                return true;
+        }
+
+        return false;
     }
 
     //</editor-fold>
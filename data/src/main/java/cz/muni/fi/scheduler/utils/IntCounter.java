@@ -15,4 +15,6 @@ public class IntCounter {
     public int  get()           { return current; }
     public void set(int value)  { this.current = value; }
     public int  inc()           { return ++current; }
+    public int  dec()           { return --current; }
+    public int  add(int delta)  { return current += delta; }
 }
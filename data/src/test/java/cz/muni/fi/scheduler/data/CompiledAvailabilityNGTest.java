@@ -0,0 +1,179 @@
+package cz.muni.fi.scheduler.data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Random;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class CompiledAvailabilityNGTest {
+    private static final LocalDate DAY = LocalDate.of(2016, Month.MAY, 2);
+
+    private final Teacher alice = new Teacher(1, "Alice", "Smith");
+    private final Teacher bob   = new Teacher(2, "Bob",   "Brown");
+
+    private static LocalDateTime at(LocalDate day, int hour, int minute) {
+        return LocalDateTime.of(day, LocalTime.of(hour, minute));
+    }
+
+    @Test
+    public void testUnrestricted() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 8, 0), at(DAY, 12, 0));
+
+        CompiledAvailability compiled = avail.compile();
+
+        assertTrue(compiled.isAvailable(bob, DAY, LocalTime.of(6, 0), LocalTime.of(23, 0)));
+        assertTrue(compiled.isAvailable(alice, DAY.plusDays(1), LocalTime.MIN, LocalTime.MAX));
+        assertFalse(compiled.isRestricted(alice, DAY.plusDays(1)));
+        assertTrue(compiled.isRestricted(alice, DAY));
+    }
+
+    @Test
+    public void testMergesIntervals() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 8,  0), at(DAY, 10, 0));
+        avail.addAvailability(alice, at(DAY, 9,  0), at(DAY, 11, 0));
+        avail.addAvailability(alice, at(DAY, 11, 0), at(DAY, 12, 0));
+        avail.addAvailability(alice, at(DAY, 14, 0), at(DAY, 15, 0));
+
+        CompiledAvailability compiled = avail.compile();
+
+        assertEquals(compiled.getIntervals(alice, DAY), new int[] { 480, 720, 840, 900 });
+        assertTrue(compiled.isAvailable(alice, DAY, LocalTime.of(8, 30), LocalTime.of(11, 30)));
+        assertTrue(compiled.isAvailable(alice, DAY, LocalTime.of(8, 0),  LocalTime.of(12, 0)));
+        assertFalse(compiled.isAvailable(alice, DAY, LocalTime.of(7, 59), LocalTime.of(9, 0)));
+        assertFalse(compiled.isAvailable(alice, DAY, LocalTime.of(11, 30), LocalTime.of(14, 30)));
+        assertFalse(compiled.isAvailable(alice, DAY, LocalTime.of(15, 0), LocalTime.of(15, 1)));
+    }
+
+    /**
+     * Touching intervals are merged, so a query across the boundary succeeds
+     * even though no single original interval covers it. The model builder
+     * uses the compiled form, so such teachers are commissary candidates.
+     */
+    @Test
+    public void testTouchingIntervals() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 8,  0), at(DAY, 10, 0));
+        avail.addAvailability(alice, at(DAY, 10, 0), at(DAY, 12, 0));
+
+        CompiledAvailability compiled = avail.compile();
+        LocalTime            from     = LocalTime.of(9, 0);
+        LocalTime            to       = LocalTime.of(11, 0);
+
+        assertTrue(compiled.isAvailable(alice, DAY, from, to));
+        assertFalse(avail.isAvailable(alice, DAY, from, to));
+
+        assertEquals(compiled.isAvailable(alice, DAY, LocalTime.of(8, 0), LocalTime.of(10, 0)),
+                avail.isAvailable(alice, DAY, LocalTime.of(8, 0), LocalTime.of(10, 0)));
+        assertEquals(compiled.isAvailable(alice, at(DAY, 10, 0)), avail.isAvailable(alice, at(DAY, 10, 0)));
+    }
+
+    @Test
+    public void testOverlappingIntervals() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 8, 0), at(DAY, 10, 30));
+        avail.addAvailability(alice, at(DAY, 9, 0), at(DAY, 12, 0));
+
+        CompiledAvailability compiled = avail.compile();
+        LocalTime            from     = LocalTime.of(8, 30);
+        LocalTime            to       = LocalTime.of(11, 30);
+
+        assertTrue(compiled.isAvailable(alice, DAY, from, to));
+        assertFalse(avail.isAvailable(alice, DAY, from, to));
+
+        assertEquals(compiled.isAvailable(alice, DAY, LocalTime.of(9, 30), LocalTime.of(10, 30)),
+                avail.isAvailable(alice, DAY, LocalTime.of(9, 30), LocalTime.of(10, 30)));
+        assertFalse(compiled.isAvailable(alice, DAY, LocalTime.of(11, 30), LocalTime.of(12, 1)));
+    }
+
+    @Test
+    public void testWholeDayAndMidnight() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, DAY);
+        avail.addAvailability(bob, at(DAY, 20, 0), at(DAY.plusDays(1), 0, 0));
+
+        CompiledAvailability compiled = avail.compile();
+
+        assertEquals(compiled.getIntervals(alice, DAY), new int[] { 0, CompiledAvailability.DAY_MINUTES });
+        assertTrue(compiled.isAvailable(alice, DAY, LocalTime.MIN, LocalTime.MAX));
+
+        assertTrue(compiled.isAvailable(bob, DAY, LocalTime.of(21, 0), LocalTime.MAX));
+        assertFalse(compiled.isRestricted(bob, DAY.plusDays(1)));
+        assertEquals(compiled.getIntervals(bob, DAY.plusDays(1)).length, 0);
+    }
+
+    @Test
+    public void testMultipleDays() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 18, 0), at(DAY.plusDays(2), 10, 0));
+
+        CompiledAvailability compiled = avail.compile();
+
+        assertTrue(compiled.isAvailable(alice, DAY.plusDays(1), LocalTime.MIN, LocalTime.MAX));
+        assertTrue(compiled.isAvailable(alice, DAY.plusDays(2), LocalTime.of(8, 0), LocalTime.of(10, 0)));
+        assertFalse(compiled.isAvailable(alice, DAY.plusDays(2), LocalTime.of(9, 0), LocalTime.of(10, 1)));
+        assertFalse(compiled.isAvailable(alice, DAY, LocalTime.of(17, 0), LocalTime.of(19, 0)));
+    }
+
+    @Test
+    public void testPointQuery() {
+        Availability avail = new Availability();
+        avail.addAvailability(alice, at(DAY, 8, 0), at(DAY, 10, 0));
+
+        CompiledAvailability compiled = avail.compile();
+
+        assertTrue(compiled.isAvailable(alice, at(DAY, 8, 0)));
+        assertTrue(compiled.isAvailable(alice, at(DAY, 9, 59)));
+        assertFalse(compiled.isAvailable(alice, at(DAY, 10, 0)));
+        assertFalse(compiled.isAvailable(alice, at(DAY.plusDays(1), 9, 0)));
+        assertTrue(compiled.isAvailable(bob, at(DAY, 9, 0)));
+    }
+
+    /**
+     * Compares the compiled form with the original on random data.
+     *
+     * The intervals are separated by gaps, so merging does not change the
+     * answers and both forms must agree.
+     */
+    @Test
+    public void testAgreesWithAvailability() {
+        Random       random = new Random(42);
+        Availability avail  = new Availability();
+
+        for (int day = 0; day < 5; ++day) {
+            if (random.nextBoolean())
+                continue;
+
+            int minute = random.nextInt(120);
+            while (minute < 22 * 60) {
+                int length = 15 + random.nextInt(180);
+                avail.addAvailability(alice,
+                        LocalDateTime.of(DAY.plusDays(day), LocalTime.MIN.plusMinutes(minute)),
+                        LocalDateTime.of(DAY.plusDays(day), LocalTime.MIN.plusMinutes(minute + length)));
+                minute += length + 1 + random.nextInt(120);
+            }
+        }
+
+        CompiledAvailability compiled = avail.compile();
+
+        for (int i = 0; i < 10000; ++i) {
+            LocalDate date = DAY.plusDays(random.nextInt(6));
+            int       from = random.nextInt(23 * 60);
+            int       to   = from + random.nextInt(24 * 60 - from);
+
+            LocalTime start = LocalTime.MIN.plusMinutes(from);
+            LocalTime end   = LocalTime.MIN.plusMinutes(to);
+
+            assertEquals(compiled.isAvailable(alice, date, start, end),
+                    avail.isAvailable(alice, date, start, end),
+                    date + " " + start + "-" + end);
+            assertEquals(compiled.isAvailable(alice, LocalDateTime.of(date, start)),
+                    avail.isAvailable(alice, LocalDateTime.of(date, start)),
+                    date + " " + start);
+        }
+    }
+}
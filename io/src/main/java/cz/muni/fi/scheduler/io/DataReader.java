@@ -0,0 +1,38 @@
+package cz.muni.fi.scheduler.io;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Reads entities from tab-separated files for {@link DirectoryDataSource}.
+ *
+ * Every file starts with a header that names its columns; the order of
+ * columns is arbitrary. Implementations must accept the same files and
+ * produce the same entities, and must allow concurrent calls, see
+ * {@link DirectoryDataSource#preload(java.util.concurrent.Executor)}.
+ *
+ * @see cz.muni.fi.scheduler.io.csv.CSVDataReader
+ * @see cz.muni.fi.scheduler.io.csv.MappedTSVReader
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public interface DataReader {
+    public Map<Long, Field> readFields(InputStream source) throws IOException;
+
+    public Map<Long, Teacher> readTeachers(InputStream source) throws IOException;
+
+    public Map<Long, Thesis> readTheses(InputStream source, Map<Long, Teacher> teachers) throws IOException;
+
+    public Map<Long, Student> readStudents(InputStream source,
+            Map<Long, Thesis> theses, Map<Long, Field> fields) throws IOException;
+
+    public void readAvailability(InputStream source,
+            Map<Long, Person> people, Availability target) throws IOException;
+}
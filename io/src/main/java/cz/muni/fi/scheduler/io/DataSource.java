@@ -23,5 +23,11 @@ public interface DataSource extends AutoCloseable {
     public Object getMetadata();
     public Object getConfiguration();
 
-    public void write();
+    /**
+     * Writes the schedule to the destination of the source.
+     *
+     * @param schedule      schedule to write
+     * @throws IOException  if the schedule cannot be written
+     */
+    public void write(ScheduleExport schedule) throws IOException;
 }
\ No newline at end of file
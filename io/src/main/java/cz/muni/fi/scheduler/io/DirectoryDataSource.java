@@ -9,12 +9,19 @@ import cz.muni.fi.scheduler.data.Student;
 import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.data.Thesis;
 import cz.muni.fi.scheduler.io.csv.CSVDataReader;
+import cz.muni.fi.scheduler.io.export.TSVScheduleWriter;
 import cz.muni.fi.scheduler.utils.IOFunction;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,6 +38,14 @@ import org.apache.log4j.Logger;
  *   \-- theses.csv
  * </pre>
  *
+ * Schedules are written into the same directory, see {@link #write(ScheduleExport)}.
+ *
+ * Files are loaded lazily when their data is requested for the first time;
+ * {@link #preload(Executor)} loads all of them at once in parallel.
+ *
+ * An instance is not thread-safe, but separate instances do not share any
+ * state and can be used by different threads.
+ *
  * @author cweorth
  */
 public class DirectoryDataSource implements DataSource, AutoCloseable {
@@ -39,7 +54,7 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
 
     private File flock;
     private final File source;
-    private static final CSVDataReader csvreader;
+    private final DataReader reader;
 
     private Map<Long, Field>    memFields;
     private Map<Long, Teacher>  memTeachers;
@@ -49,46 +64,76 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
     private Map<Long, Person>   memPeople;
     private Availability        memAvailability;
 
-    static {
-        logger.debug("static initializer");
-        csvreader = new CSVDataReader();
-    }
-
-    private <T> Map<Long, T> genericFileReader(String fileName,
-            IOFunction<FileInputStream, Map<Long,T>> reader) throws IOException {
-        File fields = new File(source, fileName);
-        logger.debug("probing file '" + fields.getAbsolutePath() + "'");
+    private File probe(String fileName) throws FileNotFoundException {
+        File file = new File(source, fileName);
+        logger.debug("probing file '" + file.getAbsolutePath() + "'");
 
-        if (!fields.exists()) {
+        if (!file.exists()) {
             throw new FileNotFoundException("File " + fileName + " does not exist.");
         }
 
-        Map<Long, T> data = null;
+        return file;
+    }
+
+    private <T> T parse(String fileName, InputStream input,
+            IOFunction<InputStream, T> fileReader) throws IOException {
         logger.debug("reading file");
 
-        try (FileInputStream fis = new FileInputStream(fields)) {
-            data = reader.apply(fis);
+        try (InputStream in = input) {
+            return fileReader.apply(in);
         } catch (Exception ex) {
             logger.error("failed to read data from " + fileName);
             logger.debug(ex);
             throw ex;
         }
+    }
+
+    private <T> Map<Long, T> genericFileReader(String fileName,
+            IOFunction<InputStream, Map<Long,T>> fileReader) throws IOException {
+        return parse(fileName, new FileInputStream(probe(fileName)), fileReader);
+    }
+
+    private void parseAvailability(InputStream input, Map<Long, Person> people,
+            Availability target) throws IOException {
+        logger.debug("reading file");
+
+        try (InputStream in = input) {
+            reader.readAvailability(in, people, target);
+        } catch (Exception ex) {
+            logger.error("failed to read availability from a CSV file availability.csv");
+            logger.debug(ex);
+            throw ex;
+        }
+    }
 
-        return data;
+    private static Map<Long, Person> merge(Map<Long, Teacher> teachers, Map<Long, Student> students) {
+        return Stream.concat(teachers.values().stream(), students.values().stream())
+                .collect(Collectors.toMap(p -> p.getId(), Function.identity()));
     }
 
     private Map<Long, Person> getPeople() throws IOException {
         if (memPeople == null) {
-            memPeople = Stream.concat(getTeachers().values().stream(),
-                                      getStudents().values().stream())
-                    .collect(Collectors.toMap(p -> p.getId(), Function.identity()));
+            memPeople = merge(getTeachers(), getStudents());
         }
 
         return memPeople;
     }
 
     public DirectoryDataSource(File source) throws IOException {
+        this(source, new CSVDataReader());
+    }
+
+    /**
+     * Creates a data source that reads files with the given reader.
+     *
+     * @param source        directory with the data
+     * @param reader        reader of the files, e.g. {@link cz.muni.fi.scheduler.io.csv.MappedTSVReader}
+     *                      for large files
+     * @throws IOException  if the directory does not exist or is locked
+     */
+    public DirectoryDataSource(File source, DataReader reader) throws IOException {
         this.source = requireNonNull(source, "source");
+        this.reader = requireNonNull(reader, "reader");
         logger.debug("source path: '" + source.getAbsolutePath() + "'");
 
         if (!source.exists()) {
@@ -117,8 +162,6 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
 
     @Override
     public void close() {
-        logger.debug("flushing data");
-        write();
         logger.debug("unlocking source");
         //flock.delete();
         //logger.debug("source unlocked");
@@ -127,7 +170,7 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
     @Override
     public Map<Long, Field> getFields() throws IOException {
         if (memFields == null) {
-            memFields = genericFileReader("fields.csv", csvreader::readFields);
+            memFields = genericFileReader("fields.csv", reader::readFields);
         }
 
         return memFields;
@@ -136,7 +179,7 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
     @Override
     public Map<Long, Teacher> getTeachers() throws IOException {
         if (memTeachers == null) {
-            memTeachers = genericFileReader("teachers.csv", csvreader::readTeachers);
+            memTeachers = genericFileReader("teachers.csv", reader::readTeachers);
         }
 
         return memTeachers;
@@ -145,7 +188,7 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
     @Override
     public Map<Long, Thesis> getTheses() throws IOException {
         if (memTheses == null) {
-            memTheses = genericFileReader("theses.csv", x -> csvreader.readTheses(x, getTeachers()));
+            memTheses = genericFileReader("theses.csv", x -> reader.readTheses(x, getTeachers()));
         }
 
         return memTheses;
@@ -155,7 +198,7 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
     public Map<Long, Student> getStudents() throws IOException {
         if (memStudents == null) {
             memStudents = genericFileReader("students.csv",
-                                            x -> csvreader.readStudents(x, getTheses(), getFields()));
+                                            x -> reader.readStudents(x, getTheses(), getFields()));
         }
 
         return memStudents;
@@ -175,19 +218,122 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
             return memAvailability;
         }
 
-        logger.debug("reading file");
+        parseAvailability(new FileInputStream(file), getPeople(), memAvailability);
+        return memAvailability;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Preloading  ]">
+
+    @FunctionalInterface
+    private interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private static <T> T unchecked(IOSupplier<T> task) {
+        try {
+            return task.get();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static <T> CompletableFuture<T> async(Executor executor, IOSupplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> unchecked(task), executor);
+    }
+
+    private <T> CompletableFuture<T> loaded(T value, Executor executor, IOSupplier<T> task) {
+        return value != null ? CompletableFuture.completedFuture(value) : async(executor, task);
+    }
+
+    /**
+     * Loads all files at once using the common fork-join pool.
+     *
+     * @throws IOException  if any of the files cannot be read
+     * @see #preload(Executor)
+     */
+    public void preload() throws IOException {
+        preload(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads all files at once.
+     *
+     * Files are parsed in parallel and every file is parsed as soon as the
+     * files it refers to are parsed: fields and teachers right away, theses
+     * after teachers, students after theses and fields and availability
+     * after students. Every file is opened by the task that parses it, so
+     * the reader gets a {@link FileInputStream} it can map into memory.
+     * Data that has already been loaded is not read again.
+     *
+     * The method returns when everything is loaded; the instance must not be
+     * used by other threads until then. The {@link DataReader} must allow
+     * concurrent calls.
+     *
+     * @param executor      executor to run the tasks on
+     * @throws IOException  if any of the files cannot be read
+     */
+    public void preload(Executor executor) throws IOException {
+        requireNonNull(executor, "executor");
+        logger.debug("preloading data");
+
+        CompletableFuture<Map<Long, Field>>   fields   = loaded(memFields, executor,
+                () -> genericFileReader("fields.csv", reader::readFields));
+        CompletableFuture<Map<Long, Teacher>> teachers = loaded(memTeachers, executor,
+                () -> genericFileReader("teachers.csv", reader::readTeachers));
+
+        CompletableFuture<Map<Long, Thesis>> theses = memTheses != null
+                ? CompletableFuture.completedFuture(memTheses)
+                : teachers.thenApplyAsync(tchrs -> unchecked(
+                        () -> genericFileReader("theses.csv", in -> reader.readTheses(in, tchrs))), executor);
+
+        CompletableFuture<Map<Long, Student>> students = memStudents != null
+                ? CompletableFuture.completedFuture(memStudents)
+                : theses.thenCombineAsync(fields, (thss, flds) -> unchecked(
+                        () -> genericFileReader("students.csv", in -> reader.readStudents(in, thss, flds))), executor);
+
+        CompletableFuture<Map<Long, Person>> people = students.thenCombine(teachers, (stds, tchrs) -> merge(tchrs, stds));
+
+        CompletableFuture<Availability> availability = memAvailability != null
+                ? CompletableFuture.completedFuture(memAvailability)
+                : people.thenApplyAsync(ppl -> unchecked(() -> {
+                        Availability result = new Availability();
+                        File         file   = new File(source, "availability.csv");
+
+                        if (!file.exists())
+                            logger.warn("File 'availability.csv' does not exist (but I can live without it)");
+                        else
+                            parseAvailability(new FileInputStream(file), ppl, result);
+
+                        return result;
+                    }), executor);
+
+        try {
+            CompletableFuture.allOf(fields, teachers, theses, students, availability).join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof UncheckedIOException)
+                throw ((UncheckedIOException) cause).getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
 
-        try (FileInputStream fis = new FileInputStream(file)) {
-            csvreader.readAvailability(fis, getPeople(), memAvailability);
-        } catch (Exception ex) {
-            logger.error("failed to read availability from a CSV file availability.csv");
-            logger.debug(ex);
             throw ex;
         }
 
-        return memAvailability;
+        memFields       = fields.join();
+        memTeachers     = teachers.join();
+        memTheses       = theses.join();
+        memStudents     = students.join();
+        memPeople       = people.join();
+        memAvailability = availability.join();
+
+        logger.debug("data preloaded");
     }
 
+    //</editor-fold>
+
     @Override
     public Object getMetadata() {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -198,9 +344,26 @@ public class DirectoryDataSource implements DataSource, AutoCloseable {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Writes the schedule into the directory using {@link TSVScheduleWriter}.
+     *
+     * @param schedule      schedule to write
+     * @throws IOException  if the files cannot be written
+     */
     @Override
-    public void write() {
+    public void write(ScheduleExport schedule) throws IOException {
+        requireNonNull(schedule, "schedule");
+        logger.debug("writing schedule");
+
+        try (TSVScheduleWriter writer = new TSVScheduleWriter(source)) {
+            schedule.export(writer);
+        } catch (Exception ex) {
+            logger.error("failed to write the schedule to " + source.getName());
+            logger.debug(ex);
+            throw ex;
+        }
 
+        logger.debug("schedule written");
     }
 
 }
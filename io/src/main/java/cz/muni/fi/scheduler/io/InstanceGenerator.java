@@ -0,0 +1,362 @@
+package cz.muni.fi.scheduler.io;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.apache.log4j.Logger;
+
+/**
+ * Generates random instances readable by {@link DirectoryDataSource}.
+ *
+ * The generator writes {@code fields.csv}, {@code teachers.csv},
+ * {@code theses.csv}, {@code students.csv} and {@code availability.csv}
+ * into a directory. Identifiers are unique over all entities, as the data
+ * source requires. Every student defends a thesis, except for repeaters
+ * who only take the oral exam.
+ *
+ * On each day, a teacher is either available the whole day (with the
+ * probability given by the availability density) or only within a random
+ * window of the working hours.
+ *
+ * The same parameters and seed always produce the same instance.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class InstanceGenerator {
+    private static final Logger logger = Logger.getLogger("InstanceGenerator");
+
+    private static final String[] NAMES = {
+        "Adam", "Alena", "Boris", "Dana", "Eva", "Filip", "Hana", "Ivan", "Jana", "Karel",
+        "Lucie", "Martin", "Nina", "Ondrej", "Petra", "Radek", "Sara", "Tomas", "Vera", "Zdenek"
+    };
+
+    private static final String[] SURNAMES = {
+        "Novak", "Svoboda", "Dvorak", "Cerny", "Prochazka", "Kucera", "Vesely", "Horak",
+        "Nemec", "Marek", "Pospisil", "Hajek", "Jelinek", "Kral", "Ruzicka", "Benes"
+    };
+
+    private static final String[] WORDS = {
+        "analysis", "of", "distributed", "scheduling", "systems", "with", "formal",
+        "verification", "for", "mobile", "networks", "using", "graph", "algorithms"
+    };
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final LocalTime DAY_START = LocalTime.of(8, 0);
+    private static final int       DAY_HOURS = 10;
+
+    private final long      seed;
+    private final int       students;
+    private final int       teachers;
+    private final int       fields;
+    private final int       minOpponents;
+    private final int       maxOpponents;
+    private final double    availabilityDensity;
+    private final double    repeaterRatio;
+    private final int       days;
+    private final LocalDate firstDate;
+
+    private Random random;
+    private long   idseq;
+
+    private InstanceGenerator(Builder builder) {
+        this.seed                = builder.seed;
+        this.students            = builder.students;
+        this.teachers            = builder.teachers;
+        this.fields              = builder.fields;
+        this.minOpponents        = builder.minOpponents;
+        this.maxOpponents        = builder.maxOpponents;
+        this.availabilityDensity = builder.availabilityDensity;
+        this.repeaterRatio       = builder.repeaterRatio;
+        this.days                = builder.days;
+        this.firstDate           = builder.firstDate;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Builder  ]">
+
+    public static class Builder {
+        private long      seed                = 0L;
+        private int       students            = 16;
+        private int       teachers            = 10;
+        private int       fields              = 1;
+        private int       minOpponents        = 1;
+        private int       maxOpponents        = 1;
+        private double    availabilityDensity = 1.0;
+        private double    repeaterRatio       = 0.0;
+        private int       days                = 5;
+        private LocalDate firstDate           = LocalDate.of(2016, Month.MAY, 1);
+
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder setStudents(int students) {
+            this.students = requirePositive(students, "students");
+            return this;
+        }
+
+        public Builder setTeachers(int teachers) {
+            this.teachers = requirePositive(teachers, "teachers");
+            return this;
+        }
+
+        public Builder setFields(int fields) {
+            this.fields = requirePositive(fields, "fields");
+            return this;
+        }
+
+        public Builder setOpponents(int min, int max) {
+            this.minOpponents = requirePositive(min, "min");
+            this.maxOpponents = requirePositive(max, "max");
+
+            if (min > max)
+                throw new IllegalArgumentException("The minimum number of opponents is greater than the maximum.");
+
+            return this;
+        }
+
+        public Builder setAvailabilityDensity(double density) {
+            if (density < 0.0 || density > 1.0)
+                throw new IllegalArgumentException("Availability density must be in [0, 1].");
+
+            this.availabilityDensity = density;
+            return this;
+        }
+
+        public Builder setRepeaterRatio(double ratio) {
+            if (ratio < 0.0 || ratio > 1.0)
+                throw new IllegalArgumentException("Repeater ratio must be in [0, 1].");
+
+            this.repeaterRatio = ratio;
+            return this;
+        }
+
+        public Builder setDays(int days) {
+            this.days = requirePositive(days, "days");
+            return this;
+        }
+
+        public Builder setFirstDate(LocalDate date) {
+            this.firstDate = requireNonNull(date, "date");
+            return this;
+        }
+
+        public InstanceGenerator value() {
+            if (teachers <= maxOpponents)
+                throw new IllegalArgumentException("There must be more teachers than opponents of a thesis.");
+
+            return new InstanceGenerator(this);
+        }
+    }
+
+    //</editor-fold>
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static PrintWriter open(File directory, String name, String... header) throws IOException {
+        PrintWriter writer = new PrintWriter(new File(directory, name), StandardCharsets.UTF_8.name());
+        writer.println(String.join("\t", header));
+        return writer;
+    }
+
+    private static void close(PrintWriter writer, String name) throws IOException {
+        writer.close();
+
+        if (writer.checkError())
+            throw new IOException("Failed to write " + name + ".");
+    }
+
+    private List<String> writeFields(File directory) throws IOException {
+        List<String> codes  = new ArrayList<>(fields);
+        PrintWriter  writer = open(directory, "fields.csv", "id", "code", "name");
+
+        for (int i = 0; i < fields; ++i) {
+            String code = "F" + i;
+            writer.println(idseq++ + "\t" + code + "\tField " + i);
+            codes.add(code);
+        }
+
+        close(writer, "fields.csv");
+        return codes;
+    }
+
+    private List<Long> writeTeachers(File directory) throws IOException {
+        List<Long>  ids    = new ArrayList<>(teachers);
+        PrintWriter writer = open(directory, "teachers.csv", "id", "prefixTitles", "name", "surname", "suffixTitles");
+
+        for (int i = 0; i < teachers; ++i) {
+            long id = idseq++;
+            writer.println(id + "\tdoc.\t" + pick(NAMES) + "\t" + pick(SURNAMES) + "\tPh.D.");
+            ids.add(id);
+        }
+
+        close(writer, "teachers.csv");
+        return ids;
+    }
+
+    private List<Long> writeTheses(File directory, List<Long> teacherIds, int count) throws IOException {
+        List<Long>  ids      = new ArrayList<>(count);
+        List<Long>  shuffled = new ArrayList<>(teacherIds);
+        PrintWriter writer   = open(directory, "theses.csv", "id", "supervisor", "opponents", "name");
+
+        for (int i = 0; i < count; ++i) {
+            long id    = idseq++;
+            int  nopps = minOpponents + random.nextInt(maxOpponents - minOpponents + 1);
+
+            // the first teacher is the supervisor, the following ones are opponents
+            Collections.shuffle(shuffled, random);
+
+            StringBuilder opponents = new StringBuilder();
+            for (int j = 1; j <= nopps; ++j) {
+                opponents.append(j > 1 ? " " : "").append(shuffled.get(j));
+            }
+
+            StringBuilder name = new StringBuilder();
+            for (int j = 0; j < 4 + random.nextInt(4); ++j) {
+                name.append(j > 0 ? " " : "").append(pick(WORDS));
+            }
+
+            writer.println(id + "\t" + shuffled.get(0) + "\t" + opponents + "\t" + name);
+            ids.add(id);
+        }
+
+        close(writer, "theses.csv");
+        return ids;
+    }
+
+    private void writeStudents(File directory, List<String> fieldCodes, List<Long> teacherIds) throws IOException {
+        int repeaters = (int) Math.round(students * repeaterRatio);
+
+        List<Long>  theses = writeTheses(directory, teacherIds, students - repeaters);
+        PrintWriter writer = open(directory, "students.csv", "id", "prefixTitles", "name", "surname",
+                "suffixTitles", "field", "repetition", "thesis", "examLevel");
+
+        for (int i = 0; i < students; ++i) {
+            boolean repeater = i >= theses.size();
+
+            writer.println(idseq++ + "\t\t" + pick(NAMES) + "\t" + pick(SURNAMES) + "\t\t"
+                    + fieldCodes.get(random.nextInt(fieldCodes.size())) + "\t"
+                    + (repeater ? "ORAL_EXAM" : "NOTHING") + "\t"
+                    + (repeater ? "" : String.valueOf(theses.get(i))) + "\t"
+                    + (random.nextBoolean() ? "BACHELOR" : "MASTER"));
+        }
+
+        close(writer, "students.csv");
+    }
+
+    private void writeAvailability(File directory, List<Long> teacherIds) throws IOException {
+        PrintWriter writer  = open(directory, "availability.csv", "person", "date", "from", "to");
+        int         entries = 0;
+
+        for (long teacher : teacherIds) {
+            for (int day = 0; day < days; ++day) {
+                if (random.nextDouble() < availabilityDensity)
+                    continue;
+
+                // a window of at least two hours within the working hours
+                int       length = 2 + random.nextInt(DAY_HOURS - 1);
+                int       offset = random.nextInt(DAY_HOURS - length + 1);
+                LocalTime from   = DAY_START.plusHours(offset);
+                LocalTime to     = from.plusHours(length);
+
+                writer.println(teacher + "\t" + firstDate.plusDays(day).format(DATE_FORMAT) + "\t"
+                        + from.format(TIME_FORMAT) + "\t" + to.format(TIME_FORMAT));
+                ++entries;
+            }
+        }
+
+        close(writer, "availability.csv");
+        logger.debug(entries + " availability entries written");
+    }
+
+    /**
+     * Writes a new instance into the directory.
+     *
+     * @param directory     target directory, created if it does not exist
+     * @throws IOException  if the directory cannot be created or written
+     */
+    public void generate(File directory) throws IOException {
+        requireNonNull(directory, "directory");
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            IOException ex = new FileNotFoundException("Cannot create directory " + directory.getName() + ".");
+            logger.error(ex);
+            throw ex;
+        }
+
+        logger.info("generating " + students + " students and " + teachers + " teachers into '"
+                + directory.getAbsolutePath() + "'");
+
+        random = new Random(seed);
+        idseq  = 0L;
+
+        List<String> fieldCodes = writeFields(directory);
+        List<Long>   teacherIds = writeTeachers(directory);
+
+        writeStudents(directory, fieldCodes, teacherIds);
+        writeAvailability(directory, teacherIds);
+    }
+
+    private static void usage() {
+        System.err.println("usage: InstanceGenerator <directory> [option=value ...]");
+        System.err.println("options: seed, students, teachers, fields, minOpponents, maxOpponents,");
+        System.err.println("         availabilityDensity, repeaterRatio, days, firstDate (yyyy-MM-dd)");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            usage();
+            System.exit(1);
+        }
+
+        Builder builder = new Builder();
+        int     minOpps = builder.minOpponents;
+        int     maxOpps = builder.maxOpponents;
+
+        for (int i = 1; i < args.length; ++i) {
+            String[] option = args[i].split("=", 2);
+
+            if (option.length != 2) {
+                usage();
+                System.exit(1);
+            }
+
+            String value = option[1];
+
+            switch (option[0]) {
+                case "seed":                builder.setSeed(Long.parseLong(value));                     break;
+                case "students":            builder.setStudents(Integer.parseInt(value));               break;
+                case "teachers":            builder.setTeachers(Integer.parseInt(value));               break;
+                case "fields":              builder.setFields(Integer.parseInt(value));                 break;
+                case "minOpponents":        minOpps = Integer.parseInt(value);                          break;
+                case "maxOpponents":        maxOpps = Integer.parseInt(value);                          break;
+                case "availabilityDensity": builder.setAvailabilityDensity(Double.parseDouble(value));  break;
+                case "repeaterRatio":       builder.setRepeaterRatio(Double.parseDouble(value));        break;
+                case "days":                builder.setDays(Integer.parseInt(value));                   break;
+                case "firstDate":           builder.setFirstDate(LocalDate.parse(value));               break;
+                default:
+                    System.err.println("Unknown option '" + option[0] + "'.");
+                    usage();
+                    System.exit(1);
+            }
+        }
+
+        builder.setOpponents(minOpps, maxOpps).value().generate(new File(args[0]));
+    }
+}
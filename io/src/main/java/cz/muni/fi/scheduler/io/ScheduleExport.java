@@ -0,0 +1,24 @@
+package cz.muni.fi.scheduler.io;
+
+import java.io.IOException;
+
+/**
+ * Schedule that can be written by {@link DataSource#write(ScheduleExport)}.
+ *
+ * The export pushes its records into a {@link ScheduleSink} instead of
+ * building the whole report, so large schedules are streamed to their
+ * destination. Records are pushed grouped by their kind: all commissions
+ * first, then all exams and finally all blocks.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+@FunctionalInterface
+public interface ScheduleExport {
+    /**
+     * Pushes all records into the sink.
+     *
+     * @param sink          receiver of the records
+     * @throws IOException  if the sink fails
+     */
+    public void export(ScheduleSink sink) throws IOException;
+}
@@ -0,0 +1,54 @@
+package cz.muni.fi.scheduler.io;
+
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Receives the records of a {@link ScheduleExport} one at a time.
+ *
+ * @see cz.muni.fi.scheduler.io.export.TSVScheduleWriter
+ * @see cz.muni.fi.scheduler.io.export.JSONScheduleWriter
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public interface ScheduleSink {
+    /**
+     * Receives the commission of a row.
+     *
+     * @param row           identifier of the row
+     * @param commission    commission of the row
+     * @throws IOException  if the record cannot be written
+     */
+    public void commission(long row, Commission commission) throws IOException;
+
+    /**
+     * Receives an exam of a student.
+     *
+     * @param row           identifier of the row
+     * @param date          date of the exam
+     * @param start         start of the exam
+     * @param end           end of the exam
+     * @param student       examined student
+     * @throws IOException  if the record cannot be written
+     */
+    public void exam(long row, LocalDate date, LocalTime start, LocalTime end, Student student)
+            throws IOException;
+
+    /**
+     * Receives a block of consecutive exams a teacher attends.
+     *
+     * @param teacher       teacher
+     * @param date          date of the block
+     * @param start         start of the block
+     * @param end           end of the block
+     * @param spanning      whether the teacher is a member of the commission
+     *                      for the whole block
+     * @throws IOException  if the record cannot be written
+     */
+    public void block(Teacher teacher, LocalDate date, LocalTime start, LocalTime end, boolean spanning)
+            throws IOException;
+}
@@ -0,0 +1,120 @@
+package cz.muni.fi.scheduler.io;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotReader;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * Implementation of {@link DataSource} that provides data from a binary
+ * snapshot created by {@link SnapshotWriter}.
+ *
+ * The whole snapshot is read by the constructor, which is considerably
+ * faster than parsing the CSV files of a {@link DirectoryDataSource}.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class SnapshotDataSource implements DataSource {
+
+    private static final Logger logger = Logger.getLogger("SnapshotDataSource");
+
+    private final Map<Long, Field>    fields;
+    private final Map<Long, Teacher>  teachers;
+    private final Map<Long, Thesis>   theses;
+    private final Map<Long, Student>  students;
+    private final Availability        availability;
+
+    /**
+     * Reads the snapshot from a file.
+     *
+     * @param file          snapshot file
+     * @throws IOException  if the file cannot be read or is not a snapshot
+     */
+    public SnapshotDataSource(File file) throws IOException {
+        logger.debug("reading snapshot '" + requireNonNull(file, "file").getAbsolutePath() + "'");
+
+        try (SnapshotReader reader = new SnapshotReader(new FileInputStream(file))) {
+            this.fields       = reader.readFields();
+            this.teachers     = reader.readTeachers();
+            this.theses       = reader.readTheses(teachers);
+            this.students     = reader.readStudents(theses, fields);
+            this.availability = readAvailability(reader, teachers, students);
+        }
+    }
+
+    /**
+     * Reads the data from an open snapshot.
+     *
+     * The reader is left open and positioned after the data, so sections
+     * written after them can be read.
+     *
+     * @param reader        snapshot reader
+     * @throws IOException  if the snapshot cannot be read
+     */
+    public SnapshotDataSource(SnapshotReader reader) throws IOException {
+        requireNonNull(reader, "reader");
+
+        this.fields       = reader.readFields();
+        this.teachers     = reader.readTeachers();
+        this.theses       = reader.readTheses(teachers);
+        this.students     = reader.readStudents(theses, fields);
+        this.availability = readAvailability(reader, teachers, students);
+    }
+
+    private static Availability readAvailability(SnapshotReader reader,
+            Map<Long, Teacher> teachers, Map<Long, Student> students) throws IOException {
+        Map<Long, Person> people = new HashMap<>(2 * (teachers.size() + students.size()));
+        people.putAll(teachers);
+        people.putAll(students);
+
+        Availability result = new Availability();
+        reader.readAvailability(people, result);
+        return result;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public Map<Long, Field>   getFields()   { return fields;   }
+
+    @Override
+    public Map<Long, Thesis>  getTheses()   { return theses;   }
+
+    @Override
+    public Map<Long, Teacher> getTeachers() { return teachers; }
+
+    @Override
+    public Map<Long, Student> getStudents() { return students; }
+
+    @Override
+    public Availability getAvailability()   { return availability; }
+
+    @Override
+    public Object getMetadata() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public Object getConfiguration() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public void write(ScheduleExport schedule) {
+        throw new UnsupportedOperationException("Snapshots are read-only.");
+    }
+}
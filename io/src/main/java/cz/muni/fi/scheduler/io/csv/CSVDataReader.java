@@ -11,6 +11,7 @@ import cz.muni.fi.scheduler.data.Student;
 import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.data.Thesis;
 import cz.muni.fi.scheduler.data.builders.*;
+import cz.muni.fi.scheduler.io.DataReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -40,11 +41,12 @@ import org.supercsv.util.CsvContext;
 /**
  * Helper class for {@link cz.muni.fi.scheduler.io.DataSource} implementations.
  *
- * This class reads lists of entities from CSV files specified as input streams.
+ * This class reads lists of entities from CSV files specified as input streams
+ * using SuperCSV bean readers.
  *
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
-public class CSVDataReader {
+public class CSVDataReader implements DataReader {
 
     private static final Logger logger = Logger.getLogger("CSVDataReader");
 
@@ -129,6 +131,7 @@ public class CSVDataReader {
         return result;
     }
 
+    @Override
     public Map<Long, Field> readFields(InputStream source) throws IOException {
         requireNonNull(source, "source");
 
@@ -161,6 +164,7 @@ public class CSVDataReader {
         return fields;
     }
 
+    @Override
     public Map<Long, Teacher> readTeachers(InputStream source) throws IOException {
         requireNonNull(source, "source");
 
@@ -195,6 +199,7 @@ public class CSVDataReader {
         return teachers;
     }
 
+    @Override
     public Map<Long, Thesis> readTheses(InputStream source, Map<Long, Teacher> teachers) throws IOException {
         requireNonNull(source,   "source");
         requireNonNull(teachers, "teachers");
@@ -227,6 +232,7 @@ public class CSVDataReader {
         return theses;
     }
 
+    @Override
     public Map<Long, Student> readStudents(InputStream source,
             Map<Long, Thesis> theses, Map<Long, Field> fields) throws IOException {
         requireNonNull(source, "source");
@@ -271,6 +277,7 @@ public class CSVDataReader {
         return students;
     }
 
+    @Override
     public void readAvailability(InputStream source,
             Map<Long, Person> people, Availability target) throws IOException {
         requireNonNull(source, "source");
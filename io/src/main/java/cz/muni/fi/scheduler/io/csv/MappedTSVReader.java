@@ -0,0 +1,402 @@
+package cz.muni.fi.scheduler.io.csv;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.data.builders.FieldBuilder;
+import cz.muni.fi.scheduler.data.builders.StudentBuilder;
+import cz.muni.fi.scheduler.data.builders.TeacherBuilder;
+import cz.muni.fi.scheduler.data.builders.ThesisBuilder;
+import cz.muni.fi.scheduler.io.DataReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+
+/**
+ * Fast implementation of {@link DataReader} for large files.
+ *
+ * Files are memory-mapped when the source is a {@link FileInputStream} and
+ * parsed by {@link TSVTokenizer} without reflection; numbers, dates and enum
+ * constants are parsed directly from the mapped bytes and strings are only
+ * created for names and titles.
+ *
+ * The reader accepts the same files as {@link CSVDataReader} and reports
+ * errors the same way: a malformed row stops reading fields, teachers and
+ * theses with a logged error, while errors in students and availability are
+ * thrown. The character set must be ASCII-compatible.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class MappedTSVReader implements DataReader {
+
+    private static final Logger logger = Logger.getLogger("MappedTSVReader");
+
+    private final Charset charset;
+
+    public MappedTSVReader() {
+        this(Charset.defaultCharset());
+    }
+
+    public MappedTSVReader(Charset charset) {
+        this.charset = requireNonNull(charset, "charset");
+    }
+
+    //<editor-fold desc="[  Helpers  ]" defaultstate="collapsed">
+
+    private static ByteBuffer map(InputStream source) throws IOException {
+        if (source instanceof FileInputStream) {
+            FileChannel channel  = ((FileInputStream) source).getChannel();
+            long        position = channel.position();
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, channel.size() - position);
+        }
+
+        ByteArrayOutputStream bytes  = new ByteArrayOutputStream();
+        byte[]                buffer = new byte[8192];
+        int                   read;
+
+        while ((read = source.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, read);
+        }
+
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+
+    private TSVTokenizer open(InputStream source) throws IOException {
+        return new TSVTokenizer(map(requireNonNull(source, "source")), charset);
+    }
+
+    /**
+     * Reads the header and maps its columns to indices of known names.
+     */
+    private static int[] readHeader(TSVTokenizer tokenizer, String... names) throws IOException {
+        if (!tokenizer.readRow())
+            throw new IOException("The file has no header.");
+
+        int[]    columns = new int[tokenizer.columns()];
+        String[] header  = new String[columns.length];
+
+        for (int i = 0; i < columns.length; ++i) {
+            header[i]  = String.valueOf(tokenizer.getString(i));
+            columns[i] = Arrays.asList(names).indexOf(header[i].toLowerCase());
+
+            if (columns[i] < 0)
+                throw new IOException("Unknown column name '" + header[i].toLowerCase() + "'.");
+        }
+
+        logger.debug("source header: " + Arrays.asList(header));
+        return columns;
+    }
+
+    private static void requireColumns(TSVTokenizer tokenizer, int[] columns) throws IOException {
+        if (tokenizer.columns() != columns.length)
+            throw new IOException(String.format(
+                    "the number of columns on line %d (%d) does not match the header (%d)",
+                    tokenizer.getLineNumber(), tokenizer.columns(), columns.length));
+    }
+
+    private static long uniqueId(TSVTokenizer tokenizer, int column, Set<Long> seen) throws IOException {
+        long id = tokenizer.getLong(column);
+
+        if (!seen.add(id))
+            throw new IOException("duplicate value " + id + " on line " + tokenizer.getLineNumber());
+
+        return id;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(TSVTokenizer tokenizer, int column, E[] constants)
+            throws IOException {
+        for (E constant : constants) {
+            if (tokenizer.contentEquals(column, constant.name(), true))
+                return constant;
+        }
+
+        throw new IOException("'" + tokenizer.getString(column) + "' could not be parsed as an enum on line "
+                + tokenizer.getLineNumber());
+    }
+
+    //</editor-fold>
+
+    @Override
+    public Map<Long, Field> readFields(InputStream source) throws IOException {
+        logger.debug("reading fields");
+
+        TSVTokenizer    tokenizer = open(source);
+        int[]           columns   = readHeader(tokenizer, "id", "code", "name");
+        Map<Long,Field> fields    = new HashMap<>();
+        Set<Long>       ids       = new HashSet<>();
+        Set<String>     codes     = new HashSet<>();
+
+        try {
+            while (tokenizer.readRow()) {
+                requireColumns(tokenizer, columns);
+                FieldBuilder fb = new FieldBuilder();
+
+                for (int i = 0; i < columns.length; ++i) {
+                    switch (columns[i]) {
+                        case 0:
+                            fb.setId(uniqueId(tokenizer, i, ids));
+                            break;
+                        case 1:
+                            String code = tokenizer.getString(i);
+                            if ((code == null) || !codes.add(code))
+                                throw new IOException("invalid or duplicate code on line " + tokenizer.getLineNumber());
+                            fb.setCode(code);
+                            break;
+                        case 2:
+                            fb.setName(tokenizer.getString(i));
+                            break;
+                    }
+                }
+
+                Field field = fb.value();
+                fields.put(field.getId(), field);
+
+                if (logger.isDebugEnabled())
+                    logger.debug("# READ " + field);
+            }
+        } catch (Exception ex) {
+            logger.error("failed to parse fields.csv:" + tokenizer.getLineNumber());
+        }
+
+        logger.debug("done, " + fields.size() + " fields were read");
+        return fields;
+    }
+
+    @Override
+    public Map<Long, Teacher> readTeachers(InputStream source) throws IOException {
+        logger.debug("reading teachers");
+
+        TSVTokenizer       tokenizer = open(source);
+        int[]              columns   = readHeader(tokenizer, "id", "name", "surname", "prefixtitles", "suffixtitles");
+        Map<Long, Teacher> teachers  = new HashMap<>();
+        Set<Long>          ids       = new HashSet<>();
+
+        try {
+            while (tokenizer.readRow()) {
+                requireColumns(tokenizer, columns);
+                TeacherBuilder tb = new TeacherBuilder();
+
+                for (int i = 0; i < columns.length; ++i) {
+                    if ((columns[i] != 0) && tokenizer.isEmpty(i))
+                        continue;
+
+                    switch (columns[i]) {
+                        case 0: tb.setId(uniqueId(tokenizer, i, ids)); break;
+                        case 1: tb.setName(tokenizer.getString(i));     break;
+                        case 2: tb.setSurname(tokenizer.getString(i));  break;
+                        case 3: tb.setPrefixTitles(tokenizer.split(i)); break;
+                        case 4: tb.setSuffixTitles(tokenizer.split(i)); break;
+                    }
+                }
+
+                Teacher teacher = tb.value();
+                teachers.put(teacher.getId(), teacher);
+
+                if (logger.isDebugEnabled())
+                    logger.debug("# READ " + teacher);
+            }
+        } catch (Exception ex) {
+            logger.error("failed to parse teachers.csv:" + tokenizer.getLineNumber());
+        }
+
+        logger.debug("done, " + teachers.size() + " teachers were read");
+        return teachers;
+    }
+
+    @Override
+    public Map<Long, Thesis> readTheses(InputStream source, Map<Long, Teacher> teachers) throws IOException {
+        requireNonNull(teachers, "teachers");
+        logger.debug("reading theses");
+
+        TSVTokenizer      tokenizer = open(source);
+        int[]             columns   = readHeader(tokenizer, "id", "name", "supervisor", "opponents");
+        Map<Long, Thesis> theses    = new HashMap<>();
+        Set<Long>         ids       = new HashSet<>();
+
+        try {
+            while (tokenizer.readRow()) {
+                requireColumns(tokenizer, columns);
+                ThesisBuilder tb = new ThesisBuilder();
+
+                for (int i = 0; i < columns.length; ++i) {
+                    switch (columns[i]) {
+                        case 0:
+                            tb.setId(uniqueId(tokenizer, i, ids));
+                            break;
+                        case 1:
+                            if (!tokenizer.isEmpty(i))
+                                tb.setName(tokenizer.getString(i));
+                            break;
+                        case 2:
+                            Teacher supervisor = teachers.get(tokenizer.getLong(i));
+                            if (supervisor != null)
+                                tb.setSupervisor(supervisor);
+                            break;
+                        case 3:
+                            if (tokenizer.isEmpty(i))
+                                throw new IOException("expected opponents on line " + tokenizer.getLineNumber());
+
+                            long[]        refs      = tokenizer.splitLongs(i);
+                            List<Teacher> opponents = new ArrayList<>(refs.length);
+
+                            for (long ref : refs) {
+                                opponents.add(teachers.get(ref));
+                            }
+
+                            tb.setOpponents(opponents);
+                            break;
+                    }
+                }
+
+                Thesis thesis = tb.value();
+                theses.put(thesis.getId(), thesis);
+
+                if (logger.isDebugEnabled())
+                    logger.debug("# READ " + thesis);
+            }
+        } catch (Exception ex) {
+            logger.error("failed to parse theses.csv:" + tokenizer.getLineNumber());
+        }
+
+        logger.debug("done, " + theses.size() + " theses were read");
+        return theses;
+    }
+
+    @Override
+    public Map<Long, Student> readStudents(InputStream source,
+            Map<Long, Thesis> theses, Map<Long, Field> fields) throws IOException {
+        requireNonNull(theses, "theses");
+        logger.debug("reading students");
+
+        final Field[]      known     = fields.values().toArray(new Field[0]);
+        final Repetition[] reps      = Repetition.values();
+        final ExamLevel[]  levels    = ExamLevel.values();
+
+        TSVTokenizer       tokenizer = open(source);
+        int[]              columns   = readHeader(tokenizer, "id", "name", "surname", "prefixtitles",
+                "suffixtitles", "field", "repetition", "examlevel", "thesis");
+        Map<Long, Student> students  = new HashMap<>();
+        Set<Long>          ids       = new HashSet<>();
+
+        try {
+            while (tokenizer.readRow()) {
+                requireColumns(tokenizer, columns);
+                StudentBuilder sb = new StudentBuilder();
+
+                for (int i = 0; i < columns.length; ++i) {
+                    if (tokenizer.isEmpty(i)) {
+                        // id, field, repetition and exam level are mandatory
+                        if ((columns[i] == 0) || ((columns[i] >= 5) && (columns[i] <= 7)))
+                            throw new IOException("unexpected empty value on line " + tokenizer.getLineNumber());
+
+                        continue;
+                    }
+
+                    switch (columns[i]) {
+                        case 0: sb.setId(uniqueId(tokenizer, i, ids));                 break;
+                        case 1: sb.setName(tokenizer.getString(i));                    break;
+                        case 2: sb.setSurname(tokenizer.getString(i));                 break;
+                        case 3: sb.setPrefixTitles(tokenizer.split(i));                break;
+                        case 4: sb.setSuffixTitles(tokenizer.split(i));                break;
+                        case 5:
+                            for (Field field : known) {
+                                if (tokenizer.contentEquals(i, field.getCode(), false)) {
+                                    sb.setField(field);
+                                    break;
+                                }
+                            }
+                            break;
+                        case 6: sb.setRepetition(parseEnum(tokenizer, i, reps));       break;
+                        case 7: sb.setExamLevel(parseEnum(tokenizer, i, levels));      break;
+                        case 8:
+                            Thesis thesis = theses.get(tokenizer.getLong(i));
+                            if (thesis != null)
+                                sb.setThesis(thesis);
+                            break;
+                    }
+                }
+
+                Student student = sb.value();
+                students.put(student.getId(), student);
+
+                if (logger.isDebugEnabled())
+                    logger.debug("# READ " + student);
+            }
+        } catch (Exception ex) {
+            logger.error("failed to parse students.csv:" + tokenizer.getLineNumber());
+            throw ex;
+        }
+
+        logger.debug("done, " + students.size() + " students were read");
+        return students;
+    }
+
+    @Override
+    public void readAvailability(InputStream source,
+            Map<Long, Person> people, Availability target) throws IOException {
+        requireNonNull(people, "people");
+        requireNonNull(target, "target");
+        logger.debug("reading availability");
+
+        TSVTokenizer tokenizer = open(source);
+        int[]        columns   = readHeader(tokenizer, "person", "date", "from", "to");
+        int          counter   = 0;
+
+        while (tokenizer.readRow()) {
+            requireColumns(tokenizer, columns);
+
+            Person    person = null;
+            LocalDate date   = null;
+            LocalTime from   = null;
+            LocalTime to     = null;
+
+            for (int i = 0; i < columns.length; ++i) {
+                switch (columns[i]) {
+                    case 0: person = people.get(tokenizer.getLong(i));                   break;
+                    case 1: date   = tokenizer.getDate(i);                               break;
+                    case 2: from   = tokenizer.isEmpty(i) ? null : tokenizer.getTime(i); break;
+                    case 3: to     = tokenizer.isEmpty(i) ? null : tokenizer.getTime(i); break;
+                }
+            }
+
+            if ((person == null) || (date == null))
+                throw new IOException("unknown person or missing date on line " + tokenizer.getLineNumber());
+
+            if ((from == null) && (to == null)) {
+                target.addAvailability(person, date);
+            } else {
+                LocalDateTime lo = LocalDateTime.of(date, from == null ? LocalTime.MIN : from);
+                LocalDateTime hi = LocalDateTime.of(date, to   == null ? LocalTime.MAX : to);
+
+                target.addAvailability(person, lo, hi);
+            }
+
+            ++counter;
+        }
+
+        logger.debug("done, " + counter + " entries were read");
+    }
+}
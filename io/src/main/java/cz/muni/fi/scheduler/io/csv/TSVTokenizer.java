@@ -0,0 +1,479 @@
+package cz.muni.fi.scheduler.io.csv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits a buffer with tab-separated values into rows and cells.
+ *
+ * The tokenizer follows the rules of {@code CsvPreference.TAB_PREFERENCE}:
+ * cells are separated by tabs, rows by line breaks, empty lines are skipped
+ * and double quotes enclose cells that contain tabs, line breaks or quotes
+ * (written as two double quotes). Empty cells are read as {@code null}.
+ *
+ * Cells are not copied; they are only remembered as ranges of the buffer.
+ * Numbers, dates and times are parsed straight from the buffer and strings
+ * are created only when requested.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+class TSVTokenizer {
+    private static final byte TAB   = '\t';
+    private static final byte LF    = '\n';
+    private static final byte CR    = '\r';
+    private static final byte QUOTE = '"';
+
+    private final ByteBuffer buffer;
+    private final Charset    charset;
+    private final int        limit;
+
+    private int      position;
+    private int      lineNumber;
+
+    private int      columns;
+    private int[]    starts;
+    private int[]    ends;
+    private String[] decoded;   // contents of cells with quotes, null otherwise
+    private byte[]   scratch;
+
+    TSVTokenizer(ByteBuffer buffer, Charset charset) {
+        this.buffer   = buffer;
+        this.charset  = charset;
+        this.position = buffer.position();
+        this.limit    = buffer.limit();
+        this.starts   = new int[16];
+        this.ends     = new int[16];
+        this.decoded  = new String[16];
+        this.scratch  = new byte[64];
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Rows  ]">
+
+    private void addCell(int start, int end, boolean quoted) {
+        if (columns == starts.length) {
+            starts  = Arrays.copyOf(starts,  2 * columns);
+            ends    = Arrays.copyOf(ends,    2 * columns);
+            decoded = Arrays.copyOf(decoded, 2 * columns);
+        }
+
+        starts[columns]  = start;
+        ends[columns]    = end;
+        decoded[columns] = quoted ? unquote(start, end) : null;
+        ++columns;
+    }
+
+    /**
+     * Reads the next non-empty row.
+     *
+     * @return              {@code false} if there are no more rows
+     * @throws IOException  if a quoted cell is not terminated
+     */
+    boolean readRow() throws IOException {
+        while (position < limit) {
+            columns = 0;
+            ++lineNumber;
+
+            final int firstLine = lineNumber;
+            final int rowStart  = position;
+
+            int     start  = position;
+            boolean quoted = false;
+            boolean inside = false;
+
+            while (true) {
+                if (position == limit) {
+                    if (inside)
+                        throw new IOException("unexpected end of file while reading quoted column beginning on line "
+                                + firstLine + " and ending on line " + lineNumber);
+
+                    addCell(start, position, quoted);
+                    break;
+                }
+
+                final byte c = buffer.get(position);
+
+                if (inside) {
+                    if (c == QUOTE) {
+                        if ((position + 1 < limit) && (buffer.get(position + 1) == QUOTE)) {
+                            ++position;
+                        } else {
+                            inside = false;
+                        }
+                    } else if (c == LF) {
+                        ++lineNumber;
+                    }
+
+                    ++position;
+                } else if (c == TAB) {
+                    addCell(start, position, quoted);
+                    start  = ++position;
+                    quoted = false;
+                } else if ((c == LF) || (c == CR)) {
+                    addCell(start, position, quoted);
+
+                    ++position;
+                    if ((c == CR) && (position < limit) && (buffer.get(position) == LF))
+                        ++position;
+
+                    break;
+                } else {
+                    if (c == QUOTE) {
+                        inside = true;
+                        quoted = true;
+                    }
+
+                    ++position;
+                }
+            }
+
+            // skip empty lines
+            if ((columns == 1) && (ends[0] == rowStart) && (decoded[0] == null))
+                continue;
+
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the line the last row ended on, starting from {@code 1}.
+     *
+     * @return  line number
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    int columns() {
+        return columns;
+    }
+
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="[  Cells  ]">
+
+    private byte[] copy(int start, int end) {
+        final int length = end - start;
+
+        if (scratch.length < length)
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+
+        for (int i = 0; i < length; ++i) {
+            scratch[i] = buffer.get(start + i);
+        }
+
+        return scratch;
+    }
+
+    private String unquote(int start, int end) {
+        byte[]  bytes  = copy(start, end);
+        int     length = 0;
+        boolean inside = false;
+
+        for (int i = 0; i < end - start; ++i) {
+            if (bytes[i] != QUOTE) {
+                bytes[length++] = bytes[i];
+            } else if (inside && (i + 1 < end - start) && (bytes[i + 1] == QUOTE)) {
+                bytes[length++] = QUOTE;
+                ++i;
+            } else {
+                inside = !inside;
+            }
+        }
+
+        return new String(bytes, 0, length, charset);
+    }
+
+    private int length(int column) {
+        return decoded[column] != null
+                ? decoded[column].length()
+                : ends[column] - starts[column];
+    }
+
+    /**
+     * Returns the character at the index of the cell. Only meaningful for
+     * ASCII characters; the caller must check the bounds.
+     */
+    private char charAt(int column, int index) {
+        return decoded[column] != null
+                ? decoded[column].charAt(index)
+                : (char) (buffer.get(starts[column] + index) & 0xff);
+    }
+
+    private String location(int column) {
+        return "line " + lineNumber + ", column " + (column + 1);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return (c == ' ') || (c == '\t') || (c == '\n') || (c == '\u000B') || (c == '\f') || (c == '\r');
+    }
+
+    boolean isEmpty(int column) {
+        return length(column) == 0;
+    }
+
+    /**
+     * Returns the cell as a string.
+     *
+     * @param column    column index
+     * @return          contents of the cell, {@code null} if it is empty
+     */
+    String getString(int column) {
+        if (decoded[column] != null)
+            return decoded[column].isEmpty() ? null : decoded[column];
+
+        final int start = starts[column];
+        final int end   = ends[column];
+
+        return start == end ? null : new String(copy(start, end), 0, end - start, charset);
+    }
+
+    /**
+     * Compares the cell with a string without creating a new string when
+     * both are ASCII.
+     *
+     * @param column        column index
+     * @param value         string to compare with
+     * @param ignoreCase    whether to ignore case of ASCII letters
+     * @return              {@code true} if the cell is equal to the string
+     */
+    boolean contentEquals(int column, String value, boolean ignoreCase) {
+        final int length = length(column);
+
+        if (length != value.length()) {
+            // the lengths differ for non-ASCII contents
+            if (decoded[column] == null) {
+                String string = getString(column);
+                return ignoreCase ? value.equalsIgnoreCase(string) : value.equals(string);
+            }
+
+            return false;
+        }
+
+        for (int i = 0; i < length; ++i) {
+            char a = charAt(column, i);
+            char b = value.charAt(i);
+
+            if (a > 0x7f)
+                return ignoreCase ? value.equalsIgnoreCase(getString(column)) : value.equals(getString(column));
+
+            if ((a != b) && (!ignoreCase || (Character.toLowerCase(a) != Character.toLowerCase(b))))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parses the cell as a decimal {@code long}, accepting the same inputs
+     * as {@link Long#parseLong(String)}.
+     *
+     * @param column        column index
+     * @return              parsed value
+     * @throws IOException  if the cell is empty or not a number
+     */
+    long getLong(int column) throws IOException {
+        return parseLong(column, 0, length(column));
+    }
+
+    private long parseLong(int column, int from, int to) throws IOException {
+        if (from == to)
+            throw new IOException("expected a number on " + location(column));
+
+        boolean negative = false;
+        int     i        = from;
+        char    first    = charAt(column, i);
+
+        if ((first == '-') || (first == '+')) {
+            negative = first == '-';
+            if (++i == to)
+                throw new IOException("'" + first + "' is not a valid number on " + location(column));
+        }
+
+        final long bound  = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long       result = 0;
+
+        // accumulate negatively to handle Long.MIN_VALUE
+        for (; i < to; ++i) {
+            int digit = charAt(column, i) - '0';
+
+            if ((digit < 0) || (digit > 9) || (result < (bound + digit) / 10))
+                throw new IOException("'" + getString(column) + "' is not a valid number on " + location(column));
+
+            result = 10 * result - digit;
+        }
+
+        return negative ? result : -result;
+    }
+
+    private int parseDigits(int column, int[] position) throws IOException {
+        final int length = length(column);
+        int       i      = position[0];
+        int       result = 0;
+
+        while ((i < length) && (charAt(column, i) >= '0') && (charAt(column, i) <= '9')) {
+            result = 10 * result + (charAt(column, i) - '0');
+
+            if (result > 99999)
+                throw new IOException("number out of range on " + location(column));
+            ++i;
+        }
+
+        if (i == position[0])
+            throw new IOException("'" + getString(column) + "' has unexpected format on " + location(column));
+
+        position[0] = i;
+        return result;
+    }
+
+    private void expect(int column, int[] position, char separator) throws IOException {
+        if ((position[0] >= length(column)) || (charAt(column, position[0]) != separator))
+            throw new IOException("'" + getString(column) + "' has unexpected format on " + location(column));
+
+        ++position[0];
+    }
+
+    /**
+     * Parses the cell as a date in the {@code dd.MM.yyyy} format.
+     *
+     * @param column        column index
+     * @return              parsed date
+     * @throws IOException  if the cell is empty or not a valid date
+     */
+    LocalDate getDate(int column) throws IOException {
+        int[] position = { 0 };
+
+        int day   = parseDigits(column, position);
+        expect(column, position, '.');
+        int month = parseDigits(column, position);
+        expect(column, position, '.');
+        int year  = parseDigits(column, position);
+
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException ex) {
+            throw new IOException("'" + getString(column) + "' is not a valid date on " + location(column), ex);
+        }
+    }
+
+    /**
+     * Parses the cell as a time in the {@code HH:mm} format.
+     *
+     * @param column        column index
+     * @return              parsed time
+     * @throws IOException  if the cell is empty or not a valid time
+     */
+    LocalTime getTime(int column) throws IOException {
+        int[] position = { 0 };
+
+        int hour   = parseDigits(column, position);
+        expect(column, position, ':');
+        int minute = parseDigits(column, position);
+
+        try {
+            return LocalTime.of(hour, minute);
+        } catch (DateTimeException ex) {
+            throw new IOException("'" + getString(column) + "' is not a valid time on " + location(column), ex);
+        }
+    }
+
+    /**
+     * Splits the cell by whitespace, with the same result as
+     * {@code getString(column).split("\\s+")}.
+     *
+     * @param column    column index
+     * @return          list of tokens
+     */
+    List<String> split(int column) {
+        final int    length = length(column);
+        List<String> tokens = new ArrayList<>(2);
+
+        int i = 0;
+
+        // a leading separator produces an empty token, unless nothing follows it
+        if ((length > 0) && isWhitespace(charAt(column, 0))) {
+            while ((i < length) && isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+
+            if (i < length)
+                tokens.add("");
+        }
+
+        while (i < length) {
+            int start = i;
+
+            while ((i < length) && !isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+
+            tokens.add(substring(column, start, i));
+
+            while ((i < length) && isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+        }
+
+        return tokens;
+    }
+
+    /**
+     * Parses whitespace-separated numbers in the cell.
+     *
+     * @param column        column index
+     * @return              parsed numbers
+     * @throws IOException  if any token is not a number
+     */
+    long[] splitLongs(int column) throws IOException {
+        final int length = length(column);
+        long[]    result = new long[4];
+        int       count  = 0;
+        int       i      = 0;
+
+        // String.split would produce an empty leading token, which is not a number
+        if ((length > 0) && isWhitespace(charAt(column, 0))) {
+            while ((i < length) && isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+
+            if (i < length)
+                throw new IOException("expected a number on " + location(column));
+        }
+
+        while (i < length) {
+            int start = i;
+
+            while ((i < length) && !isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+
+            if (count == result.length)
+                result = Arrays.copyOf(result, 2 * count);
+
+            result[count++] = parseLong(column, start, i);
+
+            while ((i < length) && isWhitespace(charAt(column, i))) {
+                ++i;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private String substring(int column, int from, int to) {
+        if (decoded[column] != null)
+            return decoded[column].substring(from, to);
+
+        return new String(copy(starts[column] + from, starts[column] + to), 0, to - from, charset);
+    }
+
+    //</editor-fold>
+}
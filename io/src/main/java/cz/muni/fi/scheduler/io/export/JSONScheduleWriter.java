@@ -0,0 +1,145 @@
+package cz.muni.fi.scheduler.io.export;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import com.google.gson.stream.JsonWriter;
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.ScheduleSink;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Writes a schedule as a single JSON document.
+ *
+ * The document is an object with arrays {@code commissions}, {@code exams}
+ * and {@code blocks} whose elements have the same attributes as the columns
+ * written by {@link TSVScheduleWriter}; dates and times are in the ISO
+ * format. Records are streamed, so they must be received grouped by their
+ * kind in this order, see {@link cz.muni.fi.scheduler.io.ScheduleExport}.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class JSONScheduleWriter implements ScheduleSink, AutoCloseable {
+    private static final String[] SECTIONS = { "commissions", "exams", "blocks" };
+
+    private static final int COMMISSIONS = 0;
+    private static final int EXAMS       = 1;
+    private static final int BLOCKS      = 2;
+
+    private final JsonWriter json;
+    private       int        section;
+
+    /**
+     * Creates a writer and starts the document.
+     *
+     * @param out           destination, closed by {@link #close()}
+     * @throws IOException  if the document cannot be started
+     */
+    public JSONScheduleWriter(Writer out) throws IOException {
+        json = new JsonWriter(new BufferedWriter(requireNonNull(out, "out")));
+        json.beginObject();
+        section = -1;
+    }
+
+    /**
+     * Finishes the arrays up to the given one and starts it.
+     */
+    private void enter(int target) throws IOException {
+        if (target < section)
+            throw new IllegalStateException("Records of " + SECTIONS[target] + " must precede "
+                    + SECTIONS[section] + ".");
+
+        while (section < target) {
+            if (section >= 0)
+                json.endArray();
+
+            json.name(SECTIONS[++section]).beginArray();
+        }
+    }
+
+    private void times(LocalDate date, LocalTime start, LocalTime end) throws IOException {
+        json.name("date").value(date.toString());
+        json.name("start").value(start.toString());
+        json.name("end").value(end.toString());
+    }
+
+    private void ids(String name, Collection<Teacher> teachers, Teacher skip) throws IOException {
+        json.name(name).beginArray();
+
+        for (Teacher teacher : teachers) {
+            if (!teacher.equals(skip))
+                json.value(teacher.getId());
+        }
+
+        json.endArray();
+    }
+
+    @Override
+    public void commission(long row, Commission commission) throws IOException {
+        enter(COMMISSIONS);
+
+        json.beginObject();
+        json.name("row").value(row);
+        times(commission.getDate(), commission.getStart(), commission.getEnd());
+        json.name("chairman").value(commission.getChairman().getId());
+        ids("members", commission.getMembers(), commission.getChairman());
+        json.endObject();
+    }
+
+    @Override
+    public void exam(long row, LocalDate date, LocalTime start, LocalTime end, Student student)
+            throws IOException {
+        enter(EXAMS);
+
+        json.beginObject();
+        json.name("row").value(row);
+        times(date, start, end);
+        json.name("student").value(student.getId());
+
+        if (student.hasThesis()) {
+            Thesis thesis = student.getThesis();
+
+            json.name("thesis").value(thesis.getId());
+            json.name("supervisor").value(thesis.getSupervisor().getId());
+            ids("opponents", thesis.getOpponents(), null);
+        }
+
+        json.endObject();
+    }
+
+    @Override
+    public void block(Teacher teacher, LocalDate date, LocalTime start, LocalTime end, boolean spanning)
+            throws IOException {
+        enter(BLOCKS);
+
+        json.beginObject();
+        json.name("teacher").value(teacher.getId());
+        times(date, start, end);
+        json.name("spanning").value(spanning);
+        json.endObject();
+    }
+
+    /**
+     * Finishes the document, including arrays that received no records,
+     * and closes the destination.
+     *
+     * @throws IOException  if the document cannot be finished
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            enter(BLOCKS);
+            json.endArray();
+            json.endObject();
+        } finally {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package cz.muni.fi.scheduler.io.export;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.ScheduleSink;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads a schedule written by {@link TSVScheduleWriter} and replays its
+ * records into a {@link ScheduleSink}.
+ *
+ * People are resolved against the current data, which may differ from the
+ * data the schedule was created for. Exams and blocks of unknown people are
+ * skipped, unknown commission members are left out and commissions with an
+ * unknown chairman are skipped. The file with blocks is optional.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class TSVScheduleReader {
+    private static final Logger logger = Logger.getLogger("TSVScheduleReader");
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final Map<Long, Teacher> teachers;
+    private final Map<Long, Student> students;
+
+    private int skipped;
+
+    public TSVScheduleReader(Map<Long, Teacher> teachers, Map<Long, Student> students) {
+        this.teachers = requireNonNull(teachers, "teachers");
+        this.students = requireNonNull(students, "students");
+    }
+
+    /**
+     * Returns the number of records skipped by the last {@link #read}.
+     *
+     * @return  number of records that refer to unknown people
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Reads the schedule from the directory.
+     *
+     * @param directory     directory with the schedule
+     * @param sink          receiver of the records
+     * @throws IOException  if a file is missing or malformed, or if the
+     *                      sink fails
+     */
+    public void read(File directory, ScheduleSink sink) throws IOException {
+        requireNonNull(directory, "directory");
+        requireNonNull(sink,      "sink");
+
+        skipped = 0;
+        readFile(directory, "commissions.csv", false, line -> commission(line, sink));
+        readFile(directory, "exams.csv",       false, line -> exam(line, sink));
+        readFile(directory, "blocks.csv",      true,  line -> block(line, sink));
+
+        if (skipped > 0)
+            logger.warn("skipped " + skipped + " records of unknown people");
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Parsing  ]">
+
+    @FunctionalInterface
+    private interface LineHandler {
+        void handle(Line line) throws IOException;
+    }
+
+    /**
+     * Cells of a line accessed by the names of their columns.
+     */
+    private static final class Line {
+        private final List<String> header;
+        private final String       file;
+        private final int          number;
+        private final String[]     cells;
+
+        Line(List<String> header, String file, int number, String[] cells) {
+            this.header = header;
+            this.file   = file;
+            this.number = number;
+            this.cells  = cells;
+        }
+
+        String get(String column) throws IOException {
+            int index = header.indexOf(column);
+
+            if (index < 0)
+                throw new IOException("File " + file + " has no column '" + column + "'.");
+
+            return index < cells.length ? cells[index].trim() : "";
+        }
+
+        long getLong(String column) throws IOException {
+            try {
+                return Long.parseLong(get(column));
+            } catch (NumberFormatException ex) {
+                throw error(column, ex);
+            }
+        }
+
+        LocalDate getDate(String column) throws IOException {
+            try {
+                return LocalDate.parse(get(column), DATE_FORMAT);
+            } catch (DateTimeParseException ex) {
+                throw error(column, ex);
+            }
+        }
+
+        LocalTime getTime(String column) throws IOException {
+            try {
+                return LocalTime.parse(get(column), TIME_FORMAT);
+            } catch (DateTimeParseException ex) {
+                throw error(column, ex);
+            }
+        }
+
+        private IOException error(String column, Exception cause) {
+            return new IOException("Invalid " + column + " in " + file + ":" + number + ".", cause);
+        }
+    }
+
+    private void readFile(File directory, String name, boolean optional, LineHandler handler)
+            throws IOException {
+        File file = new File(directory, name);
+
+        if (!file.exists()) {
+            if (optional)
+                return;
+
+            throw new FileNotFoundException("File " + name + " does not exist.");
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+
+            if (header == null)
+                throw new IOException("File " + name + " is empty.");
+
+            List<String> columns = Arrays.asList(header.split("\t"));
+            String       text;
+            int          number  = 1;
+
+            while ((text = reader.readLine()) != null) {
+                ++number;
+
+                if (text.isEmpty())
+                    continue;
+
+                handler.handle(new Line(columns, name, number, text.split("\t", -1)));
+            }
+        }
+    }
+
+    private void commission(Line line, ScheduleSink sink) throws IOException {
+        Teacher chairman = teachers.get(line.getLong("chairman"));
+
+        if (chairman == null) {
+            logger.debug("commissions.csv:" + line.number + " has an unknown chairman");
+            ++skipped;
+            return;
+        }
+
+        List<Teacher> members = new ArrayList<>(2);
+        for (String id : line.get("members").split("\\s+")) {
+            if (id.isEmpty())
+                continue;
+
+            Teacher member;
+            try {
+                member = teachers.get(Long.parseLong(id));
+            } catch (NumberFormatException ex) {
+                throw line.error("members", ex);
+            }
+
+            if (member != null)
+                members.add(member);
+            else
+                ++skipped;
+        }
+
+        sink.commission(line.getLong("row"), new Commission(line.getDate("date"),
+                line.getTime("start"), line.getTime("end"), chairman, members));
+    }
+
+    private void exam(Line line, ScheduleSink sink) throws IOException {
+        Student student = students.get(line.getLong("student"));
+
+        if (student == null) {
+            logger.debug("exams.csv:" + line.number + " has an unknown student");
+            ++skipped;
+            return;
+        }
+
+        sink.exam(line.getLong("row"), line.getDate("date"),
+                line.getTime("start"), line.getTime("end"), student);
+    }
+
+    private void block(Line line, ScheduleSink sink) throws IOException {
+        Teacher teacher = teachers.get(line.getLong("teacher"));
+
+        if (teacher == null) {
+            ++skipped;
+            return;
+        }
+
+        sink.block(teacher, line.getDate("date"), line.getTime("start"), line.getTime("end"),
+                Boolean.parseBoolean(line.get("spanning")));
+    }
+
+    //</editor-fold>
+}
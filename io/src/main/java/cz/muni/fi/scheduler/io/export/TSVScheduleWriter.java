@@ -0,0 +1,164 @@
+package cz.muni.fi.scheduler.io.export;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.ScheduleSink;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import org.apache.log4j.Logger;
+
+/**
+ * Writes a schedule into tab-separated files in a directory.
+ *
+ * The writer creates the following files, all starting with a header and
+ * using the same date and time formats as the input files:
+ * <pre>
+ *   |-- commissions.csv    row, date, start, end, chairman, members
+ *   |-- exams.csv          row, date, start, end, student, thesis, supervisor, opponents
+ *   \-- blocks.csv         teacher, date, start, end, spanning
+ * </pre>
+ * People and theses are written as identifiers, lists of them separated by
+ * spaces. Every record is written as soon as it is received.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class TSVScheduleWriter implements ScheduleSink, AutoCloseable {
+    private static final Logger logger = Logger.getLogger("TSVScheduleWriter");
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final BufferedWriter commissions;
+    private final BufferedWriter exams;
+    private final BufferedWriter blocks;
+
+    /**
+     * Creates the files in the directory, replacing existing ones.
+     *
+     * @param directory     target directory
+     * @throws IOException  if a file cannot be created
+     */
+    public TSVScheduleWriter(File directory) throws IOException {
+        requireNonNull(directory, "directory");
+        logger.debug("writing schedule to '" + directory.getAbsolutePath() + "'");
+
+        commissions = open(directory, "commissions.csv", "row", "date", "start", "end", "chairman", "members");
+
+        try {
+            exams  = open(directory, "exams.csv", "row", "date", "start", "end", "student", "thesis",
+                    "supervisor", "opponents");
+        } catch (IOException ex) {
+            commissions.close();
+            throw ex;
+        }
+
+        try {
+            blocks = open(directory, "blocks.csv", "teacher", "date", "start", "end", "spanning");
+        } catch (IOException ex) {
+            commissions.close();
+            exams.close();
+            throw ex;
+        }
+    }
+
+    private static BufferedWriter open(File directory, String name, String... header) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(new File(directory, name).toPath(), StandardCharsets.UTF_8);
+        writer.write(String.join("\t", header));
+        writer.newLine();
+        return writer;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Cells  ]">
+
+    private static void cell(Writer writer, String value) throws IOException {
+        writer.write(value);
+        writer.write('\t');
+    }
+
+    private static void cell(Writer writer, LocalDate date, LocalTime start, LocalTime end) throws IOException {
+        cell(writer, DATE_FORMAT.format(date));
+        cell(writer, TIME_FORMAT.format(start));
+        cell(writer, TIME_FORMAT.format(end));
+    }
+
+    private static void ids(Writer writer, Collection<Teacher> teachers, Teacher skip) throws IOException {
+        boolean first = true;
+
+        for (Teacher teacher : teachers) {
+            if (teacher.equals(skip))
+                continue;
+
+            if (!first)
+                writer.write(' ');
+
+            writer.write(Long.toString(teacher.getId()));
+            first = false;
+        }
+    }
+
+    //</editor-fold>
+
+    @Override
+    public void commission(long row, Commission commission) throws IOException {
+        cell(commissions, Long.toString(row));
+        cell(commissions, commission.getDate(), commission.getStart(), commission.getEnd());
+        cell(commissions, Long.toString(commission.getChairman().getId()));
+        ids(commissions, commission.getMembers(), commission.getChairman());
+        commissions.newLine();
+    }
+
+    @Override
+    public void exam(long row, LocalDate date, LocalTime start, LocalTime end, Student student)
+            throws IOException {
+        cell(exams, Long.toString(row));
+        cell(exams, date, start, end);
+
+        if (student.hasThesis()) {
+            Thesis thesis = student.getThesis();
+
+            cell(exams, Long.toString(student.getId()));
+            cell(exams, Long.toString(thesis.getId()));
+            cell(exams, Long.toString(thesis.getSupervisor().getId()));
+            ids(exams, thesis.getOpponents(), null);
+        } else {
+            exams.write(Long.toString(student.getId()));
+            exams.write("\t\t\t");
+        }
+
+        exams.newLine();
+    }
+
+    @Override
+    public void block(Teacher teacher, LocalDate date, LocalTime start, LocalTime end, boolean spanning)
+            throws IOException {
+        cell(blocks, Long.toString(teacher.getId()));
+        cell(blocks, date, start, end);
+        blocks.write(Boolean.toString(spanning));
+        blocks.newLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            commissions.close();
+        } finally {
+            try {
+                exams.close();
+            } finally {
+                blocks.close();
+            }
+        }
+    }
+}
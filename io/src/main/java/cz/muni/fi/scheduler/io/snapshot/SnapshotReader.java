@@ -0,0 +1,224 @@
+package cz.muni.fi.scheduler.io.snapshot;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * Reads snapshots created by {@link SnapshotWriter}.
+ *
+ * Sections must be read in the order they were written: fields, teachers,
+ * theses, students and availability. Sections appended by other modules can
+ * then be read from {@link #getInput()}. Entities are returned in the order
+ * they were written.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class SnapshotReader implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger("SnapshotReader");
+
+    private final DataInputStream input;
+
+    /**
+     * Creates a reader and checks the header.
+     *
+     * @param in            stream to read from, closed by {@link #close()}
+     * @throws IOException  if the stream does not contain a snapshot of
+     *                      a supported version
+     */
+    public SnapshotReader(InputStream in) throws IOException {
+        input = new DataInputStream(new BufferedInputStream(requireNonNull(in, "in")));
+
+        if (input.readInt() != SnapshotWriter.MAGIC)
+            throw new IOException("Stream does not contain a snapshot.");
+
+        int version = input.readInt();
+        if (version != SnapshotWriter.VERSION)
+            throw new IOException("Unsupported snapshot version " + version + ".");
+    }
+
+    /**
+     * Returns the stream with additional sections.
+     *
+     * @return  the underlying stream
+     */
+    public DataInputStream getInput() {
+        return input;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Helpers  ]">
+
+    private String readString() throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private List<String> readStrings() throws IOException {
+        int          count  = input.readInt();
+        List<String> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            result.add(input.readUTF());
+        }
+
+        return result;
+    }
+
+    private static <T> T lookup(Map<Long, T> map, long id, String what) throws IOException {
+        T value = map.get(id);
+
+        if (value == null)
+            throw new IOException("Snapshot refers to unknown " + what + " " + id + ".");
+
+        return value;
+    }
+
+    private static <E extends Enum<E>> E constant(E[] values, int ordinal, String what) throws IOException {
+        if ((ordinal < 0) || (ordinal >= values.length))
+            throw new IOException("Snapshot contains invalid " + what + " " + ordinal + ".");
+
+        return values[ordinal];
+    }
+
+    private static LocalDateTime time(LocalDate day, int minute) {
+        // see CompiledAvailability, the end of the day is stored as DAY_MINUTES
+        return minute >= CompiledAvailability.DAY_MINUTES
+                ? day.atTime(LocalTime.MAX)
+                : day.atStartOfDay().plusMinutes(minute);
+    }
+
+    //</editor-fold>
+
+    public Map<Long, Field> readFields() throws IOException {
+        int              count  = input.readInt();
+        Map<Long, Field> result = new LinkedHashMap<>(2 * count);
+
+        for (int i = 0; i < count; ++i) {
+            long id = input.readLong();
+            result.put(id, new Field(id, readString(), readString()));
+        }
+
+        logger.debug("read " + count + " fields");
+        return result;
+    }
+
+    public Map<Long, Teacher> readTeachers() throws IOException {
+        int                count  = input.readInt();
+        Map<Long, Teacher> result = new LinkedHashMap<>(2 * count);
+
+        for (int i = 0; i < count; ++i) {
+            long id = input.readLong();
+            result.put(id, new Teacher(id, readString(), readString(), readStrings(), readStrings()));
+        }
+
+        logger.debug("read " + count + " teachers");
+        return result;
+    }
+
+    public Map<Long, Thesis> readTheses(Map<Long, Teacher> teachers) throws IOException {
+        int               count  = input.readInt();
+        Map<Long, Thesis> result = new LinkedHashMap<>(2 * count);
+
+        for (int i = 0; i < count; ++i) {
+            long    id         = input.readLong();
+            String  name       = readString();
+            Teacher supervisor = lookup(teachers, input.readLong(), "teacher");
+            int     opponents  = input.readInt();
+
+            List<Teacher> list = new ArrayList<>(opponents);
+            for (int j = 0; j < opponents; ++j) {
+                list.add(lookup(teachers, input.readLong(), "teacher"));
+            }
+
+            result.put(id, new Thesis(id, name, supervisor, list));
+        }
+
+        logger.debug("read " + count + " theses");
+        return result;
+    }
+
+    public Map<Long, Student> readStudents(Map<Long, Thesis> theses, Map<Long, Field> fields)
+            throws IOException {
+        int                count  = input.readInt();
+        Map<Long, Student> result = new LinkedHashMap<>(2 * count);
+
+        for (int i = 0; i < count; ++i) {
+            long         id         = input.readLong();
+            String       name       = readString();
+            String       surname    = readString();
+            List<String> prefix     = readStrings();
+            List<String> suffix     = readStrings();
+            Field        field      = lookup(fields, input.readLong(), "field");
+            Repetition   repetition = constant(Repetition.values(), input.readByte(), "repetition");
+            int          level      = input.readByte();
+            long         thesis     = input.readLong();
+
+            result.put(id, new Student(id, name, surname, prefix, suffix, field, repetition,
+                    level < 0 ? null : constant(ExamLevel.values(), level, "exam level"),
+                    thesis < 0 ? null : lookup(theses, thesis, "thesis")));
+        }
+
+        logger.debug("read " + count + " students");
+        return result;
+    }
+
+    /**
+     * Reads the availability into the target.
+     *
+     * The snapshot stores the compiled form, so overlapping intervals are
+     * merged and their bounds are rounded to minutes as described in
+     * {@link CompiledAvailability}. Compiling the target gives the same
+     * result as compiling the original availability.
+     *
+     * @param people        teachers and students by their identifiers
+     * @param target        availability to fill
+     * @throws IOException  if the stream fails or refers to unknown people
+     */
+    public void readAvailability(Map<Long, Person> people, Availability target) throws IOException {
+        int count = input.readInt();
+
+        for (int i = 0; i < count; ++i) {
+            Person person = lookup(people, input.readLong(), "person");
+            int    days   = input.readInt();
+
+            for (int j = 0; j < days; ++j) {
+                LocalDate day       = LocalDate.ofEpochDay(input.readLong());
+                int       intervals = input.readInt();
+
+                target.addRestrictedDay(person, day);
+
+                for (int k = 0; k < intervals; ++k) {
+                    int start = input.readShort();
+                    int end   = input.readShort();
+                    target.addAvailability(person, time(day, start), time(day, end));
+                }
+            }
+        }
+
+        logger.debug("read availability of " + count + " people");
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,217 @@
+package cz.muni.fi.scheduler.io.snapshot;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.Logger;
+
+/**
+ * Writes data of a {@link DataSource} into a compact binary snapshot.
+ *
+ * A snapshot starts with a header followed by the fields, teachers, theses,
+ * students and the {@link CompiledAvailability compiled availability} of
+ * all teachers and students. Entities refer to each other by their
+ * identifiers. Other modules may append their own sections using
+ * {@link #getOutput()}; {@link SnapshotReader} then leaves them to the
+ * caller.
+ *
+ * Snapshots are meant for warm restarts of the same version of the
+ * application, not as an exchange format.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class SnapshotWriter implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger("SnapshotWriter");
+
+    static final int MAGIC   = 0x53434853; // "SCHS"
+    static final int VERSION = 1;
+
+    private final DataOutputStream output;
+
+    /**
+     * Creates a writer and writes the header.
+     *
+     * @param out           stream to write to, closed by {@link #close()}
+     * @throws IOException  if the header cannot be written
+     */
+    public SnapshotWriter(OutputStream out) throws IOException {
+        output = new DataOutputStream(new BufferedOutputStream(requireNonNull(out, "out")));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    /**
+     * Writes the data of the source into a file.
+     *
+     * @param source        data source
+     * @param file          target file
+     * @throws IOException  if the source or the file fails
+     */
+    public static void write(DataSource source, File file) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(new FileOutputStream(file))) {
+            writer.writeData(source);
+        }
+    }
+
+    /**
+     * Returns the stream for additional sections.
+     *
+     * @return  the underlying stream
+     */
+    public DataOutputStream getOutput() {
+        return output;
+    }
+
+    /**
+     * Writes all data of the source.
+     *
+     * @param source        data source
+     * @throws IOException  if the source or the stream fails
+     */
+    public void writeData(DataSource source) throws IOException {
+        requireNonNull(source, "source");
+        logger.debug("writing data");
+
+        writeFields(source.getFields());
+        writeTeachers(source.getTeachers());
+        writeTheses(source.getTheses());
+        writeStudents(source.getStudents());
+        writeAvailability(source.getAvailability().compile(),
+                source.getTeachers().values(), source.getStudents().values());
+
+        logger.debug("data written");
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Sections  ]">
+
+    private void writeString(String value) throws IOException {
+        output.writeBoolean(value != null);
+
+        if (value != null)
+            output.writeUTF(value);
+    }
+
+    private void writeStrings(List<String> values) throws IOException {
+        output.writeInt(values.size());
+
+        for (String value : values) {
+            output.writeUTF(value);
+        }
+    }
+
+    private void writePerson(Person person) throws IOException {
+        output.writeLong(person.getId());
+        writeString(person.getName());
+        writeString(person.getSurname());
+        writeStrings(person.getPrefixTitles());
+        writeStrings(person.getSuffixTitles());
+    }
+
+    private void writeFields(Map<Long, Field> fields) throws IOException {
+        output.writeInt(fields.size());
+
+        for (Field field : fields.values()) {
+            output.writeLong(field.getId());
+            writeString(field.getName());
+            writeString(field.getCode());
+        }
+    }
+
+    private void writeTeachers(Map<Long, Teacher> teachers) throws IOException {
+        output.writeInt(teachers.size());
+
+        for (Teacher teacher : teachers.values()) {
+            writePerson(teacher);
+        }
+    }
+
+    private void writeTheses(Map<Long, Thesis> theses) throws IOException {
+        output.writeInt(theses.size());
+
+        for (Thesis thesis : theses.values()) {
+            output.writeLong(thesis.getId());
+            writeString(thesis.getName());
+            output.writeLong(thesis.getSupervisor().getId());
+            output.writeInt(thesis.getOpponents().size());
+
+            for (Teacher opponent : thesis.getOpponents()) {
+                output.writeLong(opponent.getId());
+            }
+        }
+    }
+
+    private void writeStudents(Map<Long, Student> students) throws IOException {
+        output.writeInt(students.size());
+
+        for (Student student : students.values()) {
+            writePerson(student);
+            output.writeLong(student.getField().getId());
+            output.writeByte(student.getRepetition().ordinal());
+            output.writeByte(student.getExamLevel() == null ? -1 : student.getExamLevel().ordinal());
+            output.writeLong(student.hasThesis() ? student.getThesis().getId() : -1);
+        }
+    }
+
+    private int countRestricted(CompiledAvailability avail, Collection<? extends Person> people) {
+        int count = 0;
+
+        for (Person person : people) {
+            if (!avail.getRestrictedDays(person).isEmpty())
+                ++count;
+        }
+
+        return count;
+    }
+
+    private void writeAvailability(CompiledAvailability avail, Collection<Teacher> teachers,
+            Collection<Student> students) throws IOException {
+        output.writeInt(countRestricted(avail, teachers) + countRestricted(avail, students));
+
+        for (Collection<? extends Person> people : Arrays.asList(teachers, students)) {
+            for (Person person : people) {
+                List<LocalDate> days = avail.getRestrictedDays(person);
+
+                if (days.isEmpty())
+                    continue;
+
+                output.writeLong(person.getId());
+                output.writeInt(days.size());
+
+                for (LocalDate day : days) {
+                    int[] intervals = avail.getIntervals(person, day);
+
+                    output.writeLong(day.toEpochDay());
+                    output.writeInt(intervals.length / 2);
+
+                    for (int minute : intervals) {
+                        output.writeShort(minute);
+                    }
+                }
+            }
+        }
+    }
+
+    //</editor-fold>
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
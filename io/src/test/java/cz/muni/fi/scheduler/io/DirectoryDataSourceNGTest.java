@@ -0,0 +1,180 @@
+package cz.muni.fi.scheduler.io;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.csv.MappedTSVReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class DirectoryDataSourceNGTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2016, Month.MAY, 2);
+
+    private static TemporaryDirectory instance;
+    private static File               directory;
+    private static ExecutorService    executor;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        executor  = Executors.newFixedThreadPool(4);
+        instance  = TemporaryDirectory.generate("scheduler-dds", new InstanceGenerator.Builder()
+                .setSeed(11)
+                .setStudents(200)
+                .setTeachers(30)
+                .setDays(3)
+                .setFirstDate(FIRST_DATE)
+                .value());
+        directory = instance.getDirectory();
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        executor.shutdown();
+        instance.close();
+    }
+
+    /**
+     * Records the files that were given to the reader as a
+     * {@link FileInputStream}, i.e. the files that were memory-mapped.
+     */
+    private static class RecordingReader extends MappedTSVReader {
+        final Set<String> mapped = ConcurrentHashMap.newKeySet();
+
+        private InputStream record(String name, InputStream source) {
+            if (source instanceof FileInputStream)
+                mapped.add(name);
+
+            return source;
+        }
+
+        @Override
+        public Map<Long, Field> readFields(InputStream source) throws IOException {
+            return super.readFields(record("fields", source));
+        }
+
+        @Override
+        public Map<Long, Teacher> readTeachers(InputStream source) throws IOException {
+            return super.readTeachers(record("teachers", source));
+        }
+
+        @Override
+        public Map<Long, Thesis> readTheses(InputStream source, Map<Long, Teacher> teachers) throws IOException {
+            return super.readTheses(record("theses", source), teachers);
+        }
+
+        @Override
+        public Map<Long, Student> readStudents(InputStream source,
+                Map<Long, Thesis> theses, Map<Long, Field> fields) throws IOException {
+            return super.readStudents(record("students", source), theses, fields);
+        }
+
+        @Override
+        public void readAvailability(InputStream source,
+                Map<Long, Person> people, Availability target) throws IOException {
+            super.readAvailability(record("availability", source), people, target);
+        }
+    }
+
+    private static <T> String dump(Map<Long, T> map) {
+        return new TreeMap<>(map).toString();
+    }
+
+    @Test
+    public void testPreloadMatchesLazyLoading() throws Exception {
+        try (DirectoryDataSource lazy  = new DirectoryDataSource(directory);
+             DirectoryDataSource eager = new DirectoryDataSource(directory, new MappedTSVReader())) {
+            eager.preload(executor);
+
+            assertEquals(dump(eager.getFields()),   dump(lazy.getFields()));
+            assertEquals(dump(eager.getTeachers()), dump(lazy.getTeachers()));
+            assertEquals(dump(eager.getTheses()),   dump(lazy.getTheses()));
+            assertEquals(dump(eager.getStudents()), dump(lazy.getStudents()));
+
+            CompiledAvailability a = eager.getAvailability().compile();
+            CompiledAvailability e = lazy.getAvailability().compile();
+
+            for (Teacher teacher : lazy.getTeachers().values()) {
+                for (int day = 0; day < 3; ++day) {
+                    assertEquals(a.getIntervals(teacher, FIRST_DATE.plusDays(day)),
+                                 e.getIntervals(teacher, FIRST_DATE.plusDays(day)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPreloadMapsAllFiles() throws Exception {
+        RecordingReader reader = new RecordingReader();
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(directory, reader)) {
+            ds.preload(executor);
+
+            assertEquals(ds.getStudents().size(), 200);
+            assertEquals(new TreeSet<>(reader.mapped).toString(),
+                    "[availability, fields, students, teachers, theses]");
+        }
+    }
+
+    @Test
+    public void testPreloadKeepsLoadedData() throws Exception {
+        try (DirectoryDataSource ds = new DirectoryDataSource(directory)) {
+            Map<Long, Teacher> teachers = ds.getTeachers();
+            ds.preload(executor);
+
+            assertSame(ds.getTeachers(), teachers);
+
+            // theses refer to the teachers that were already loaded
+            Teacher supervisor = ds.getTheses().values().iterator().next().getSupervisor();
+            assertSame(supervisor, teachers.get(supervisor.getId()));
+        }
+    }
+
+    @Test
+    public void testPreloadWithoutOptionalFiles() throws Exception {
+        try (TemporaryDirectory temporary = new TemporaryDirectory("scheduler-dds")) {
+            File copy = temporary.getDirectory();
+
+            for (String name : new String[] { "fields.csv", "teachers.csv", "theses.csv" }) {
+                Files.copy(new File(directory, name).toPath(), new File(copy, name).toPath());
+            }
+
+            try (DirectoryDataSource ds = new DirectoryDataSource(copy)) {
+                ds.preload(executor);
+                fail("students.csv is required");
+            } catch (FileNotFoundException ex) {
+                assertTrue(ex.getMessage().contains("students.csv"));
+            }
+
+            Files.copy(new File(directory, "students.csv").toPath(), new File(copy, "students.csv").toPath());
+
+            try (DirectoryDataSource ds = new DirectoryDataSource(copy)) {
+                ds.preload(executor);
+                assertEquals(ds.getStudents().size(), 200);
+                assertFalse(ds.getAvailability().compile().isRestricted(
+                        ds.getTeachers().values().iterator().next(), FIRST_DATE));
+            }
+        }
+    }
+}
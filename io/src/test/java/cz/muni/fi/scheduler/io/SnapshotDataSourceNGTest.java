@@ -0,0 +1,168 @@
+package cz.muni.fi.scheduler.io;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotReader;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class SnapshotDataSourceNGTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2016, Month.MAY, 2);
+
+    private static TemporaryDirectory instance;
+    private static File               directory;
+    private static File               snapshot;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        instance  = TemporaryDirectory.generate("scheduler-snapshot", new InstanceGenerator.Builder()
+                .setSeed(5)
+                .setStudents(150)
+                .setTeachers(25)
+                .setDays(4)
+                .setFirstDate(FIRST_DATE)
+                .value());
+        directory = instance.getDirectory();
+        snapshot  = instance.file("data.snapshot");
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(directory)) {
+            SnapshotWriter.write(ds, snapshot);
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        instance.close();
+    }
+
+    private static <T> String dump(Map<Long, T> map) {
+        return new TreeMap<>(map).toString();
+    }
+
+    @Test
+    public void testSameDataAsDirectory() throws Exception {
+        try (DirectoryDataSource expected = new DirectoryDataSource(directory);
+             SnapshotDataSource  actual   = new SnapshotDataSource(snapshot)) {
+            assertEquals(dump(actual.getFields()),   dump(expected.getFields()));
+            assertEquals(dump(actual.getTeachers()), dump(expected.getTeachers()));
+            assertEquals(dump(actual.getTheses()),   dump(expected.getTheses()));
+            assertEquals(dump(actual.getStudents()), dump(expected.getStudents()));
+
+            // entities refer to the instances of the same source
+            for (Student student : actual.getStudents().values()) {
+                assertSame(student.getField(), actual.getFields().get(student.getField().getId()));
+
+                if (student.hasThesis())
+                    assertSame(student.getThesis(), actual.getTheses().get(student.getThesis().getId()));
+            }
+
+            CompiledAvailability a = actual.getAvailability().compile();
+            CompiledAvailability e = expected.getAvailability().compile();
+
+            for (Teacher teacher : expected.getTeachers().values()) {
+                Teacher copy = actual.getTeachers().get(teacher.getId());
+                assertEquals(a.getRestrictedDays(copy), e.getRestrictedDays(teacher));
+
+                for (int day = 0; day < 4; ++day) {
+                    LocalDate date = FIRST_DATE.plusDays(day);
+                    assertEquals(a.getIntervals(copy, date), e.getIntervals(teacher, date));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAvailabilityEdgeCases() throws IOException {
+        Teacher           teacher = new Teacher(1, "Anna", "Smith");
+        Availability      avail   = new Availability();
+        Map<Long, Person> people  = new HashMap<>();
+        people.put(1L, teacher);
+
+        // empty intervals, intervals reaching midnight and a restricted day
+        // without any interval after rounding to minutes
+        avail.addAvailability(teacher, FIRST_DATE.atTime(10, 0), FIRST_DATE.atTime(10, 0));
+        avail.addAvailability(teacher, FIRST_DATE.plusDays(1).atTime(22, 0), FIRST_DATE.plusDays(2).atStartOfDay());
+        avail.addAvailability(teacher, FIRST_DATE.plusDays(3));
+        avail.addAvailability(teacher, FIRST_DATE.plusDays(4).atTime(23, 59, 30), FIRST_DATE.plusDays(4).atTime(23, 59, 45));
+
+        Map<Long, Teacher> teachers = new HashMap<>();
+        teachers.put(1L, teacher);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(bytes)) {
+            writer.writeData(new MemorySource(teachers, avail));
+        }
+
+        Availability restored = new Availability();
+        try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            reader.readFields();
+            reader.readTeachers();
+            reader.readTheses(teachers);
+            reader.readStudents(new HashMap<>(), new HashMap<>());
+            reader.readAvailability(people, restored);
+        }
+
+        CompiledAvailability e = avail.compile();
+        CompiledAvailability a = restored.compile();
+
+        assertEquals(a.getRestrictedDays(teacher), e.getRestrictedDays(teacher));
+        for (int day = 0; day < 5; ++day) {
+            LocalDate date = FIRST_DATE.plusDays(day);
+            assertEquals(a.getIntervals(teacher, date), e.getIntervals(teacher, date));
+        }
+
+        assertFalse(restored.isAvailable(teacher, FIRST_DATE, LocalTime.of(9, 0), LocalTime.of(11, 0)));
+        assertTrue(restored.isAvailable(teacher, LocalDateTime.of(FIRST_DATE.plusDays(1), LocalTime.of(23, 0))));
+        assertTrue(a.isAvailable(teacher, FIRST_DATE.plusDays(3), LocalTime.MIN, LocalTime.MAX));
+        assertFalse(a.isAvailable(teacher, FIRST_DATE.plusDays(4), LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        assertFalse(restored.isAvailable(teacher, FIRST_DATE.plusDays(4), LocalTime.of(8, 0), LocalTime.of(9, 0)));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotASnapshot() throws IOException {
+        new SnapshotReader(new ByteArrayInputStream("id\tcode\tname\n".getBytes())).close();
+    }
+
+    /**
+     * Source with teachers and availability only.
+     */
+    private static final class MemorySource implements DataSource {
+        private final Map<Long, Teacher> teachers;
+        private final Availability       availability;
+
+        MemorySource(Map<Long, Teacher> teachers, Availability availability) {
+            this.teachers     = teachers;
+            this.availability = availability;
+        }
+
+        @Override public Map<Long, Field>   getFields()        { return new HashMap<>(); }
+        @Override public Map<Long, Thesis>  getTheses()        { return new HashMap<>(); }
+        @Override public Map<Long, Teacher> getTeachers()      { return teachers;        }
+        @Override public Map<Long, Student> getStudents()      { return new HashMap<>(); }
+        @Override public Availability       getAvailability()  { return availability;    }
+        @Override public Object             getMetadata()      { return null;            }
+        @Override public Object             getConfiguration() { return null;            }
+        @Override public void               write(ScheduleExport schedule) { }
+        @Override public void               close()            { }
+    }
+}
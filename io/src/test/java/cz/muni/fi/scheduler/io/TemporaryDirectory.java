@@ -0,0 +1,70 @@
+package cz.muni.fi.scheduler.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Temporary directory for tests that is deleted with its contents on close.
+ *
+ * The class is shared with tests of other modules through the test jar
+ * of this module.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class TemporaryDirectory implements AutoCloseable {
+    private final File directory;
+
+    /**
+     * Creates an empty directory.
+     *
+     * @param prefix        prefix of the directory name
+     * @throws IOException  if the directory cannot be created
+     */
+    public TemporaryDirectory(String prefix) throws IOException {
+        this.directory = Files.createTempDirectory(prefix).toFile();
+    }
+
+    /**
+     * Creates a directory with an instance written by the generator.
+     *
+     * @param prefix        prefix of the directory name
+     * @param generator     instance generator
+     * @return              the new directory
+     * @throws IOException  if the directory or the instance cannot be written
+     */
+    public static TemporaryDirectory generate(String prefix, InstanceGenerator generator) throws IOException {
+        TemporaryDirectory temporary = new TemporaryDirectory(prefix);
+
+        try {
+            generator.generate(temporary.directory);
+        } catch (IOException | RuntimeException ex) {
+            temporary.close();
+            throw ex;
+        }
+
+        return temporary;
+    }
+
+    public File getDirectory() { return directory; }
+
+    /**
+     * Returns a file in the directory.
+     *
+     * @param name  name of the file
+     * @return      the file, it need not exist
+     */
+    public File file(String name) {
+        return new File(directory, name);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (Stream<Path> files = Files.walk(directory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
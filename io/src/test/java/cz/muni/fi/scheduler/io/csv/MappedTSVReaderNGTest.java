@@ -0,0 +1,182 @@
+package cz.muni.fi.scheduler.io.csv;
+
+import cz.muni.fi.scheduler.data.Availability;
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.DataReader;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class MappedTSVReaderNGTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2016, Month.MAY, 2);
+
+    private static TemporaryDirectory instance;
+    private static File               directory;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        instance  = TemporaryDirectory.generate("scheduler-tsv", new InstanceGenerator.Builder()
+                .setSeed(7)
+                .setStudents(300)
+                .setTeachers(40)
+                .setFields(3)
+                .setDays(5)
+                .setFirstDate(FIRST_DATE)
+                .value());
+        directory = instance.getDirectory();
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        instance.close();
+    }
+
+    private static <T> String dump(Map<Long, T> map) {
+        return new TreeMap<>(map).toString();
+    }
+
+    private static ByteArrayInputStream stream(String contents) {
+        return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSameEntitiesAsCSVReader() throws Exception {
+        try (DirectoryDataSource expected = new DirectoryDataSource(directory);
+             DirectoryDataSource actual   = new DirectoryDataSource(directory, new MappedTSVReader())) {
+            assertEquals(dump(actual.getFields()),   dump(expected.getFields()));
+            assertEquals(dump(actual.getTeachers()), dump(expected.getTeachers()));
+            assertEquals(dump(actual.getTheses()),   dump(expected.getTheses()));
+            assertEquals(dump(actual.getStudents()), dump(expected.getStudents()));
+
+            CompiledAvailability a = actual.getAvailability().compile();
+            CompiledAvailability e = expected.getAvailability().compile();
+
+            for (Teacher teacher : expected.getTeachers().values()) {
+                for (int day = 0; day < 5; ++day) {
+                    LocalDate date = FIRST_DATE.plusDays(day);
+                    assertEquals(a.getIntervals(teacher, date), e.getIntervals(teacher, date));
+                    assertEquals(a.isRestricted(teacher, date), e.isRestricted(teacher, date));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQuotedCellsAndTitles() throws IOException {
+        DataReader reader = new MappedTSVReader(StandardCharsets.UTF_8);
+
+        Map<Long, Teacher> teachers = reader.readTeachers(stream(
+                "id\tname\tsurname\tprefixTitles\tsuffixTitles\r\n"
+              + "1\t\"Anna\tMarie\"\tNováková\tprof. RNDr.\tCSc.\r\n"
+              + "\n"
+              + "2\t\"Jan \"\"Honza\"\"\"\tDvořák\t\t\r\n"));
+
+        assertEquals(teachers.size(), 2);
+        assertEquals(teachers.get(1L).getName(), "Anna\tMarie");
+        assertEquals(teachers.get(1L).getSurname(), "Nováková");
+        assertEquals(teachers.get(1L).getPrefixTitles(), Arrays.asList("prof.", "RNDr."));
+        assertEquals(teachers.get(1L).getSuffixTitles(), Arrays.asList("CSc."));
+        assertEquals(teachers.get(2L).getName(), "Jan \"Honza\"");
+        assertTrue(teachers.get(2L).getPrefixTitles().isEmpty());
+    }
+
+    @Test
+    public void testMalformedRowStopsReading() throws IOException {
+        DataReader reader = new MappedTSVReader();
+
+        Map<Long, Field> fields = reader.readFields(stream(
+                "id\tcode\tname\n"
+              + "1\tA\tFirst\n"
+              + "x\tB\tSecond\n"
+              + "3\tC\tThird\n"));
+
+        assertEquals(fields.keySet(), new CSVDataReader().readFields(stream(
+                "id\tcode\tname\n"
+              + "1\tA\tFirst\n"
+              + "x\tB\tSecond\n"
+              + "3\tC\tThird\n")).keySet());
+        assertEquals(fields.size(), 1);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testUnknownColumn() throws IOException {
+        new MappedTSVReader().readFields(stream("id\tcolour\n1\tred\n"));
+    }
+
+    @Test
+    public void testAvailability() throws IOException {
+        Teacher            teacher = new Teacher(1, "Anna", "Smith");
+        Map<Long, Person>  people  = new HashMap<>();
+        Availability       avail   = new Availability();
+        people.put(1L, teacher);
+
+        new MappedTSVReader().readAvailability(stream(
+                "person\tdate\tfrom\tto\n"
+              + "1\t02.05.2016\t08:00\t12:00\n"
+              + "1\t3.5.2016\t\t\n"
+              + "1\t04.05.2016\t14:30\t\n"), people, avail);
+
+        assertTrue(avail.isAvailable(teacher, FIRST_DATE, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        assertFalse(avail.isAvailable(teacher, FIRST_DATE, LocalTime.of(12, 0), LocalTime.of(13, 0)));
+        assertTrue(avail.isAvailable(teacher, FIRST_DATE.plusDays(1), LocalTime.MIN, LocalTime.MAX));
+        assertTrue(avail.isAvailable(teacher, LocalDateTime.of(FIRST_DATE.plusDays(2), LocalTime.of(23, 0))));
+        assertFalse(avail.isAvailable(teacher, LocalDateTime.of(FIRST_DATE.plusDays(2), LocalTime.of(14, 0))));
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testInvalidDate() throws IOException {
+        Map<Long, Person> people = new HashMap<>();
+        people.put(1L, new Teacher(1, "Anna", "Smith"));
+
+        new MappedTSVReader().readAvailability(stream(
+                "person\tdate\tfrom\tto\n"
+              + "1\t31.02.2016\t08:00\t12:00\n"), people, new Availability());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testStudentErrorsAreThrown() throws IOException {
+        new MappedTSVReader().readStudents(stream(
+                "id\tname\tsurname\tfield\trepetition\texamLevel\n"
+              + "1\tJan\tNovak\tINF\tSOMETIMES\tBACHELOR\n"),
+                new HashMap<Long, Thesis>(), new HashMap<Long, Field>());
+    }
+
+    @Test
+    public void testStudents() throws IOException {
+        Field            field  = new Field(1, "Informatics", "INF");
+        Map<Long, Field> fields = new HashMap<>();
+        fields.put(1L, field);
+
+        Map<Long, Student> students = new MappedTSVReader().readStudents(stream(
+                "id\tname\tsurname\tprefixTitles\tsuffixTitles\tfield\trepetition\texamLevel\tthesis\n"
+              + "1\tJan\tNovak\tBc.\t\tINF\toral_exam\tmaster\t\n"),
+                new HashMap<Long, Thesis>(), fields);
+
+        Student student = students.get(1L);
+        assertSame(student.getField(), field);
+        assertEquals(student.getPrefixTitles(), Arrays.asList("Bc."));
+        assertFalse(student.hasThesis());
+    }
+}
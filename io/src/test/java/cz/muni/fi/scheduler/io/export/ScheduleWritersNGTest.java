@@ -0,0 +1,115 @@
+package cz.muni.fi.scheduler.io.export;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.ScheduleExport;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Arrays;
+import java.util.List;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class ScheduleWritersNGTest {
+
+    private static final LocalDate DATE = LocalDate.of(2016, Month.MAY, 2);
+
+    private static final Teacher CHAIRMAN = new Teacher(1, "Anna",  "Smith");
+    private static final Teacher MEMBER   = new Teacher(2, "Jan",   "Novak");
+    private static final Teacher OPPONENT = new Teacher(3, "Petra", "Dvorak");
+
+    private static final Field   FIELD    = new Field(10, "Informatics", "INF");
+    private static final Thesis  THESIS   = new Thesis(20, "Thesis", CHAIRMAN, Arrays.asList(OPPONENT));
+
+    private static final Student DEFENDER = new Student(30, "Eva", "Kral", FIELD,
+            Repetition.NOTHING, ExamLevel.MASTER, THESIS);
+    private static final Student ORAL     = new Student(31, "Karel", "Mares", FIELD,
+            Repetition.ORAL_EXAM, ExamLevel.BACHELOR, null);
+
+    private static final ScheduleExport SCHEDULE = sink -> {
+        sink.commission(7, new Commission(DATE, LocalTime.of(8, 0), LocalTime.of(9, 0),
+                CHAIRMAN, Arrays.asList(MEMBER)));
+        sink.exam(7, DATE, LocalTime.of(8, 0),  LocalTime.of(8, 30), DEFENDER);
+        sink.exam(7, DATE, LocalTime.of(8, 30), LocalTime.of(9, 0),  ORAL);
+        sink.block(OPPONENT, DATE, LocalTime.of(8, 0), LocalTime.of(8, 30), false);
+    };
+
+    @Test
+    public void testTSV() throws Exception {
+        try (TemporaryDirectory temporary = new TemporaryDirectory("scheduler-export")) {
+            File directory = temporary.getDirectory();
+
+            // the directory only has to exist, nothing is read from it
+            try (DirectoryDataSource ds = new DirectoryDataSource(directory)) {
+                ds.write(SCHEDULE);
+            }
+
+            assertEquals(lines(directory, "commissions.csv"), Arrays.asList(
+                    "row\tdate\tstart\tend\tchairman\tmembers",
+                    "7\t02.05.2016\t08:00\t09:00\t1\t2"));
+            assertEquals(lines(directory, "exams.csv"), Arrays.asList(
+                    "row\tdate\tstart\tend\tstudent\tthesis\tsupervisor\topponents",
+                    "7\t02.05.2016\t08:00\t08:30\t30\t20\t1\t3",
+                    "7\t02.05.2016\t08:30\t09:00\t31\t\t\t"));
+            assertEquals(lines(directory, "blocks.csv"), Arrays.asList(
+                    "teacher\tdate\tstart\tend\tspanning",
+                    "3\t02.05.2016\t08:00\t08:30\tfalse"));
+        }
+    }
+
+    private static List<String> lines(File directory, String name) throws IOException {
+        return Files.readAllLines(new File(directory, name).toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testJSON() throws IOException {
+        StringWriter out = new StringWriter();
+
+        try (JSONScheduleWriter writer = new JSONScheduleWriter(out)) {
+            SCHEDULE.export(writer);
+        }
+
+        JsonObject document = new JsonParser().parse(out.toString()).getAsJsonObject();
+        JsonArray  exams    = document.getAsJsonArray("exams");
+
+        assertEquals(document.getAsJsonArray("commissions").size(), 1);
+        assertEquals(document.getAsJsonArray("commissions").get(0).getAsJsonObject()
+                .getAsJsonArray("members").get(0).getAsLong(), 2L);
+        assertEquals(exams.size(), 2);
+        assertEquals(exams.get(0).getAsJsonObject().get("start").getAsString(), "08:00");
+        assertEquals(exams.get(0).getAsJsonObject().get("supervisor").getAsLong(), 1L);
+        assertFalse(exams.get(1).getAsJsonObject().has("thesis"));
+        assertEquals(document.getAsJsonArray("blocks").size(), 1);
+    }
+
+    @Test
+    public void testJSONWithoutRecords() throws IOException {
+        StringWriter out = new StringWriter();
+        new JSONScheduleWriter(out).close();
+
+        assertEquals(out.toString(), "{\"commissions\":[],\"exams\":[],\"blocks\":[]}");
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testJSONRequiresOrder() throws IOException {
+        JSONScheduleWriter writer = new JSONScheduleWriter(new StringWriter());
+        writer.block(CHAIRMAN, DATE, LocalTime.of(8, 0), LocalTime.of(9, 0), true);
+        writer.exam(7, DATE, LocalTime.of(8, 0), LocalTime.of(8, 30), ORAL);
+    }
+}
@@ -8,58 +8,150 @@ import cz.muni.fi.scheduler.model.domain.EntityData;
 import cz.muni.fi.scheduler.model.domain.EntryRow;
 import cz.muni.fi.scheduler.model.domain.MemberSlot;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
-import cz.muni.fi.scheduler.utils.Pair;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The Agenda records information about the current solution.
  *
  * For instance, it holds information about teacher's blocks.
+ * Block counts are maintained incrementally by the mark and unmark methods,
+ * so {@link #blockCount(Teacher)}, {@link #spanningBlockCount(Teacher)} and
+ * {@link #totalBlockCount()} are constant-time reads.
+ *
+ * Teachers are looked up by their ordinal (see {@link SchModel#addTeacher}),
+ * which refers to a {@link TeacherAgenda} that stores blocks and member rows
+ * in arrays indexed by day, so queries about a teacher only touch the
+ * teacher's data. Only interned teachers can be marked.
+ *
+ * Time blocks of a day are kept in a {@link BlockMap}, so marking, unmarking
+ * and analyzing a time slot does not create any {@link Block} instances.
  *
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
 public class Agenda {
-    private final Map<Person, EntityData>                     people;
-    private final Map<Pair<Teacher, Integer>, List<Block>>    timeBlocks;
-    private final Map<Pair<Teacher, Integer>, List<EntryRow>> memberBlocks;
+    private final Map<Person, EntityData>   people;
+    private TeacherAgenda[]                 agendas;
+
+    private int                             totalBlocks;
+    private boolean                         consistencyCheck;
+
+    /**
+     * Blocks and member rows of a single teacher, indexed by day.
+     */
+    private static final class TeacherAgenda {
+        private final Teacher teacher;
+
+        private BlockMap[]       blocks;
+        private List<EntryRow>[] rows;
+        private int              blockCount;
+        private int              spanningCount;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TeacherAgenda(Teacher teacher) {
+            this.teacher = teacher;
+            this.blocks  = new BlockMap[0];
+            this.rows    = new List[0];
+        }
 
-    private final Map<Teacher, Long>         memBlockCounts;
+        @SuppressWarnings("unchecked")
+        private void ensureDay(int day) {
+            if (day < blocks.length)
+                return;
 
-    private int joinBlocks(List<Block> blocks) {
-        if (blocks.size() == 1)
-            return 1;
+            int size = Math.max(day + 1, 2 * blocks.length);
+            blocks = Arrays.copyOf(blocks, size);
+            rows   = Arrays.copyOf(rows,   size);
+        }
 
-        Queue<Block> queue = new PriorityQueue<>(blocks);
-        blocks.clear();
+        int days() { return blocks.length; }
 
-        while (!queue.isEmpty()) {
-            Block current = queue.remove();
+        BlockMap       blocks(int day) { return day < blocks.length ? blocks[day] : null; }
+        List<EntryRow> rows(int day)   { return day < rows.length   ? rows[day]   : null; }
 
-            while (!queue.isEmpty() && (current.canJoin(queue.peek()))) {
-                current = current.join(queue.remove());
-            }
+        BlockMap blocksFor(int day) {
+            ensureDay(day);
+            if (blocks[day] == null)
+                blocks[day] = new BlockMap();
+            return blocks[day];
+        }
+
+        List<EntryRow> rowsFor(int day) {
+            ensureDay(day);
+            if (rows[day] == null)
+                rows[day] = new ArrayList<>();
+            return rows[day];
+        }
 
-            blocks.add(current);
+        boolean hasRows(int day) {
+            List<EntryRow> dayRows = rows(day);
+            return (dayRows != null) && !dayRows.isEmpty();
         }
 
-        return blocks.size();
+        /**
+         * Number of blocks the teacher has on the given day.
+         * A day with at least one member row counts as a single block.
+         */
+        int dayBlockCount(int day) {
+            if (hasRows(day))
+                return 1;
+
+            BlockMap dayBlocks = blocks(day);
+            return dayBlocks == null ? 0 : dayBlocks.size();
+        }
     }
 
     public Agenda() {
         people       = new HashMap<>();
-        timeBlocks   = new HashMap<>();
-        memberBlocks = new HashMap<>();
+        agendas      = new TeacherAgenda[0];
+        totalBlocks  = 0;
+    }
+
+    private TeacherAgenda find(Teacher teacher) {
+        int ordinal = teacher.getOrdinal();
+        return (ordinal >= 0) && (ordinal < agendas.length) ? agendas[ordinal] : null;
+    }
+
+    private TeacherAgenda agendaOf(Teacher teacher) {
+        if (!teacher.isInterned())
+            throw new IllegalArgumentException("Teacher " + teacher.getId() + " is not interned.");
+
+        int ordinal = teacher.getOrdinal();
+
+        if (ordinal >= agendas.length)
+            agendas = Arrays.copyOf(agendas, Math.max(ordinal + 1, 2 * agendas.length));
+
+        if (agendas[ordinal] == null)
+            agendas[ordinal] = new TeacherAgenda(teacher);
+
+        return agendas[ordinal];
+    }
+
+    private int updateBlockCount(TeacherAgenda agenda, int before, int after) {
+        int diff = after - before;
 
-        memBlockCounts = new HashMap<>();
+        agenda.blockCount += diff;
+        totalBlocks       += diff;
+
+        if (consistencyCheck)
+            checkConsistency();
+
+        return diff;
+    }
+
+    /**
+     * Enables or disables the consistency check.
+     *
+     * When enabled, every mark and unmark operation compares the maintained
+     * block counts with a full recount. This is expensive and meant for tests.
+     *
+     * @param enabled   {@code true} to enable the check
+     */
+    public void setConsistencyCheck(boolean enabled) {
+        this.consistencyCheck = enabled;
     }
 
     public EntityData getPerson(Person person) {
@@ -70,195 +162,299 @@ public class Agenda {
     public int markTimeSlot(Teacher teacher, TimeSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
-        List<Block> tblocks = timeBlocks.computeIfAbsent(
-                Pair.of(teacher, slot.getParent().getDay()),
-                k -> new ArrayList<>()
-        );
 
-        int oldsize = tblocks.size();
-        tblocks.add(new Block(slot));
+        TeacherAgenda agenda = agendaOf(teacher);
+        int           day    = slot.getParent().getDay();
+        int           before = agenda.dayBlockCount(day);
 
-        memBlockCounts.remove(teacher);
+        agenda.blocksFor(day).add(slot);
 
-        int diff = joinBlocks(tblocks) - oldsize;
-        return memberBlocks.containsKey(Pair.of(teacher, slot.getParent().getDay())) ? 0 : diff;
+        return updateBlockCount(agenda, before, agenda.dayBlockCount(day));
     }
 
     public int markMemberSlot(Teacher teacher, MemberSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        int day  = slot.getParent().getDay();
-        int diff = analyzeMemberSlotAssign(teacher, slot);
+        TeacherAgenda agenda = agendaOf(teacher);
+        int           day    = slot.getParent().getDay();
+        int           before = agenda.dayBlockCount(day);
 
-        List<EntryRow> rows = memberBlocks.computeIfAbsent(Pair.of(teacher, day), t -> new ArrayList<>());
+        agenda.rowsFor(day).add(slot.getParent());
+        ++agenda.spanningCount;
 
-        rows.add(slot.getParent());
-        memBlockCounts.remove(teacher);
-        return diff;
+        return updateBlockCount(agenda, before, agenda.dayBlockCount(day));
     }
 
     public int unmarkTimeSlot(Teacher teacher, TimeSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        List<Block>     blocks = timeBlocks.get(Pair.of(teacher, slot.getParent().getDay()));
-        Optional<Block> qblock = blocks.stream().filter(b -> b.contains(slot)).findFirst();
+        TeacherAgenda agenda = find(teacher);
+        int           day    = slot.getParent().getDay();
+        BlockMap      blocks = agenda == null ? null : agenda.blocks(day);
 
-        if (!qblock.isPresent())
+        if (blocks == null || !blocks.contains(slot))
             return 0;
 
-        Block block = qblock.get();
-        blocks.remove(block);
-        List<Block> split = block.split(slot);
-        blocks.addAll(split);
+        int before = agenda.dayBlockCount(day);
+        blocks.remove(slot);
 
-        memBlockCounts.remove(teacher);
-
-        int diff = split.size() - 1;
-        return memberBlocks.containsKey(Pair.of(teacher, slot.getParent().getDay())) ? 0 : diff;
+        return updateBlockCount(agenda, before, agenda.dayBlockCount(day));
     }
 
     public int unmarkMemberSlot(Teacher teacher, MemberSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        int day = slot.getParent().getDay();
-        List<EntryRow> rows = memberBlocks.get(Pair.of(teacher, day));
+        TeacherAgenda  agenda = find(teacher);
+        int            day    = slot.getParent().getDay();
+        List<EntryRow> rows   = agenda == null ? null : agenda.rows(day);
 
-        if (!rows.remove(slot.getParent()))
+        if (rows == null || !rows.contains(slot.getParent()))
             return 0;
 
-        memBlockCounts.remove(teacher);
-        return rows.isEmpty()
-                ? timeBlocks.getOrDefault(Pair.of(teacher, day), Arrays.asList()).size() - 1
-                : 0;
+        int before = agenda.dayBlockCount(day);
+        rows.remove(slot.getParent());
+        --agenda.spanningCount;
+
+        return updateBlockCount(agenda, before, agenda.dayBlockCount(day));
     }
 
     public int analyzeTimeSlotAssign(Teacher teacher, TimeSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        Block proposed = new Block(slot);
-        List<Block> blocks = timeBlocks.get(Pair.of(teacher, slot.getParent().getDay()));
+        TeacherAgenda agenda = find(teacher);
+        int           day    = slot.getParent().getDay();
 
-        // check that the block is not covered by member block
-        List<EntryRow> rows = memberBlocks.get(Pair.of(teacher, slot.getParent().getDay()));
+        // there are no blocks assigned to the teacher
+        if (agenda == null)
+            return 1;
 
-        if ((rows != null) && !rows.isEmpty())
+        // check that the block is not covered by member block
+        if (agenda.hasRows(day))
             return 0;
 
-        // there are no blocks assigned in the given entry row
+        BlockMap blocks = agenda.blocks(day);
+
+        // there are no blocks assigned in the given day
         if (blocks == null)
             return 1;
 
-        // at most 2 blocks from 'blocks' can join the proposed block
-        int count = (int) blocks.stream().filter(b -> b.canJoin(proposed)).count();
-        assert (count <= 2);
-
-        int diff = 1 - count;
-        return memberBlocks.containsKey(Pair.of(teacher, slot.getParent().getDay())) ? 0 : diff;
+        return blocks.analyzeAdd(slot);
     }
 
     public int analyzeMemberSlotAssign(Teacher teacher, MemberSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        int day  = slot.getParent().getDay();
-
-        List<EntryRow> rows    = memberBlocks.computeIfAbsent(Pair.of(teacher,day), t -> new ArrayList<>());
-        List<Block>    tblocks = timeBlocks.get(Pair.of(teacher, day));
+        TeacherAgenda agenda = find(teacher);
+        int           day    = slot.getParent().getDay();
 
-        if (rows.isEmpty() && (tblocks != null))
-            return 1 - tblocks.size();
+        if (agenda == null)
+            return 1;
 
-        return rows.isEmpty() ? 1 : 0;
+        return agenda.hasRows(day) ? 0 : 1 - agenda.dayBlockCount(day);
     }
 
     public int analyzeTimeSlotUnassign(Teacher teacher, TimeSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        List<Block> blocks = timeBlocks.get(Pair.of(teacher, slot.getParent().getDay()));
-
-        if (blocks == null)
-            return 0;
-
-        Block splitting = blocks.stream().filter(b -> b.contains(slot)).findAny().orElse(null);
+        TeacherAgenda agenda = find(teacher);
+        int           day    = slot.getParent().getDay();
+        BlockMap      blocks = agenda == null ? null : agenda.blocks(day);
 
-        if (splitting == null)
+        // blocks covered by member rows do not count
+        if (blocks == null || agenda.hasRows(day))
             return 0;
 
-        int diff = splitting.splitFactor(slot) - 1;
-        return memberBlocks.containsKey(Pair.of(teacher, slot.getParent().getDay())) ? 0 : diff;
+        return blocks.analyzeRemove(slot);
     }
 
     public int analyzeMemberSlotUnassign(Teacher teacher, MemberSlot slot) {
         requireNonNull(teacher, "teacher");
         requireNonNull(slot,    "slot");
 
-        int day = slot.getParent().getDay();
-        List<EntryRow> rows = memberBlocks.get(Pair.of(teacher, day));
+        TeacherAgenda  agenda = find(teacher);
+        int            day    = slot.getParent().getDay();
+        List<EntryRow> rows   = agenda == null ? null : agenda.rows(day);
 
-        if (!rows.contains(slot.getParent()))
+        if (rows == null || !rows.contains(slot.getParent()))
             return 0;
 
-        memBlockCounts.remove(teacher);
+        BlockMap blocks = agenda.blocks(day);
+
         return rows.size() > 1
                 ? 0
                   // if there are other blocks covering this one, nothing will change
-                : timeBlocks.getOrDefault(Pair.of(teacher, day), Arrays.asList()).size() - 1;
+                : (blocks == null ? 0 : blocks.size()) - 1;
                   // else count how many blocks will appear and remove 1 (we are computing the _difference_)
     }
 
-    public Map<Integer, List<Block>> getBlocks(Teacher teacher) {
-        Map<Integer, List<Block>> blocks = new HashMap<>();
+    /**
+     * Returns the difference in the number of blocks if the time slot was
+     * taken from one group of teachers and given to another, e.g. when the
+     * exam in the slot is replaced by another one.
+     *
+     * Teachers present in both groups keep the slot. Agendas of different
+     * teachers are independent, so the result is the sum of the individual
+     * changes computed from the current state, nothing is modified.
+     *
+     * @param removed   teachers that currently have the slot
+     * @param added     teachers that would have the slot
+     * @param slot      the slot
+     * @return          difference in the total number of blocks
+     */
+    public int analyzeTimeSlotReplace(List<Teacher> removed, List<Teacher> added, TimeSlot slot) {
+        requireNonNull(removed, "removed");
+        requireNonNull(added,   "added");
+        requireNonNull(slot,    "slot");
+
+        int diff = 0;
 
-        memberBlocks.entrySet().stream()
-                .filter(entry -> entry.getKey().first().equals(teacher) && !entry.getValue().isEmpty())
-                .map(entry -> Pair.of(entry.getKey(), entry.getValue().stream().map(EntryRow::asBlock).collect(Collectors.toList())))
-                .forEach(p -> blocks.put(p.first().second(), p.second()));
+        for (int i = 0; i < removed.size(); ++i) {
+            if (!Person.containsSame(added, removed.get(i)))
+                diff += analyzeTimeSlotUnassign(removed.get(i), slot);
+        }
 
-        timeBlocks.entrySet().stream()
-                .filter(entry -> entry.getKey().first().equals(teacher))
-                .filter(entry -> memberBlocks.getOrDefault(entry.getKey(), Arrays.asList()).isEmpty())
-                .map(entry -> Pair.of(entry.getKey().second(), entry.getValue()))
-                .forEach(p -> blocks.put(p.first(), p.second()));
+        for (int i = 0; i < added.size(); ++i) {
+            if (!Person.containsSame(removed, added.get(i)))
+                diff += analyzeTimeSlotAssign(added.get(i), slot);
+        }
+
+        return diff;
+    }
+
+    /**
+     * Returns the difference in the number of blocks if the member slot was
+     * taken from one teacher and given to another. Nothing is modified.
+     *
+     * @param removed   teacher that currently has the slot
+     * @param added     teacher that would have the slot
+     * @param slot      the slot
+     * @return          difference in the total number of blocks
+     */
+    public int analyzeMemberSlotReplace(Teacher removed, Teacher added, MemberSlot slot) {
+        requireNonNull(removed, "removed");
+        requireNonNull(added,   "added");
+        requireNonNull(slot,    "slot");
+
+        if (removed.sameAs(added))
+            return 0;
+
+        return analyzeMemberSlotUnassign(removed, slot) + analyzeMemberSlotAssign(added, slot);
+    }
+
+    public Map<Integer, List<Block>> getBlocks(Teacher teacher) {
+        Map<Integer, List<Block>> blocks = new HashMap<>();
+        TeacherAgenda             agenda = find(teacher);
+
+        if (agenda == null)
+            return blocks;
+
+        for (int day = 0; day < agenda.days(); ++day) {
+            if (agenda.hasRows(day)) {
+                List<Block> rowBlocks = new ArrayList<>(agenda.rows(day).size());
+                agenda.rows(day).forEach(row -> rowBlocks.add(row.asBlock()));
+                blocks.put(day, rowBlocks);
+            } else if (agenda.blocks(day) != null) {
+                blocks.put(day, agenda.blocks(day).getBlocks());
+            }
+        }
 
         return blocks;
     }
 
     public long blockCount(Teacher teacher) {
-        return memBlockCounts.computeIfAbsent(teacher, t -> {
-            long daysCovered = memberBlocks.entrySet().stream()
-                    .filter(entry -> entry.getKey().first().equals(teacher))
-                    .filter(entry -> !entry.getValue().isEmpty())
-                    .mapToInt(entry -> entry.getKey().second())
-                    .distinct()
-                    .count();
-
-            long nonCoveredBlocks = timeBlocks.entrySet().stream()
-                    .filter(entry -> entry.getKey().first().equals(teacher))
-                    .filter(entry -> memberBlocks.getOrDefault(entry.getKey(), Arrays.asList()).isEmpty())
-                    .mapToLong(entry -> entry.getValue().size())
-                    .sum();
-
-            return daysCovered + nonCoveredBlocks;
-        });
+        TeacherAgenda agenda = find(teacher);
+        return agenda == null ? 0 : agenda.blockCount;
+    }
+
+    /**
+     * Returns the number of spanning blocks of the teacher, that is the
+     * number of commissions the teacher sits in (see {@link Block#isSpanning()}).
+     * The count is maintained by the mark and unmark methods.
+     *
+     * @param teacher   the teacher
+     * @return          number of member rows of the teacher
+     */
+    public int spanningBlockCount(Teacher teacher) {
+        TeacherAgenda agenda = find(teacher);
+        return agenda == null ? 0 : agenda.spanningCount;
     }
 
+    /**
+     * Returns the number of blocks of all teachers.
+     *
+     * @return  sum of {@link #blockCount(Teacher)} over all teachers
+     */
+    public int totalBlockCount() {
+        return totalBlocks;
+    }
+
+    /**
+     * @deprecated use {@link #totalBlockCount()} instead
+     */
     @Deprecated
     public int blockSum() {
-        Set<Teacher> collect = timeBlocks.keySet().stream()
-                .map(entry -> entry.first())
-                .collect(Collectors.toSet());
+        return totalBlockCount();
+    }
+
+    private static long recount(TeacherAgenda agenda) {
+        long count = 0;
+
+        for (int day = 0; day < agenda.days(); ++day) {
+            List<EntryRow> rows   = agenda.rows(day);
+            BlockMap       blocks = agenda.blocks(day);
+
+            if ((rows != null) && !rows.isEmpty()) {
+                ++count;
+            } else if (blocks != null) {
+                count += blocks.getBlocks().size();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Compares the maintained block counts with a full recount.
+     *
+     * @throws IllegalStateException    if the counts do not match
+     */
+    public void checkConsistency() {
+        long total = 0;
 
-        memberBlocks.keySet().stream()
-                .map(entry -> entry.first())
-                .collect(Collectors.toCollection(() -> collect));
+        for (TeacherAgenda agenda : agendas) {
+            if (agenda == null)
+                continue;
 
-        return collect.stream()
-                .mapToInt(t -> (int) blockCount(t))
-                .sum();
+            long expected = recount(agenda);
+
+            if (expected != agenda.blockCount) {
+                throw new IllegalStateException("Teacher " + agenda.teacher.getId() + " has "
+                        + agenda.blockCount + " blocks recorded, but " + expected + " were counted.");
+            }
+
+            int spanning = 0;
+            for (int day = 0; day < agenda.days(); ++day) {
+                if (agenda.rows(day) != null)
+                    spanning += agenda.rows(day).size();
+            }
+
+            if (spanning != agenda.spanningCount) {
+                throw new IllegalStateException("Teacher " + agenda.teacher.getId() + " has "
+                        + agenda.spanningCount + " spanning blocks recorded, but " + spanning + " were counted.");
+            }
+
+            total += expected;
+        }
+
+        if (total != totalBlocks) {
+            throw new IllegalStateException("Total of " + totalBlocks + " blocks recorded, but "
+                    + total + " were counted.");
+        }
     }
 }
@@ -6,7 +6,6 @@ import cz.muni.fi.scheduler.model.domain.TimeSlot;
 import cz.muni.fi.scheduler.model.domain.TimeSlotComparator;
 import cz.muni.fi.scheduler.utils.Range;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -131,18 +130,25 @@ public class Block implements Comparable<Block> {
         requireNonNull(slot, "slot");
 
         createBlockMap();
-        int tmpMap[] = Arrays.copyOf(memBlockMap, memBlockMap.length);
 
-        int shift = first.getStart();
+        int     shift   = first.getStart();
+        int     counter = 0;
+        boolean prev    = false;
 
-        for (int i = slot.getStart(); i < slot.getEnd(); ++i) {
-            --tmpMap[i - shift];
-        }
+        // count the runs as if the slot was removed from the map
+        for (int i = 0; i < memBlockMap.length; ++i) {
+            int minute = i + shift;
+            int value  = memBlockMap[i];
+
+            if ((minute >= slot.getStart()) && (minute < slot.getEnd()))
+                --value;
 
-        int counter = 0;
-        for (int i = 0; i < tmpMap.length; ++i) {
-            if (tmpMap[i] != 0 && (i == 0 || tmpMap[i - 1] == 0))
+            boolean current = value != 0;
+
+            if (current && !prev)
                 ++counter;
+
+            prev = current;
         }
 
         return counter;
@@ -0,0 +1,194 @@
+package cz.muni.fi.scheduler.model;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import cz.muni.fi.scheduler.model.domain.TimeSlotComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Blocks of {@link TimeSlot}s on a single day.
+ *
+ * The map stores the coverage of the day as an occupancy counter for every
+ * minute. Two slots belong to the same block if the minutes between them
+ * are covered, which is the same relation as {@link Block#canJoin(Block)}.
+ * Adding and removing a slot only updates the counters in place; the analyze
+ * methods compute the change in the number of blocks without modifying the
+ * map and without allocating.
+ *
+ * {@link Block} instances are only created on request by {@link #getBlocks()}.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class BlockMap {
+    private int[]                coverage;
+    private final List<TimeSlot> slots;
+    private int                  blockCount;
+
+    private List<Block>          memBlocks; // memoized blocks
+
+    public BlockMap() {
+        coverage   = new int[0];
+        slots      = new ArrayList<>();
+        blockCount = 0;
+    }
+
+    private int covered(int minute) {
+        return (minute >= 0) && (minute < coverage.length) ? coverage[minute] : 0;
+    }
+
+    private void ensureMinute(int minute) {
+        if (minute < coverage.length)
+            return;
+
+        coverage = Arrays.copyOf(coverage, Math.max(minute + 1, 2 * coverage.length));
+    }
+
+    /**
+     * Counts the runs of covered minutes in the window around the slot,
+     * that is in the minutes {@code [start - 1, end]}. If {@code removed}
+     * is set, the minutes of the slot are counted as if the slot was not
+     * in the map.
+     */
+    private int runsAround(TimeSlot slot, boolean removed) {
+        final int start = slot.getStart();
+        final int end   = slot.getEnd();
+
+        int     runs = 0;
+        boolean prev = false;
+
+        for (int i = start - 1; i <= end; ++i) {
+            int value = covered(i);
+
+            if (removed && (i >= start) && (i < end))
+                --value;
+
+            boolean current = value != 0;
+
+            if (current && !prev)
+                ++runs;
+
+            prev = current;
+        }
+
+        return runs;
+    }
+
+    private void update(TimeSlot slot, int delta) {
+        ensureMinute(slot.getEnd());
+
+        for (int i = slot.getStart(); i < slot.getEnd(); ++i) {
+            coverage[i] += delta;
+        }
+
+        memBlocks = null;
+    }
+
+    /**
+     * Returns the difference in the number of blocks if the slot was added.
+     *
+     * @param slot  slot to analyze
+     * @return      {@code 1} if the slot would form a new block, {@code 0} if
+     *              it extends a block, negative number if it joins blocks
+     */
+    public int analyzeAdd(TimeSlot slot) {
+        requireNonNull(slot, "slot");
+        return 1 - runsAround(slot, false);
+    }
+
+    /**
+     * Returns the difference in the number of blocks if the slot was removed.
+     *
+     * @param slot  slot to analyze
+     * @return      {@code -1} if the slot forms a block on its own, positive
+     *              number if the block would be split, {@code 0} otherwise or
+     *              if the slot is not in the map
+     */
+    public int analyzeRemove(TimeSlot slot) {
+        requireNonNull(slot, "slot");
+
+        if (!contains(slot))
+            return 0;
+
+        return runsAround(slot, true) - 1;
+    }
+
+    /**
+     * Adds the slot to the map.
+     *
+     * @param slot  slot to add
+     * @return      difference in the number of blocks
+     */
+    public int add(TimeSlot slot) {
+        int diff = analyzeAdd(slot);
+
+        slots.add(slot);
+        update(slot, 1);
+        blockCount += diff;
+
+        return diff;
+    }
+
+    /**
+     * Removes the slot from the map.
+     *
+     * @param slot  slot to remove
+     * @return      difference in the number of blocks, {@code 0} if the
+     *              slot is not in the map
+     */
+    public int remove(TimeSlot slot) {
+        int diff = analyzeRemove(slot);
+
+        if (!slots.remove(slot))
+            return 0;
+
+        update(slot, -1);
+        blockCount += diff;
+
+        return diff;
+    }
+
+    public boolean contains(TimeSlot slot) {
+        return (slot != null) && slots.contains(slot);
+    }
+
+    public boolean isEmpty() { return slots.isEmpty(); }
+    public int     size()    { return blockCount;      }
+
+    /**
+     * Returns the blocks of the map ordered by their starting time.
+     *
+     * @return  unmodifiable list of blocks
+     */
+    public List<Block> getBlocks() {
+        if (memBlocks != null)
+            return memBlocks;
+
+        List<TimeSlot> sorted = new ArrayList<>(slots);
+        sorted.sort(TimeSlotComparator.INSTANCE);
+
+        List<Block> blocks  = new ArrayList<>(blockCount);
+        Block       current = null;
+
+        for (TimeSlot slot : sorted) {
+            Block block = new Block(slot);
+
+            if (current == null) {
+                current = block;
+            } else if (current.canJoin(block)) {
+                current = current.join(block);
+            } else {
+                blocks.add(current);
+                current = block;
+            }
+        }
+
+        if (current != null)
+            blocks.add(current);
+
+        return (memBlocks = Collections.unmodifiableList(blocks));
+    }
+}
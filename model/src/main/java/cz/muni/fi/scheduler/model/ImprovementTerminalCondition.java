@@ -14,6 +14,9 @@ import org.cpsolver.ifs.util.DataProperties;
  * Terminates the search after a number of iterations without finding a better
  * solution.
  *
+ * A single instance is shared by all threads of a parallel solver, so the
+ * iterations and the best solution are counted over all of them.
+ *
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
 public class ImprovementTerminalCondition implements TerminationCondition<Slot, Ticket> {
@@ -36,7 +39,7 @@ public class ImprovementTerminalCondition implements TerminationCondition<Slot,
     }
 
     @Override
-    public boolean canContinue(Solution<Slot, Ticket> currentSolution) {
+    public synchronized boolean canContinue(Solution<Slot, Ticket> currentSolution) {
         if ((counter > maxIterations) && (Double.compare(bestSolution, Double.MAX_VALUE) < 0)) {
             logger.info("max iterations reached without improving, stopping");
             return false;
@@ -2,38 +2,153 @@ package cz.muni.fi.scheduler.model;
 
 import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
 
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.model.context.SchModelContext;
 import cz.muni.fi.scheduler.model.domain.EntryRow;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.cpsolver.ifs.assignment.Assignment;
 import org.cpsolver.ifs.assignment.context.ModelWithContext;
+import org.cpsolver.ifs.criteria.Criterion;
 
+/**
+ * The examination timetabling model.
+ *
+ * The model interns its entities as they are added: every teacher, student,
+ * entry row and slot receives a dense ordinal (teachers and students are
+ * numbered independently). The ordinals allow the context, agenda and
+ * constraints to use arrays instead of hash maps.
+ *
+ * Interning modifies the entities, so an entity must not be shared by
+ * two models, not even at the same position; adding an interned person
+ * fails (see {@link cz.muni.fi.scheduler.data.Person#setOrdinal}). Apart
+ * from that, models do not share any mutable state and can be built and
+ * solved in parallel threads.
+ *
+ * Criteria are also kept in an array (see {@link #getCriteriaArray()}), so
+ * that evaluating a value does not need an iterator or a stream.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
 public class SchModel extends ModelWithContext<Slot, Ticket, SchModelContext>{
     private final List<EntryRow> entryRows;
+    private final List<Teacher>  teachers;
+    private final List<Student>  students;
+    private final Set<Long>      rowIds;
+    private int                  slotCount;
+    private long                 nextRowId;
+
+    private Criterion<Slot, Ticket>[] criteria;
 
     public SchModel() {
         entryRows = new ArrayList<>();
+        teachers  = new ArrayList<>();
+        students  = new ArrayList<>();
+        rowIds    = new HashSet<>();
+        slotCount = 0;
+        nextRowId = 0L;
         setContextUpdateType(ContextUpdateType.AfterUnassignedAfterAssigned);
     }
 
+    /**
+     * Adds a row to the model.
+     *
+     * Row identifiers must be unique within the model, rows created by
+     * {@link #newEntryRow} later are numbered after the added ones.
+     *
+     * @param row   the row
+     * @throws IllegalArgumentException if the model already has a row with
+     *                                  the same identifier
+     */
     public void addEntryRow(EntryRow row) {
-        entryRows.add(requireNonNull(row, "row"));
+        requireNonNull(row, "row");
+
+        if (!rowIds.add(row.getId()))
+            throw new IllegalArgumentException("Row " + row.getId() + " is already in the model.");
+
+        row.setOrdinal(entryRows.size());
+        entryRows.add(row);
+        nextRowId = Math.max(nextRowId, row.getId() + 1);
+    }
+
+    /**
+     * Creates a new row numbered by this model and adds it to the model.
+     *
+     * @param day       index of the day
+     * @param config    model configuration
+     * @return          the new row
+     */
+    public EntryRow newEntryRow(int day, Configuration config) {
+        EntryRow row = new EntryRow(nextRowId, day, config);
+        addEntryRow(row);
+        return row;
+    }
+
+    public void addTeacher(Teacher teacher) {
+        requireNonNull(teacher, "teacher").setOrdinal(teachers.size());
+        teachers.add(teacher);
+    }
+
+    public void addStudent(Student student) {
+        requireNonNull(student, "student").setOrdinal(students.size());
+        students.add(student);
+    }
+
+    @Override
+    public void addVariable(Slot slot) {
+        requireNonNull(slot, "slot").setOrdinal(slotCount++);
+        super.addVariable(slot);
+    }
+
+    @Override
+    public void addCriterion(Criterion<Slot, Ticket> criterion) {
+        super.addCriterion(criterion);
+        criteria = null;
     }
 
+    /**
+     * Returns the criteria of the model.
+     *
+     * The array is created when the criteria change and must not be modified.
+     *
+     * @return  criteria in the order of {@link #getCriteria()}
+     */
+    @SuppressWarnings("unchecked")
+    public Criterion<Slot, Ticket>[] getCriteriaArray() {
+        // the size check also catches criteria removed through the superclass
+        if ((criteria == null) || (criteria.length != getCriteria().size()))
+            criteria = getCriteria().toArray(new Criterion[0]);
+
+        return criteria;
+    }
+
+    public List<EntryRow> getEntryRows() { return Collections.unmodifiableList(entryRows); }
+    public List<Teacher>  getTeachers()  { return Collections.unmodifiableList(teachers);  }
+    public List<Student>  getStudents()  { return Collections.unmodifiableList(students);  }
+    public int            getSlotCount() { return slotCount; }
+
     @Override
     public SchModelContext createAssignmentContext(Assignment<Slot, Ticket> assignment) {
         SchModelContext context = new SchModelContext();
         entryRows.stream().forEach(context::addEntryRow);
+
+        // the assignment need not be empty, e.g. when a parallel solver
+        // creates a new thread from the best solution found so far; a value
+        // that is being assigned right now is replayed here and ignored later
+        assignment.assignedValues().forEach(value -> context.assigned(assignment, value));
         return context;
     }
 
     @Override
     public double getTotalValue(Assignment<Slot, Ticket> assignment) {
         //return getCriteria().stream().mapToDouble((c) -> c.getValue(assignment)).sum();
-        return getContext(assignment).getAgenda().blockSum();
+        return getContext(assignment).getAgenda().totalBlockCount();
     }
 
 }
@@ -5,6 +5,7 @@ import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.model.SchModel;
 import cz.muni.fi.scheduler.model.context.SchModelContext;
 import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
@@ -20,37 +21,38 @@ public class DefenceTeacherOverlapConstraint extends GlobalConstraint<Slot, Tick
         return schModel.getContext(assignment);
     }
 
+    /**
+     * Collects tickets that collide with the teacher attending the reference row.
+     *
+     * Member slots of the teacher in other rows of the day are always
+     * conflicting; if {@code refslot} is given, so are the defences of the
+     * teacher's theses in other rows that overlap it.
+     */
     void getTeacherConflicts(Assignment<Slot, Ticket> assignment,
             Set<Ticket> conflicts,
             TimeSlot refslot, Teacher teacher, EntryRow reference) {
         final SchModelContext context = getContext(assignment);
 
-        context.entryRows(reference.getDay())
-                .filter(row -> !row.equals(reference))
-                .forEach(row -> {
-                    row.streamMemberSlots()
-                            .map(assignment::getValue)
-                            .filter(ticket -> (ticket != null) && ticket.getPerson().equals(teacher))
-                            .forEach(conflicts::add);
-
-                    if (refslot != null) {
-                        row.streamTimeSlots()
-                            .map(slot -> (TimeSlot) slot)
-                            .filter(slot -> slot.getRange().overlaps(refslot.getRange()))
-                            .map(assignment::getValue)
-                            .filter(ticket -> {
-                                if (ticket == null)
-                                    return false;
-
-                                Student student = (Student) ticket.getPerson();
-                                if (!student.hasThesis())
-                                    return false;
-
-                                return student.getThesis().getTeachers().contains(teacher);
-                            })
-                            .forEach(conflicts::add);
-                    }
-                });
+        for (MemberSlot slot : context.memberSlots(teacher, reference.getDay())) {
+            final EntryRow row = slot.getParent();
+
+            if (!row.equals(reference) && (slot != row.getChairmanSlot()))
+                addConflict(assignment, conflicts, slot);
+        }
+
+        if (refslot != null) {
+            context.forEachOverlappingDefence(teacher, refslot, slot -> {
+                if (!slot.getParent().equals(reference))
+                    addConflict(assignment, conflicts, slot);
+            });
+        }
+    }
+
+    private static void addConflict(Assignment<Slot, Ticket> assignment, Set<Ticket> conflicts, Slot slot) {
+        final Ticket ticket = assignment.getValue(slot);
+
+        if (ticket != null)
+            conflicts.add(ticket);
     }
 
     private void checkTimeSlot(Assignment<Slot, Ticket> assignment, Ticket value, Set<Ticket> conflicts) {
@@ -0,0 +1,171 @@
+package cz.muni.fi.scheduler.model.context;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.util.Arrays;
+
+/**
+ * Caches the changes of block counts computed by the {@link Agenda}.
+ *
+ * The result of an analysis of a slot depends only on the agenda of the
+ * teacher for the day of the slot. Every such teacher-day has a version that
+ * is increased by {@link #invalidate} whenever the agenda of the teacher
+ * changes on that day, and every cached result is stamped with the version
+ * it was computed for. Evaluating the same slot again for an unchanged day
+ * is a lookup.
+ *
+ * Results are indexed by teacher and slot ordinals, slots that are not part
+ * of a model are not cached.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class DeltaCache {
+    private static final int ASSIGN   = 0;
+    private static final int UNASSIGN = 1;
+
+    private final Agenda    agenda;
+
+    private int[][]         versions;
+    private TeacherCache[]  caches;
+
+    /**
+     * Cached results of a single teacher, two per slot ordinal. A stamp of
+     * a valid result is the version of its teacher-day plus one, so zero
+     * marks a result that has not been computed.
+     */
+    private static final class TeacherCache {
+        private int[] stamps = new int[0];
+        private int[] values = new int[0];
+
+        void ensure(int index) {
+            if (index < stamps.length)
+                return;
+
+            int size = Math.max(index + 1, 2 * stamps.length);
+            stamps = Arrays.copyOf(stamps, size);
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    public DeltaCache(Agenda agenda) {
+        this.agenda   = requireNonNull(agenda, "agenda");
+        this.versions = new int[0][];
+        this.caches   = new TeacherCache[0];
+    }
+
+    public Agenda getAgenda() { return agenda; }
+
+    /**
+     * Returns the version of the teacher's agenda on the given day.
+     *
+     * @param teacher   the teacher
+     * @param day       the day
+     * @return          number of changes of the day so far
+     */
+    public int version(Teacher teacher, int day) {
+        int ordinal = teacher.getOrdinal();
+
+        if ((ordinal < 0) || (ordinal >= versions.length) || (versions[ordinal] == null))
+            return 0;
+
+        int[] days = versions[ordinal];
+        return day < days.length ? days[day] : 0;
+    }
+
+    /**
+     * Discards cached results of the teacher for the given day.
+     *
+     * @param teacher   the teacher whose agenda has changed
+     * @param day       the day of the change
+     */
+    public void invalidate(Teacher teacher, int day) {
+        int ordinal = teacher.getOrdinal();
+
+        if (ordinal < 0)
+            throw new IllegalArgumentException("Teacher " + teacher.getId() + " is not interned.");
+
+        if (ordinal >= versions.length)
+            versions = Arrays.copyOf(versions, Math.max(ordinal + 1, 2 * versions.length));
+
+        if (versions[ordinal] == null)
+            versions[ordinal] = new int[day + 1];
+        else if (day >= versions[ordinal].length)
+            versions[ordinal] = Arrays.copyOf(versions[ordinal], Math.max(day + 1, 2 * versions[ordinal].length));
+
+        ++versions[ordinal][day];
+    }
+
+    private TeacherCache cacheOf(Teacher teacher) {
+        int ordinal = teacher.getOrdinal();
+
+        if (ordinal >= caches.length)
+            caches = Arrays.copyOf(caches, Math.max(ordinal + 1, 2 * caches.length));
+
+        if (caches[ordinal] == null)
+            caches[ordinal] = new TeacherCache();
+
+        return caches[ordinal];
+    }
+
+    private static int compute(Agenda agenda, int kind, Teacher teacher, Slot slot) {
+        if (slot instanceof TimeSlot) {
+            return kind == ASSIGN
+                    ? agenda.analyzeTimeSlotAssign(teacher, (TimeSlot) slot)
+                    : agenda.analyzeTimeSlotUnassign(teacher, (TimeSlot) slot);
+        }
+
+        return kind == ASSIGN
+                ? agenda.analyzeMemberSlotAssign(teacher, (MemberSlot) slot)
+                : agenda.analyzeMemberSlotUnassign(teacher, (MemberSlot) slot);
+    }
+
+    private int lookup(int kind, Teacher teacher, Slot slot) {
+        if ((teacher.getOrdinal() < 0) || (slot.getOrdinal() < 0))
+            return compute(agenda, kind, teacher, slot);
+
+        TeacherCache cache = cacheOf(teacher);
+        int          index = 2 * slot.getOrdinal() + kind;
+        int          stamp = version(teacher, slot.getParent().getDay()) + 1;
+
+        cache.ensure(index);
+
+        if (cache.stamps[index] != stamp) {
+            cache.values[index] = compute(agenda, kind, teacher, slot);
+            cache.stamps[index] = stamp;
+        }
+
+        return cache.values[index];
+    }
+
+    /**
+     * Returns the change of the teacher's block count if the teacher were
+     * assigned to the slot, either as a commission member or as a supervisor
+     * or an opponent of a defence.
+     *
+     * @param teacher   the teacher
+     * @param slot      time slot or member slot
+     * @return          see {@link Agenda#analyzeTimeSlotAssign} and
+     *                  {@link Agenda#analyzeMemberSlotAssign}
+     */
+    public int assignDelta(Teacher teacher, Slot slot) {
+        return lookup(ASSIGN, teacher, slot);
+    }
+
+    /**
+     * Returns the change of the teacher's block count if the teacher were
+     * removed from the slot.
+     *
+     * @param teacher   the teacher
+     * @param slot      time slot or member slot
+     * @return          see {@link Agenda#analyzeTimeSlotUnassign} and
+     *                  {@link Agenda#analyzeMemberSlotUnassign}
+     */
+    public int unassignDelta(Teacher teacher, Slot slot) {
+        return lookup(UNASSIGN, teacher, slot);
+    }
+}
@@ -0,0 +1,105 @@
+package cz.muni.fi.scheduler.model.context;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+import org.cpsolver.ifs.util.ToolBox;
+
+/**
+ * Set of elements with dense keys that supports uniform random sampling.
+ *
+ * Elements are stored in an array, removal moves the last element into the
+ * freed position. Positions are indexed by the keys (ordinals of rows or
+ * slots), so adding, removing and sampling take constant time and do not
+ * allocate once the arrays are large enough.
+ *
+ * @param <T>   type of elements
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+final class RandomAccessSet<T> {
+    private final ToIntFunction<? super T> key;
+
+    private Object[] elements;
+    private int[]    positions;
+    private int      size;
+
+    RandomAccessSet(ToIntFunction<? super T> key) {
+        this.key       = key;
+        this.elements  = new Object[0];
+        this.positions = new int[0];
+        this.size      = 0;
+    }
+
+    private int keyOf(T element) {
+        int index = key.applyAsInt(element);
+
+        if (index < 0)
+            throw new IllegalArgumentException("Entity is not interned.");
+
+        return index;
+    }
+
+    private int position(int index) {
+        return index < positions.length ? positions[index] : -1;
+    }
+
+    /**
+     * Adds the element, replacing an element with the same key.
+     */
+    void add(T element) {
+        int index = keyOf(element);
+        int pos   = position(index);
+
+        if (pos >= 0) {
+            elements[pos] = element;
+            return;
+        }
+
+        if (index >= positions.length) {
+            int length = positions.length;
+
+            positions = Arrays.copyOf(positions, Math.max(index + 1, 2 * length));
+            Arrays.fill(positions, length, positions.length, -1);
+        }
+
+        if (size == elements.length)
+            elements = Arrays.copyOf(elements, Math.max(8, 2 * size));
+
+        elements[size]   = element;
+        positions[index] = size++;
+    }
+
+    /**
+     * Removes the element with the same key as the given one.
+     */
+    @SuppressWarnings("unchecked")
+    void remove(T element) {
+        int index = keyOf(element);
+        int pos   = position(index);
+
+        if (pos < 0)
+            return;
+
+        T last = (T) elements[--size];
+
+        // the last element takes the freed position, the order does not matter
+        elements[pos]          = last;
+        positions[keyOf(last)] = pos;
+        elements[size]         = null;
+        positions[index]       = -1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a uniformly chosen element.
+     *
+     * @return  random element, {@code null} if the set is empty
+     */
+    @SuppressWarnings("unchecked")
+    T random() {
+        return size == 0 ? null : (T) elements[ToolBox.random(size)];
+    }
+}
@@ -10,32 +10,157 @@ import cz.muni.fi.scheduler.model.domain.MemberSlot;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import org.cpsolver.ifs.assignment.Assignment;
 import org.cpsolver.ifs.assignment.context.AssignmentConstraintContext;
 
+/**
+ * Assignment dependent data of {@link cz.muni.fi.scheduler.model.SchModel}.
+ *
+ * People and days are used as indices into lists, so all people
+ * must be interned in the model.
+ *
+ * Slots of every teacher are also indexed by day: defence slots are kept
+ * ordered by their starting time, so overlapping defences can be found
+ * without scanning other rows of the day.
+ *
+ * Rows and assigned tickets are also kept in {@link RandomAccessSet}s, so
+ * that neighbourhoods can pick them at random in constant time.
+ *
+ * Changes of the {@link Agenda} invalidate the affected teacher-days of the
+ * {@link DeltaCache}, which caches evaluations of the block criterion, and
+ * changes of time slots invalidate their rows in the {@link SwapMoveCache}.
+ *
+ * The ticket of every slot is recorded, so notifying the context about
+ * a ticket it already knows has no effect. This happens when the context is
+ * created while a value is being assigned: the context replays the values
+ * of the assignment, which already contain the new value, and is then
+ * notified about the same value again.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
 public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket> {
-    private final Map<Student, Set<TimeSlot>>   stud2ts;
-    private final Map<Teacher, Set<TimeSlot>>   tchr2ts;
-    private final Map<Teacher, Set<MemberSlot>> tchr2ms;
-    private final Agenda                        agenda;
+    private final List<Set<TimeSlot>>   stud2ts;
+    private final List<Set<TimeSlot>>   tchr2ts;
+    private final List<Set<MemberSlot>> tchr2ms;
+    private final List<TeacherDays>     tchr2days;
+    private final Agenda                agenda;
+    private final DeltaCache            deltas;
+    private final SwapMoveCache         swaps;
 
-    private final Map<Integer, Set<EntryRow>>   day2erow;
+    private final List<Set<EntryRow>>   day2erow;
+    private final List<Ticket>          slot2tckt;
+
+    private final RandomAccessSet<EntryRow> rows;
+    private final RandomAccessSet<Ticket>   memberTickets;
+    private final RandomAccessSet<Ticket>   timeSlotTickets;
 
     public SchModelContext() {
-        agenda   = new Agenda();
-        stud2ts  = new HashMap<>();
-        tchr2ts  = new HashMap<>();
-        tchr2ms  = new HashMap<>();
-        day2erow = new HashMap<>();
+        agenda    = new Agenda();
+        deltas    = new DeltaCache(agenda);
+        swaps     = new SwapMoveCache(deltas);
+        stud2ts   = new ArrayList<>();
+        tchr2ts   = new ArrayList<>();
+        tchr2ms   = new ArrayList<>();
+        tchr2days = new ArrayList<>();
+        day2erow  = new ArrayList<>();
+        slot2tckt = new ArrayList<>();
+
+        rows            = new RandomAccessSet<>(EntryRow::getOrdinal);
+        memberTickets   = new RandomAccessSet<>(ticket -> ticket.variable().getOrdinal());
+        timeSlotTickets = new RandomAccessSet<>(ticket -> ticket.variable().getOrdinal());
+    }
+
+    private static <T> Set<T> lookup(List<Set<T>> table, int index) {
+        Set<T> set = (index >= 0) && (index < table.size()) ? table.get(index) : null;
+        return set == null ? Collections.emptySet() : set;
+    }
+
+    private static <T> Set<T> at(List<Set<T>> table, int index) {
+        if (index < 0)
+            throw new IllegalArgumentException("Entity is not interned.");
+
+        while (table.size() <= index)
+            table.add(null);
+
+        Set<T> set = table.get(index);
+
+        if (set == null) {
+            set = new HashSet<>();
+            table.set(index, set);
+        }
+
+        return set;
+    }
+
+    /**
+     * Records the ticket as the value of its slot.
+     *
+     * @return  {@code false} if the ticket has already been recorded
+     */
+    private boolean record(Ticket ticket) {
+        int index = ticket.variable().getOrdinal();
+
+        if (index < 0)
+            throw new IllegalArgumentException("Entity is not interned.");
+
+        while (slot2tckt.size() <= index)
+            slot2tckt.add(null);
+
+        if (ticket.equals(slot2tckt.get(index)))
+            return false;
+
+        slot2tckt.set(index, ticket);
+        return true;
+    }
+
+    /**
+     * Removes the ticket as the value of its slot.
+     *
+     * @return  {@code false} if the ticket is not the recorded value
+     */
+    private boolean forget(Ticket ticket) {
+        int index = ticket.variable().getOrdinal();
+
+        if ((index < 0) || (index >= slot2tckt.size()) || !ticket.equals(slot2tckt.get(index)))
+            return false;
+
+        slot2tckt.set(index, null);
+        return true;
+    }
+
+    private TeacherDays days(Teacher teacher) {
+        int index = teacher.getOrdinal();
+        return (index >= 0) && (index < tchr2days.size()) ? tchr2days.get(index) : null;
+    }
+
+    private TeacherDays daysFor(Teacher teacher) {
+        int index = teacher.getOrdinal();
+
+        if (index < 0)
+            throw new IllegalArgumentException("Entity is not interned.");
+
+        while (tchr2days.size() <= index)
+            tchr2days.add(null);
+
+        TeacherDays days = tchr2days.get(index);
+
+        if (days == null) {
+            days = new TeacherDays();
+            tchr2days.set(index, days);
+        }
+
+        return days;
     }
 
     public Stream<TimeSlot> studentSlots(Student student) {
-        return stud2ts.getOrDefault(student, new HashSet<>()).stream();
+        return lookup(stud2ts, student.getOrdinal()).stream();
     }
 
     public Stream<TimeSlot> studentSlots(Ticket ticket) {
@@ -43,7 +168,7 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
     }
 
     public Stream<TimeSlot> defenceSlots(Teacher teacher) {
-        return tchr2ts.getOrDefault(teacher, new HashSet<>()).stream();
+        return lookup(tchr2ts, teacher.getOrdinal()).stream();
     }
 
     public Stream<TimeSlot> defenceSlots(Ticket ticket) {
@@ -51,13 +176,57 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
     }
 
     public Stream<MemberSlot> memberSlots(Teacher teacher) {
-        return tchr2ms.getOrDefault(teacher, new HashSet<>()).stream();
+        return lookup(tchr2ms, teacher.getOrdinal()).stream();
     }
 
     public Stream<MemberSlot> memberSlots(Ticket ticket) {
         return memberSlots((Teacher) ticket.getPerson());
     }
 
+    /**
+     * Returns defence slots of the teacher on the given day.
+     *
+     * @param teacher   the teacher
+     * @param day       the day
+     * @return          defence slots ordered by their starting time
+     */
+    public Stream<TimeSlot> defenceSlots(Teacher teacher, int day) {
+        TeacherDays   days  = days(teacher);
+        TimeSlotIndex index = days == null ? null : days.defences(day);
+
+        return index == null ? Stream.empty() : index.asList().stream();
+    }
+
+    /**
+     * Performs the action for each defence slot of the teacher on the given day
+     * that overlaps the slot, including slots that only touch it.
+     *
+     * @param teacher   the teacher
+     * @param slot      the reference slot
+     * @param action    action to perform
+     */
+    public void forEachOverlappingDefence(Teacher teacher, TimeSlot slot, Consumer<? super TimeSlot> action) {
+        TeacherDays   days  = days(teacher);
+        TimeSlotIndex index = days == null ? null : days.defences(slot.getParent().getDay());
+
+        if (index != null)
+            index.forEachOverlapping(slot.getStart(), slot.getEnd(), action);
+    }
+
+    /**
+     * Returns member slots (including chairman slots) of the teacher on the given day.
+     *
+     * @param teacher   the teacher
+     * @param day       the day
+     * @return          unmodifiable set of slots
+     */
+    public Set<MemberSlot> memberSlots(Teacher teacher, int day) {
+        TeacherDays     days  = days(teacher);
+        Set<MemberSlot> slots = days == null ? null : days.members(day);
+
+        return slots == null ? Collections.emptySet() : Collections.unmodifiableSet(slots);
+    }
+
     public Stream<Slot> teacherSlots(Teacher teacher) {
         return Stream.concat(memberSlots(teacher), defenceSlots(teacher));
     }
@@ -69,18 +238,58 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
     public void addEntryRow(EntryRow row) {
         requireNonNull(row, "row");
 
-        day2erow.computeIfAbsent(row.getDay(), (r) -> new HashSet<>()).add(row);
+        at(day2erow, row.getDay()).add(row);
+        rows.add(row);
     }
 
     public Stream<EntryRow> entryRows() {
-        return day2erow.values().stream().flatMap(Set::stream);
+        return day2erow.stream().filter(rows -> rows != null).flatMap(Set::stream);
     }
 
     public Stream<EntryRow> entryRows(int day) {
-        return day2erow.getOrDefault(day, new HashSet<>()).stream();
+        return lookup(day2erow, day).stream();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Random Selection  ]">
+
+    /**
+     * Returns a uniformly chosen entry row.
+     *
+     * @return  random row, {@code null} if there are no rows
+     */
+    public EntryRow randomEntryRow() {
+        return rows.random();
+    }
+
+    /**
+     * Returns a uniformly chosen ticket assigned to a member slot. Chairman
+     * slots are not included, see {@link EntryRow#streamMemberSlots()}.
+     *
+     * @return  random ticket, {@code null} if no member slot is assigned
+     */
+    public Ticket randomMemberTicket() {
+        return memberTickets.random();
     }
 
-    public Agenda getAgenda() { return agenda; }
+    /**
+     * Returns a uniformly chosen ticket assigned to a time slot.
+     *
+     * @return  random ticket, {@code null} if no time slot is assigned
+     */
+    public Ticket randomTimeSlotTicket() {
+        return timeSlotTickets.random();
+    }
+
+    public int entryRowCount()       { return rows.size();            }
+    public int memberTicketCount()   { return memberTickets.size();   }
+    public int timeSlotTicketCount() { return timeSlotTickets.size(); }
+
+    //</editor-fold>
+
+    public Agenda     getAgenda()     { return agenda; }
+    public DeltaCache getDeltaCache() { return deltas; }
+
+    public SwapMoveCache getSwapMoveCache() { return swaps; }
 
     //<editor-fold defaultstate="collapsed" desc="[  AssignmentConstraintContext  ]">
 
@@ -88,14 +297,18 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
         final Student  student = (Student)  ticket.getPerson();
         final TimeSlot slot    = (TimeSlot) ticket.variable();
 
-        stud2ts.computeIfAbsent(student, (s) -> new HashSet<>()).add(slot);
+        at(stud2ts, student.getOrdinal()).add(slot);
+        timeSlotTickets.add(ticket);
+        swaps.invalidate(slot.getParent());
 
         if (!student.hasThesis())
             return;
 
         student.getThesis().getTeachers().stream().forEach((teacher) -> {
-            tchr2ts.computeIfAbsent(teacher, (t) -> new HashSet<>()).add(slot);
+            at(tchr2ts, teacher.getOrdinal()).add(slot);
+            daysFor(teacher).defencesFor(slot.getParent().getDay()).add(slot);
             agenda.markTimeSlot(teacher, slot);
+            deltas.invalidate(teacher, slot.getParent().getDay());
         });
     }
 
@@ -103,22 +316,31 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
         final Teacher    teacher = (Teacher)    ticket.getPerson();
         final MemberSlot slot    = (MemberSlot) ticket.variable();
 
-        tchr2ms.computeIfAbsent(teacher, (t) -> new HashSet<>()).add(slot);
+        at(tchr2ms, teacher.getOrdinal()).add(slot);
+
+        if (slot != slot.getParent().getChairmanSlot())
+            memberTickets.add(ticket);
+        daysFor(teacher).membersFor(slot.getParent().getDay()).add(slot);
         agenda.markMemberSlot(teacher, slot);
+        deltas.invalidate(teacher, slot.getParent().getDay());
     }
 
     private void unassignedTimeSlot(Ticket ticket) {
         final Student  student = (Student)  ticket.getPerson();
         final TimeSlot slot    = (TimeSlot) ticket.variable();
 
-        stud2ts.computeIfAbsent(student, (s) -> new HashSet<>()).remove(slot);
+        lookup(stud2ts, student.getOrdinal()).remove(slot);
+        timeSlotTickets.remove(ticket);
+        swaps.invalidate(slot.getParent());
 
         if (!student.hasThesis())
             return;
 
         student.getThesis().getTeachers().stream().forEach((teacher) -> {
-            tchr2ts.computeIfAbsent(teacher, (t) -> new HashSet<>()).remove(slot);
+            lookup(tchr2ts, teacher.getOrdinal()).remove(slot);
+            removeDefence(teacher, slot);
             agenda.unmarkTimeSlot(teacher, slot);
+            deltas.invalidate(teacher, slot.getParent().getDay());
         });
     }
 
@@ -126,12 +348,34 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
         final Teacher    teacher = (Teacher)    ticket.getPerson();
         final MemberSlot slot    = (MemberSlot) ticket.variable();
 
-        tchr2ms.computeIfAbsent(teacher, (t) -> new HashSet<>()).remove(slot);
+        lookup(tchr2ms, teacher.getOrdinal()).remove(slot);
+        memberTickets.remove(ticket);
+        removeMember(teacher, slot);
         agenda.unmarkMemberSlot(teacher, slot);
+        deltas.invalidate(teacher, slot.getParent().getDay());
+    }
+
+    private void removeDefence(Teacher teacher, TimeSlot slot) {
+        TeacherDays   days  = days(teacher);
+        TimeSlotIndex index = days == null ? null : days.defences(slot.getParent().getDay());
+
+        if (index != null)
+            index.remove(slot);
+    }
+
+    private void removeMember(Teacher teacher, MemberSlot slot) {
+        TeacherDays     days  = days(teacher);
+        Set<MemberSlot> slots = days == null ? null : days.members(slot.getParent().getDay());
+
+        if (slots != null)
+            slots.remove(slot);
     }
 
     @Override
     public void assigned(Assignment<Slot, Ticket> assignment, Ticket value) {
+        if (!record(value))
+            return;
+
         if (value.isTimeSlotTicket())
             assignedTimeSlot(value);
         else
@@ -140,6 +384,9 @@ public class SchModelContext implements AssignmentConstraintContext<Slot, Ticket
 
     @Override
     public void unassigned(Assignment<Slot, Ticket> assignment, Ticket value) {
+        if (!forget(value))
+            return;
+
         if (value.isTimeSlotTicket())
             unassignedTimeSlot(value);
         else
@@ -0,0 +1,170 @@
+package cz.muni.fi.scheduler.model.context;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import cz.muni.fi.scheduler.utils.Pair;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.cpsolver.ifs.assignment.Assignment;
+
+/**
+ * Caches the moves of defences within a row that are considered by
+ * {@link cz.muni.fi.scheduler.model.neighbourhood.TimeSlotSwapInCommission}.
+ *
+ * The moves of a row depend on the tickets of its time slots and on the
+ * agendas of the thesis teachers of those tickets on the day of the row.
+ * Every row has a version that is increased by {@link #invalidate} whenever
+ * one of its time slots changes, and the cached moves also remember the
+ * {@link DeltaCache} versions of the teachers they were computed for. The
+ * moves are computed again only if any of these versions differs.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class SwapMoveCache {
+    private final DeltaCache deltas;
+
+    private int[]            versions;
+    private RowMoves[]       moves;
+
+    /**
+     * Moves of a single row and the versions they are valid for.
+     */
+    private static final class RowMoves {
+        private final int                            version;
+        private final Teacher[]                      teachers;
+        private final int[]                          teacherVersions;
+        private final List<Pair<TimeSlot, TimeSlot>> moves;
+
+        RowMoves(int version, Teacher[] teachers, int[] teacherVersions, List<Pair<TimeSlot, TimeSlot>> moves) {
+            this.version         = version;
+            this.teachers        = teachers;
+            this.teacherVersions = teacherVersions;
+            this.moves           = moves;
+        }
+
+        boolean isValid(DeltaCache deltas, int version, int day) {
+            if (this.version != version)
+                return false;
+
+            for (int i = 0; i < teachers.length; ++i) {
+                if (deltas.version(teachers[i], day) != teacherVersions[i])
+                    return false;
+            }
+
+            return true;
+        }
+    }
+
+    public SwapMoveCache(DeltaCache deltas) {
+        this.deltas   = requireNonNull(deltas, "deltas");
+        this.versions = new int[0];
+        this.moves    = new RowMoves[0];
+    }
+
+    private int version(EntryRow row) {
+        int ordinal = row.getOrdinal();
+        return (ordinal >= 0) && (ordinal < versions.length) ? versions[ordinal] : 0;
+    }
+
+    /**
+     * Discards the moves of the row.
+     *
+     * @param row   the row whose time slot has changed
+     */
+    public void invalidate(EntryRow row) {
+        int ordinal = row.getOrdinal();
+
+        if (ordinal < 0)
+            throw new IllegalArgumentException("Row " + row.getId() + " is not interned.");
+
+        if (ordinal >= versions.length)
+            versions = Arrays.copyOf(versions, Math.max(ordinal + 1, 2 * versions.length));
+
+        ++versions[ordinal];
+    }
+
+    /**
+     * Returns the moves of assigned defences to later time slots of the
+     * same row that {@link cz.muni.fi.scheduler.model.neighbourhood.TimeSlotSwapInCommission}
+     * chooses from.
+     *
+     * A move is a candidate if assigning the thesis teachers to the target
+     * slot would add blocks in total, i.e. if the sum of their
+     * {@link DeltaCache#assignDelta} is positive. The deltas are computed
+     * while the teachers are still in the source slot, so they do not give
+     * the change of the block count caused by the move; the moves are not
+     * guaranteed to improve the solution, the solver decides whether to
+     * accept them.
+     *
+     * @param assignment    current assignment
+     * @param row           the row
+     * @return              unmodifiable list of pairs (source, target)
+     */
+    public List<Pair<TimeSlot, TimeSlot>> candidateMoves(Assignment<Slot, Ticket> assignment, EntryRow row) {
+        final int ordinal = row.getOrdinal();
+        final int version = version(row);
+        final int day     = row.getDay();
+
+        if (ordinal < 0)
+            return compute(assignment, row, version).moves;
+
+        if (ordinal >= moves.length)
+            moves = Arrays.copyOf(moves, Math.max(ordinal + 1, 2 * moves.length));
+
+        if ((moves[ordinal] == null) || !moves[ordinal].isValid(deltas, version, day))
+            moves[ordinal] = compute(assignment, row, version);
+
+        return moves[ordinal].moves;
+    }
+
+    private RowMoves compute(Assignment<Slot, Ticket> assignment, EntryRow row, int version) {
+        final List<TimeSlot>                 slots    = new ArrayList<>();
+        final List<Teacher>                  teachers = new ArrayList<>();
+        final List<Pair<TimeSlot, TimeSlot>> result   = new ArrayList<>();
+
+        row.streamTimeSlots().forEach(slots::add);
+
+        for (TimeSlot slot : slots) {
+            final Ticket ticket = assignment.getValue(slot);
+
+            if (ticket == null)
+                continue;
+
+            Student student = (Student) ticket.getPerson();
+            if (!student.hasThesis())
+                continue;
+
+            List<Teacher> thesis = student.getThesis().getTeachers();
+            teachers.addAll(thesis);
+
+            for (TimeSlot refslot : slots) {
+                if (refslot.compareTo(slot) <= 0)
+                    continue;
+
+                int expected = 0;
+                for (int i = 0; i < thesis.size(); ++i)
+                    expected += deltas.assignDelta(thesis.get(i), refslot);
+
+                // the same filter as the uncached neighbourhood used
+                if (expected > 0)
+                    result.add(Pair.of(slot, refslot));
+            }
+        }
+
+        Teacher[] relevant = teachers.toArray(new Teacher[teachers.size()]);
+        int[]     stamps   = new int[relevant.length];
+
+        for (int i = 0; i < relevant.length; ++i)
+            stamps[i] = deltas.version(relevant[i], row.getDay());
+
+        return new RowMoves(version, relevant, stamps, Collections.unmodifiableList(result));
+    }
+}
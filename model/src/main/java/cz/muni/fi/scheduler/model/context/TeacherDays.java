@@ -0,0 +1,48 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Assigned slots of a single teacher, indexed by day.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+final class TeacherDays {
+    private TimeSlotIndex[]   defences;
+    private Set<MemberSlot>[] members;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TeacherDays() {
+        defences = new TimeSlotIndex[0];
+        members  = new Set[0];
+    }
+
+    private void ensureDay(int day) {
+        if (day < defences.length)
+            return;
+
+        int size = Math.max(day + 1, 2 * defences.length);
+        defences = Arrays.copyOf(defences, size);
+        members  = Arrays.copyOf(members,  size);
+    }
+
+    TimeSlotIndex   defences(int day) { return day < defences.length ? defences[day] : null; }
+    Set<MemberSlot> members(int day)  { return day < members.length  ? members[day]  : null; }
+
+    TimeSlotIndex defencesFor(int day) {
+        ensureDay(day);
+        if (defences[day] == null)
+            defences[day] = new TimeSlotIndex();
+        return defences[day];
+    }
+
+    Set<MemberSlot> membersFor(int day) {
+        ensureDay(day);
+        if (members[day] == null)
+            members[day] = new HashSet<>();
+        return members[day];
+    }
+}
@@ -0,0 +1,92 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import cz.muni.fi.scheduler.model.domain.TimeSlotComparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Time slots of a single day ordered by their starting time.
+ *
+ * The index keeps the length of the longest slot it has seen, so all slots
+ * overlapping a given interval start within a bounded window that is found
+ * by binary search. Overlap queries therefore take logarithmic time plus
+ * the number of slots in the window.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+final class TimeSlotIndex {
+    private final List<TimeSlot> slots;
+    private int                  maxLength;
+
+    TimeSlotIndex() {
+        slots     = new ArrayList<>();
+        maxLength = 0;
+    }
+
+    /**
+     * Returns the position of the first slot that starts at or after the given minute.
+     */
+    private int lowerBound(int start) {
+        int lo = 0;
+        int hi = slots.size();
+
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+
+            if (slots.get(mid).getStart() < start)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+
+        return lo;
+    }
+
+    boolean add(TimeSlot slot) {
+        int pos = Collections.binarySearch(slots, slot, TimeSlotComparator.INSTANCE);
+
+        if (pos >= 0)
+            return false;
+
+        slots.add(-pos - 1, slot);
+        maxLength = Math.max(maxLength, slot.getLength());
+        return true;
+    }
+
+    boolean remove(TimeSlot slot) {
+        int pos = Collections.binarySearch(slots, slot, TimeSlotComparator.INSTANCE);
+
+        if (pos < 0)
+            return false;
+
+        slots.remove(pos);
+        return true;
+    }
+
+    /**
+     * Performs the action for each slot that overlaps the closed interval
+     * {@code [from, to]}, in the same sense as
+     * {@link cz.muni.fi.scheduler.utils.Range#overlaps}.
+     *
+     * @param from      start of the interval
+     * @param to        end of the interval
+     * @param action    action to perform
+     */
+    void forEachOverlapping(int from, int to, Consumer<? super TimeSlot> action) {
+        for (int i = lowerBound(from - maxLength); i < slots.size(); ++i) {
+            TimeSlot slot = slots.get(i);
+
+            if (slot.getStart() > to)
+                break;
+
+            if (slot.getEnd() >= from)
+                action.accept(slot);
+        }
+    }
+
+    List<TimeSlot> asList() { return Collections.unmodifiableList(slots); }
+    boolean        isEmpty() { return slots.isEmpty(); }
+}
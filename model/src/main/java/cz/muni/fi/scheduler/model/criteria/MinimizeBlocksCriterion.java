@@ -1,14 +1,19 @@
 package cz.muni.fi.scheduler.model.criteria;
 
+import cz.muni.fi.scheduler.data.Person;
 import cz.muni.fi.scheduler.data.Student;
 import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.data.Thesis;
 import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.context.DeltaCache;
 import cz.muni.fi.scheduler.model.domain.MemberSlot;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
 import cz.muni.fi.scheduler.utils.Pair;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import org.apache.log4j.Logger;
 import org.cpsolver.ifs.assignment.Assignment;
@@ -19,6 +24,10 @@ import org.cpsolver.ifs.assignment.Assignment;
  * The goal of this criterion is to minimize the number of blocks
  * each teacher must come to.
  *
+ * Changes of block counts are looked up in the {@link DeltaCache} of the
+ * assignment, so evaluating values of a slot whose teachers' days have not
+ * changed since the last evaluation does not analyze the agenda again.
+ *
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
 public class MinimizeBlocksCriterion extends BlockCriterion {
@@ -37,23 +46,30 @@ public class MinimizeBlocksCriterion extends BlockCriterion {
         wf = weightFunctions[0];
     }
 
-    public double getCommissaryAssignValue(Agenda agenda,
+    public double getCommissaryAssignValue(DeltaCache deltas,
             Assignment<Slot, Ticket> assignment, MemberSlot slot, Teacher commissary) {
-        return agenda.analyzeMemberSlotAssign(commissary, slot);
+        return deltas.assignDelta(commissary, slot);
     }
 
-    public double getDefenceAssignValue(Agenda agenda, Assignment<Slot, Ticket> assignment,
+    public double getDefenceAssignValue(DeltaCache deltas, Assignment<Slot, Ticket> assignment,
             TimeSlot slot, Student student) {
         if (!student.hasThesis())
             return 0.0;
 
-        return student.getThesis().getTeachers().stream()
-            .mapToDouble(teacher ->
-                wf.value(agenda.blockCount(teacher), agenda.analyzeTimeSlotAssign(teacher, slot))
-            ).sum();
+        final Agenda        agenda   = deltas.getAgenda();
+        final List<Teacher> teachers = student.getThesis().getTeachers();
+        double              value    = 0.0;
+
+        // indexed loop, this is evaluated for every value the solver considers
+        for (int i = 0; i < teachers.size(); ++i) {
+            Teacher teacher = teachers.get(i);
+            value += wf.value(agenda.blockCount(teacher), deltas.assignDelta(teacher, slot));
+        }
+
+        return value;
     }
 
-    public double evalConflicts(Agenda agenda, Assignment<Slot, Ticket> assignment, Set<Ticket> conflicts) {
+    public double evalConflicts(DeltaCache deltas, Assignment<Slot, Ticket> assignment, Set<Ticket> conflicts) {
         double p = 0.0;
 
         for (Ticket ticket : conflicts) {
@@ -63,29 +79,109 @@ public class MinimizeBlocksCriterion extends BlockCriterion {
                 if (!student.hasThesis())
                     continue;
 
-                p += student.getThesis().getTeachers().stream()
-                    .mapToDouble(teacher -> agenda.analyzeTimeSlotUnassign(teacher, (TimeSlot) ticket.variable()))
-                    .sum();
+                for (Teacher teacher : student.getThesis().getTeachers())
+                    p += deltas.unassignDelta(teacher, ticket.variable());
             } else {
                 Teacher teacher = (Teacher) ticket.getPerson();
-                p += agenda.analyzeMemberSlotUnassign(teacher, (MemberSlot) ticket.variable());
+                p += deltas.unassignDelta(teacher, ticket.variable());
             }
         }
 
         return p;
     }
 
+    private static List<Teacher> thesisTeachers(Ticket ticket) {
+        Student student = (Student) ticket.getPerson();
+        return student.hasThesis() ? student.getThesis().getTeachers() : Collections.emptyList();
+    }
+
+    /**
+     * Returns the value of replacing the current ticket of a slot with
+     * another ticket of the same slot, computed from the current state
+     * without modifying the assignment.
+     *
+     * This is the sum of the block changes of teachers who lose the slot
+     * and of teachers who get it (see {@link Agenda#analyzeTimeSlotReplace}
+     * and {@link Agenda#analyzeMemberSlotReplace}); teachers that keep the
+     * slot do not contribute.
+     *
+     * @param assignment    current assignment
+     * @param current       ticket assigned to the slot
+     * @param value         ticket that would replace it
+     * @return              change of the criterion
+     */
+    public double getReplaceValue(Assignment<Slot, Ticket> assignment, Ticket current, Ticket value) {
+        if (current.variable() != value.variable())
+            throw new IllegalArgumentException("Both tickets must belong to the same slot.");
+
+        final DeltaCache deltas = model.getContext(assignment).getDeltaCache();
+        final Slot       slot   = value.variable();
+
+        if (!value.isTimeSlotTicket()) {
+            Teacher before = (Teacher) current.getPerson();
+            Teacher after  = (Teacher) value.getPerson();
+
+            return before.sameAs(after) ? 0.0 : deltas.unassignDelta(before, slot) + deltas.assignDelta(after, slot);
+        }
+
+        final Agenda        agenda = deltas.getAgenda();
+        final List<Teacher> before = thesisTeachers(current);
+        final List<Teacher> after  = thesisTeachers(value);
+        double              vdiff  = 0.0;
+
+        for (int i = 0; i < before.size(); ++i) {
+            if (!Person.containsSame(after, before.get(i)))
+                vdiff += deltas.unassignDelta(before.get(i), slot);
+        }
+
+        for (int i = 0; i < after.size(); ++i) {
+            Teacher teacher = after.get(i);
+
+            if (!Person.containsSame(before, teacher))
+                vdiff += wf.value(agenda.blockCount(teacher), deltas.assignDelta(teacher, slot));
+        }
+
+        return vdiff;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A conflict in the slot of the value is evaluated as a replacement,
+     * see {@link #getReplaceValue}.
+     */
     @Override
     public double getValue(Assignment<Slot, Ticket> assignment, Ticket value, Set<Ticket> conflicts) {
-        BlockContext context = (BlockContext) getContext(assignment);
-        Agenda       agenda  = context.agenda(assignment);
+        // the cache is taken from the model directly, since this method is also
+        // called while the criterion context is being created (see BlockContext)
+        DeltaCache deltas   = model.getContext(assignment).getDeltaCache();
+        Ticket     replaced = null;
+
+        if (conflicts != null) {
+            for (Ticket conflict : conflicts) {
+                if (conflict.variable() == value.variable())
+                    replaced = conflict;
+            }
+        }
+
+        if (replaced != null) {
+            double vdiff = getReplaceValue(assignment, replaced, value);
+
+            if (conflicts.size() > 1) {
+                Set<Ticket> others = new HashSet<>(conflicts);
+                others.remove(replaced);
+                vdiff += evalConflicts(deltas, assignment, others);
+            }
+
+            return vdiff;
+        }
 
         double vdiff = value.isTimeSlotTicket()
-                ? getDefenceAssignValue(agenda, assignment, (TimeSlot) value.variable(), (Student) value.getPerson())
-                : getCommissaryAssignValue(agenda, assignment, (MemberSlot) value.variable(), (Teacher) value.getPerson());
+                ? getDefenceAssignValue(deltas, assignment, (TimeSlot) value.variable(), (Student) value.getPerson())
+                : getCommissaryAssignValue(deltas, assignment, (MemberSlot) value.variable(), (Teacher) value.getPerson());
 
         if (conflicts != null && !conflicts.isEmpty())
-            vdiff += evalConflicts(agenda, assignment, conflicts);
+            vdiff += evalConflicts(deltas, assignment, conflicts);
 
         return vdiff;
     }
@@ -0,0 +1,130 @@
+package cz.muni.fi.scheduler.model.domain;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Person;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list of people that may be assigned to a {@link Slot}.
+ *
+ * Slots with the same candidates can share a single domain. The slot does
+ * not store a {@link Ticket} for every person upfront; tickets are created
+ * on the first access, see {@link Slot#setDomain(Domain)}.
+ *
+ * Positions of interned people are indexed by their ordinals, so that
+ * {@link #indexOf(Person)} does not scan the domain. The index is built on
+ * the first lookup, since people may be interned after the domain is
+ * created.
+ *
+ * @param <P>   type of people in the domain
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class Domain<P extends Person> {
+    private final Object[] people;
+    private volatile int[] positions;
+
+    public Domain(Collection<? extends P> people) {
+        this.people = requireNonNull(people, "people").toArray();
+
+        for (Object person : this.people) {
+            requireNonNull(person, "person");
+        }
+    }
+
+    public int size() {
+        return people.length;
+    }
+
+    public boolean isEmpty() {
+        return people.length == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public P get(int index) {
+        return (P) people[index];
+    }
+
+    /**
+     * Returns the position of the person in the domain.
+     *
+     * @param person    the person
+     * @return          index of the person, {@code -1} if the person is not
+     *                  in the domain
+     */
+    public int indexOf(Person person) {
+        if (person == null)
+            return -1;
+
+        int[] index = person.isInterned() ? positions : null;
+
+        if ((index == null) && person.isInterned())
+            index = positions = buildIndex();
+
+        if (index != null) {
+            int ordinal  = person.getOrdinal();
+            int position = ordinal < index.length ? index[ordinal] : -1;
+
+            // teachers and students are numbered independently, so compare the people too
+            return (position >= 0) && person.sameAs(get(position)) ? position : -1;
+        }
+
+        for (int i = 0; i < people.length; ++i) {
+            if (person.sameAs(get(i)))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Maps ordinals to positions, {@code null} if some person is not interned
+     * yet. Lookups fall back to a scan until the index can be built.
+     */
+    private int[] buildIndex() {
+        int max = -1;
+
+        for (Object person : people) {
+            int ordinal = ((Person) person).getOrdinal();
+
+            if (ordinal < 0)
+                return null;
+
+            max = Math.max(max, ordinal);
+        }
+
+        int[] index = new int[max + 1];
+        Arrays.fill(index, -1);
+
+        for (int i = 0; i < people.length; ++i)
+            index[((Person) people[i]).getOrdinal()] = i;
+
+        return index;
+    }
+
+    /**
+     * Returns the people as a list.
+     *
+     * @return  unmodifiable view of the domain
+     */
+    public List<P> asList() {
+        return new View();
+    }
+
+    private final class View extends AbstractList<P> implements RandomAccess {
+        @Override
+        public P get(int index) {
+            return Domain.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return people.length;
+        }
+    }
+}
@@ -20,12 +20,17 @@ import org.cpsolver.ifs.assignment.Assignment;
 /**
  * Represents a single commission and its exams on a specific day.
  *
+ * Row identifiers break ties when ordering time slots (see
+ * {@link TimeSlotComparator}), so they must be unique within a model.
+ * Rows are numbered by the model that creates them, see
+ * {@link cz.muni.fi.scheduler.model.SchModel#newEntryRow}, which keeps
+ * models built at the same time independent of each other.
+ *
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
 public class EntryRow {
-    private static long ID_SEQ = 0L;
-
-    private final long id = ID_SEQ++;
+    private final long id;
+    private       int  ordinal = -1;
 
     private final Configuration    config;
 
@@ -35,7 +40,15 @@ public class EntryRow {
     private final List<TimeSlot>   timeslots;
     private       Block            rowblock;
 
-    public EntryRow(int day, Configuration config) {
+    /**
+     * Creates a row with the given identifier.
+     *
+     * @param id        row identifier, unique within the model
+     * @param day       index of the day
+     * @param config    model configuration
+     */
+    public EntryRow(long id, int day, Configuration config) {
+        this.id     = id;
         this.config = requireNonNull(config,  "config");
         this.day    = requireNonNegative(day, "day");
 
@@ -49,12 +62,22 @@ public class EntryRow {
         rowblock  = new Block(timeslots.get(0), true);
     }
 
-    public long  getId()    { return id;  }
+    public long  getId()      { return id;      }
+    public int   getOrdinal() { return ordinal; }
     public int   getDay()   { return day; }
     public int   getStart() { return timeslots.get(0).getStart();                  }
     public int   getEnd()   { return timeslots.get(timeslots.size() - 1).getEnd(); }
     public Block asBlock()  { return rowblock; }
 
+    /**
+     * Assigns a dense index to the row, see {@link cz.muni.fi.scheduler.model.SchModel#addEntryRow}.
+     *
+     * @param ordinal   non-negative index
+     */
+    public void setOrdinal(int ordinal) {
+        this.ordinal = requireNonNegative(ordinal, "ordinal");
+    }
+
     public TimeSlot     getSlot(int index) {
         return timeslots.get(index);
     }
@@ -18,4 +18,8 @@ public class MemberSlot extends Slot {
         setDomain(members);
     }
 
+    public void setCommissaries(Domain<Teacher> members) {
+        setDomain(members);
+    }
+
 }
@@ -3,7 +3,6 @@ package cz.muni.fi.scheduler.model.domain;
 import cz.muni.fi.scheduler.data.Person;
 import cz.muni.fi.scheduler.extensions.ValueCheck;
 import java.util.Collection;
-import java.util.stream.Collectors;
 import org.cpsolver.ifs.model.Variable;
 
 /**
@@ -12,15 +11,68 @@ import org.cpsolver.ifs.model.Variable;
  * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
  */
 public abstract class Slot extends Variable<Slot, Ticket> {
-    private final EntryRow  parent;
+    private final EntryRow                  parent;
+    private       int                       ordinal;
+    private       Domain<? extends Person>  domain;
+    private       TicketList                tickets;
 
     protected Slot(EntryRow parent) {
-        this.parent = ValueCheck.requireNonNull(parent,  "parent");
+        this.parent  = ValueCheck.requireNonNull(parent,  "parent");
+        this.ordinal = -1;
     }
 
-    public EntryRow getParent() { return parent; }
+    public EntryRow getParent()  { return parent;  }
+    public int      getOrdinal() { return ordinal; }
+
+    /**
+     * Assigns a dense index to the slot, see {@link cz.muni.fi.scheduler.model.SchModel#addVariable}.
+     *
+     * @param ordinal   non-negative index
+     */
+    public void setOrdinal(int ordinal) {
+        this.ordinal = ValueCheck.requireNonNegative(ordinal, "ordinal");
+    }
 
     protected void setDomain(Collection<? extends Person> people) {
-        setValues(people.stream().map(p -> new Ticket(this, p)).collect(Collectors.toList()));
+        setDomain(new Domain<>(people));
+    }
+
+    /**
+     * Sets the people that may be assigned to the slot.
+     *
+     * The domain may be shared with other slots. The tickets of the slot are
+     * created right away, so the method should be called while the model is
+     * being built and not from solver threads.
+     *
+     * @param domain    domain of the slot
+     */
+    protected void setDomain(Domain<? extends Person> domain) {
+        this.domain  = ValueCheck.requireNonNull(domain, "domain");
+        this.tickets = new TicketList(this, domain);
+        setValues(tickets);
+    }
+
+    /**
+     * Returns the domain of the slot.
+     *
+     * @return  domain, {@code null} if none has been set
+     */
+    public Domain<? extends Person> getDomain() {
+        return domain;
+    }
+
+    /**
+     * Returns the ticket of the person for this slot.
+     *
+     * The ticket is found through the ordinal index of the domain, see
+     * {@link Domain#indexOf(Person)}.
+     *
+     * @param person    the person
+     * @return          the ticket, {@code null} if the person is not in the
+     *                  domain or no domain has been set
+     */
+    public Ticket getTicket(Person person) {
+        int index = domain == null ? -1 : domain.indexOf(person);
+        return index < 0 ? null : tickets.get(index);
     }
 }
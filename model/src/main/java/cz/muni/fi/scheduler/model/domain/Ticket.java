@@ -4,7 +4,9 @@ import cz.muni.fi.scheduler.data.Person;
 import cz.muni.fi.scheduler.data.Student;
 import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.extensions.ValueCheck;
+import cz.muni.fi.scheduler.model.SchModel;
 import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.criteria.Criterion;
 import org.cpsolver.ifs.model.Value;
 
 /**
@@ -46,6 +48,16 @@ public class Ticket extends Value<Slot, Ticket> {
         return 41 * person.hashCode();
     }
 
+    /**
+     * Tickets are equal if they have the same slot and their persons are
+     * {@linkplain Person#sameAs the same}.
+     *
+     * Within a model every person is interned exactly once and its ordinal
+     * cannot change (see {@link Person#setOrdinal}), so equal ordinals mean
+     * the same, and therefore equal, person. Persons from different models
+     * may share ordinals, the hash codes are compared first so that equal
+     * tickets always have equal hash codes.
+     */
     @Override
     public boolean equals(Object obj) {
         if (obj == this)
@@ -56,7 +68,7 @@ public class Ticket extends Value<Slot, Ticket> {
 
         final Ticket other = (Ticket) obj;
 
-        return variable().equals(other.variable()) && person.equals(other.person);
+        return (variable() == other.variable()) && person.sameAs(other.person);
     }
 
     @Override
@@ -67,11 +79,21 @@ public class Ticket extends Value<Slot, Ticket> {
 
     //</editor-fold>
 
+    /**
+     * Returns the weighted sum of the criteria for assigning this ticket.
+     *
+     * Neighbourhoods call this for every evaluated neighbour, so the loop
+     * does not allocate anything.
+     *
+     * @param assignment    current assignment
+     * @return              value of the ticket
+     */
     @Override
     public double toDouble(Assignment<Slot, Ticket> assignment) {
-        double value = variable().getModel().getCriteria().stream()
-                .map((criterion) -> criterion.getWeightedValue(assignment, this, null))
-                .reduce(0.0, (accumulator, item) -> accumulator + item);
+        double value = 0.0;
+
+        for (Criterion<Slot, Ticket> criterion : ((SchModel) variable().getModel()).getCriteriaArray())
+            value += criterion.getWeightedValue(assignment, this, null);
 
         return value;
     }
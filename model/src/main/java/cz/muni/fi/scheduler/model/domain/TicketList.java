@@ -0,0 +1,59 @@
+package cz.muni.fi.scheduler.model.domain;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Values of a slot backed by a shared {@link Domain}.
+ *
+ * All tickets are created with the list, on the thread that sets the domain
+ * of the slot. cpsolver numbers values from a shared counter, so creating
+ * them in the order of the domain keeps the ids the same in every run.
+ * The list never changes afterwards and may be read by several solver
+ * threads at once.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+class TicketList extends AbstractList<Ticket> implements RandomAccess {
+    private final Slot          slot;
+    private final Domain<?>     domain;
+    private final Ticket[]      tickets;
+
+    TicketList(Slot slot, Domain<?> domain) {
+        this.slot    = slot;
+        this.domain  = domain;
+        this.tickets = new Ticket[domain.size()];
+
+        for (int i = 0; i < tickets.length; ++i) {
+            tickets[i] = new Ticket(slot, domain.get(i));
+        }
+    }
+
+    @Override
+    public Ticket get(int index) {
+        return tickets[index];
+    }
+
+    @Override
+    public int size() {
+        return domain.size();
+    }
+
+    @Override
+    public int indexOf(Object obj) {
+        if (!(obj instanceof Ticket) || (((Ticket) obj).variable() != slot))
+            return -1;
+
+        return domain.indexOf(((Ticket) obj).getPerson());
+    }
+
+    @Override
+    public int lastIndexOf(Object obj) {
+        return indexOf(obj);
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        return indexOf(obj) >= 0;
+    }
+}
@@ -37,6 +37,10 @@ public class TimeSlot extends Slot {
         setDomain(students);
     }
 
+    public void setStudents(Domain<Student> students) {
+        setDomain(students);
+    }
+
     //<editor-fold defaultstate="collapsed" desc="[  Comparable  ]">
 
     @Override
@@ -4,18 +4,15 @@ import cz.muni.fi.scheduler.data.Person;
 import cz.muni.fi.scheduler.data.Teacher;
 import static cz.muni.fi.scheduler.extensions.ValueCheck.requireNonNull;
 import cz.muni.fi.scheduler.model.Agenda;
-import cz.muni.fi.scheduler.model.Block;
 import cz.muni.fi.scheduler.model.SchModel;
 import cz.muni.fi.scheduler.model.context.SchModelContext;
-import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Domain;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 import org.apache.log4j.Logger;
 import org.cpsolver.ifs.assignment.Assignment;
@@ -27,8 +24,14 @@ import org.cpsolver.ifs.solver.Solver;
 import org.cpsolver.ifs.util.DataProperties;
 import org.cpsolver.ifs.util.ToolBox;
 
+/**
+ * Replaces a random commission member by a teacher who sits in the fewest
+ * commissions, i.e. has the fewest spanning blocks in the {@link Agenda}.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
 public class RandomCommissarySwap implements NeighbourSelection<Slot, Ticket> {
-    private static final Logger logger = Logger.getLogger("TimeSlotSwapInCommission");
+    private static final Logger logger = Logger.getLogger("RandomCommissarySwap");
 
     private Solver solver;
 
@@ -48,44 +51,49 @@ public class RandomCommissarySwap implements NeighbourSelection<Slot, Ticket> {
         final SchModelContext          context    = model.getContext(assignment);
         final Agenda                   agenda     = context.getAgenda();
 
-        List<Ticket> tickets = context.entryRows()
-                .flatMap(EntryRow::streamMemberSlots)
-                .map(assignment::getValue)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        Ticket oldTicket = context.randomMemberTicket();
 
-        if (tickets.isEmpty()) {
+        if (oldTicket == null) {
             logger.debug("no tickets to select from");
             return null;
         }
 
-        Ticket oldTicket = ToolBox.random(tickets);
-
-        Set<Person> tabu = oldTicket.variable().getParent().streamMemberSlots()
+        // people already in the commission, including the chairman
+        Set<Person> tabu = oldTicket.variable().getParent().streamCommissarySlots()
                 .map(assignment::getValue)
                 .filter(Objects::nonNull)
                 .map(Ticket::getPerson)
                 .collect(Collectors.toSet());
 
-        List<Ticket> candidates = oldTicket.variable().values(assignment).stream()
-                .filter(value -> !tabu.contains(value.getPerson()))
-                .collect(Collectors.toList());
-
-        SortedMap<Long, List<Ticket>> usages = new TreeMap<>();
-        candidates.stream()
-                .forEach(ticket -> {
-                    long count = agenda.getBlocks((Teacher) ticket.getPerson()).values().stream()
-                        .flatMap(List::stream)
-                        .filter(Block::isSpanning)
-                        .count();
-                    usages.getOrDefault(count, new ArrayList<>()).add(ticket);
-                });
-
-        Ticket candidate = usages.entrySet().stream()
-                .filter(kv -> !kv.getValue().isEmpty())
-                .map(kv -> ToolBox.random(kv.getValue()))
-                .findFirst()
-                .orElse(null);
+        // keep the bucket of candidates with the fewest spanning blocks, tickets
+        // are only created for the selected one (see Slot#getTicket)
+        final Domain<? extends Person> domain = oldTicket.variable().getDomain();
+        final List<Person>             bucket = new ArrayList<>();
+        int                            least  = Integer.MAX_VALUE;
+
+        for (int i = 0; i < domain.size(); ++i) {
+            Person person = domain.get(i);
+
+            if (tabu.contains(person))
+                continue;
+
+            int count = agenda.spanningBlockCount((Teacher) person);
+
+            if (count < least) {
+                bucket.clear();
+                least = count;
+            }
+
+            if (count == least)
+                bucket.add(person);
+        }
+
+        if (bucket.isEmpty()) {
+            logger.debug("failed to select a candidate");
+            return null;
+        }
+
+        Ticket candidate = oldTicket.variable().getTicket(ToolBox.random(bucket));
 
         if (candidate == null) {
             logger.debug("failed to select a candidate");
@@ -1,11 +1,15 @@
 package cz.muni.fi.scheduler.model.neighbourhood;
 
 import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+import cz.muni.fi.scheduler.model.SchModel;
 import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.criteria.Criterion;
 import org.cpsolver.ifs.model.Neighbour;
 
 public class SlotAssignNeighbour implements Neighbour<Slot, Ticket> {
@@ -20,17 +24,27 @@ public class SlotAssignNeighbour implements Neighbour<Slot, Ticket> {
         assignment.assign(iteration, ticket);
     }
 
+    /**
+     * Evaluates the move without performing it. The current ticket of the
+     * slot is passed to the criteria as the only conflict, so that they
+     * evaluate the replacement (see
+     * {@link cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion#getReplaceValue}).
+     */
     @Override
     public double value(Assignment<Slot, Ticket> assignment) {
         Ticket current = assignment.getValue(ticket.variable());
 
-        double val = ticket.toDouble(assignment);
+        if (current == null)
+            return ticket.toDouble(assignment);
 
-        if (current != null) {
-            assignment.unassign(0, ticket.variable());
-            val -= current.toDouble(assignment);
-            assignment.assign(0, current);
-        }
+        if (current.equals(ticket))
+            return 0.0;
+
+        Set<Ticket> replaced = Collections.singleton(current);
+        double      val      = 0.0;
+
+        for (Criterion<Slot, Ticket> criterion : ((SchModel) ticket.variable().getModel()).getCriteriaArray())
+            val += criterion.getWeightedValue(assignment, ticket, replaced);
 
         return val;
     }
@@ -46,8 +46,12 @@ public class TimeSlotSwapBetweenCommissions implements NeighbourSelection<Slot,
         final SchModelContext          context    = model.getContext(assignment);
         final Agenda                   agenda     = context.getAgenda();
 
-        List<EntryRow> rows = context.entryRows().collect(Collectors.toList());
-        EntryRow row = ToolBox.random(rows);
+        EntryRow row = context.randomEntryRow();
+
+        if (row == null) {
+            logger.debug("no row to select from");
+            return null;
+        }
 
         // commissaries in the commission
         List<Teacher> collect = row.streamCommissarySlots()
@@ -97,7 +101,15 @@ public class TimeSlotSwapBetweenCommissions implements NeighbourSelection<Slot,
                     .findFirst()
                     .get();
 
-            return new SimpleNeighbour<>(targetslot, oldt);
+            // oldt belongs to the original slot, move the student with the ticket of the target
+            Ticket moved = targetslot.getTicket(oldt.getPerson());
+
+            if (moved == null) {
+                logger.debug("student cannot be moved to slot " + targetslot.getId());
+                return null;
+            }
+
+            return new SimpleNeighbour<>(targetslot, moved);
         }
 
         targetslot = ToolBox.random(targetrow.streamTimeSlots().collect(Collectors.toList()));
@@ -1,8 +1,6 @@
 package cz.muni.fi.scheduler.model.neighbourhood;
 
-import cz.muni.fi.scheduler.data.Student;
 import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
-import cz.muni.fi.scheduler.model.Agenda;
 import cz.muni.fi.scheduler.model.SchModel;
 import cz.muni.fi.scheduler.model.context.SchModelContext;
 import cz.muni.fi.scheduler.model.domain.EntryRow;
@@ -10,9 +8,7 @@ import cz.muni.fi.scheduler.model.domain.Slot;
 import cz.muni.fi.scheduler.model.domain.Ticket;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
 import cz.muni.fi.scheduler.utils.Pair;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 import org.apache.log4j.Logger;
 import org.cpsolver.ifs.assignment.Assignment;
 import org.cpsolver.ifs.heuristics.NeighbourSelection;
@@ -26,8 +22,9 @@ import org.cpsolver.ifs.util.ToolBox;
 /**
  * Experimental local change that swaps defenses in a single commission.
  *
- * The algorithm tries to swap a random teacher in a way that decreases the number
- * of blocks for the given teacher.
+ * The algorithm picks a random row and moves one of its defences to a later
+ * time slot of the row, see {@link cz.muni.fi.scheduler.model.context.SwapMoveCache#candidateMoves}
+ * for the moves that are considered.
  *
  */
 public class TimeSlotSwapInCommission implements NeighbourSelection<Slot, Ticket> {
@@ -50,40 +47,16 @@ public class TimeSlotSwapInCommission implements NeighbourSelection<Slot, Ticket
         final SchModel                 model      = (SchModel) solution.getModel();
         final Assignment<Slot, Ticket> assignment = solution.getAssignment();
         final SchModelContext          context    = model.getContext(assignment);
-        final Agenda                   agenda     = context.getAgenda();
 
-        List<EntryRow> collect = context.entryRows().collect(Collectors.toList());
-        EntryRow row = ToolBox.random(collect);
+        EntryRow row = context.randomEntryRow();
 
         if (row == null) {
-            logger.error("null EntryRow selected");
+            logger.error("no EntryRow to select from");
             return null;
         }
 
-        List<Pair<TimeSlot, TimeSlot>> validmoves = new ArrayList<>();
-
-        row.streamTimeSlots().forEach(slot -> {
-            final Ticket ticket = assignment.getValue(slot);
-
-            if (ticket == null)
-                return;
-
-            Student student = (Student) ticket.getPerson();
-            if (!student.hasThesis())
-                return;
-
-            row.streamTimeSlots()
-                    .filter(refslot -> refslot.compareTo(slot) > 0)
-                    .forEach(refslot -> {
-                        int expected = student.getThesis().getTeachers().stream()
-                                .mapToInt(t -> agenda.analyzeTimeSlotAssign(t, refslot))
-                                .sum();
-
-                        if (expected > 0) {
-                            validmoves.add(Pair.of(slot, refslot));
-                        }
-                    });
-        });
+        // recomputed only if the row or the agenda of its teachers has changed
+        List<Pair<TimeSlot, TimeSlot>> validmoves = context.getSwapMoveCache().candidateMoves(assignment, row);
 
         if (validmoves.isEmpty()) {
             logger.debug("no valid moves for row " + row.getId());
@@ -94,12 +67,18 @@ public class TimeSlotSwapInCommission implements NeighbourSelection<Slot, Ticket
         Ticket oldt = assignment.getValue(move.first());
         Ticket newt = assignment.getValue(move.second());
 
-        return newt == null
-                ? new SimpleNeighbour<>(
-                        move.second(),
-                        new Ticket(move.second(), oldt.getPerson())
-                  )
-                : new TimeSlotSwapNeighbour(oldt, newt);
+        if (newt != null)
+            return new TimeSlotSwapNeighbour(oldt, newt);
+
+        // the ticket of the slot, a new instance would not be in its domain
+        Ticket moved = move.second().getTicket(oldt.getPerson());
+
+        if (moved == null) {
+            logger.debug("student cannot be moved to slot " + move.second().getId());
+            return null;
+        }
+
+        return new SimpleNeighbour<>(move.second(), moved);
     }
 
 }
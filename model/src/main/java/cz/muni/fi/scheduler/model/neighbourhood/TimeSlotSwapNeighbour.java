@@ -33,15 +33,8 @@ public class TimeSlotSwapNeighbour implements Neighbour<Slot, Ticket> {
         Person   p1 = t1.getPerson();
         Person   p2 = t2.getPerson();
 
-        s2t1 = s2.values(assignment).stream()
-                .filter(t -> t.getPerson().equals(p1))
-                .findFirst()
-                .orElse(null);
-
-        s1t2 = s1.values(assignment).stream()
-                .filter(t -> t.getPerson().equals(p2))
-                .findFirst()
-                .orElse(null);
+        s2t1 = s2.getTicket(p1);
+        s1t2 = s1.getTicket(p2);
 
         return s1t2 != null && s2t1 != null;
     }
@@ -7,13 +7,13 @@ import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.data.Thesis;
 import cz.muni.fi.scheduler.io.DataSource;
 import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.ScheduleExport;
+import cz.muni.fi.scheduler.io.export.JSONScheduleWriter;
+import cz.muni.fi.scheduler.io.export.TSVScheduleWriter;
 import cz.muni.fi.scheduler.model.Agenda;
 import cz.muni.fi.scheduler.model.Block;
 import cz.muni.fi.scheduler.model.Configuration;
 import cz.muni.fi.scheduler.model.SchModel;
-import cz.muni.fi.scheduler.model.constraints.DefenceTeacherOverlapConstraint;
-import cz.muni.fi.scheduler.model.constraints.UniqueCommissionMembersConstraint;
-import cz.muni.fi.scheduler.model.constraints.UniqueStudentTicketConstraint;
 import cz.muni.fi.scheduler.model.context.SchModelContext;
 import cz.muni.fi.scheduler.model.criteria.BlockCriterion;
 import cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion;
@@ -24,10 +24,10 @@ import cz.muni.fi.scheduler.utils.IntCounter;
 import cz.muni.fi.scheduler.utils.Pair;
 import cz.muni.fi.scheduler.utils.Range;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.Month;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,6 +43,7 @@ import java.util.stream.Stream;
 import org.apache.log4j.Logger;
 import org.cpsolver.ifs.assignment.Assignment;
 import org.cpsolver.ifs.solution.Solution;
+import org.cpsolver.ifs.solver.ParallelSolver;
 import org.cpsolver.ifs.solver.Solver;
 import org.cpsolver.ifs.util.DataProperties;
 import org.cpsolver.ifs.util.ToolBox;
@@ -50,8 +51,42 @@ import org.cpsolver.ifs.util.ToolBox;
 public class Demo {
     private static final Logger logger = Logger.getLogger("Demo");
 
-    private static DataProperties getProperties() {
-        return ToolBox.loadProperties(new File("model.properties"));
+    /**
+     * Loads solver properties from {@code model.properties} in the working directory.
+     *
+     * @return  loaded properties, empty if the file cannot be read
+     */
+    public static DataProperties getProperties() {
+        DataProperties props = ToolBox.loadProperties(new File("model.properties"));
+
+        if (props == null) {
+            logger.warn("failed to load model.properties, using defaults");
+            props = new DataProperties();
+        }
+
+        return props;
+    }
+
+    /**
+     * Creates the solver configured by the properties.
+     *
+     * If {@code Parallel.NrSolvers} is greater than one, a {@link ParallelSolver}
+     * is created that runs independent searches on the shared model, each with
+     * its own assignment (and therefore its own model context), and keeps the
+     * best solution found by any of them.
+     *
+     * @param props     solver properties
+     * @return          new solver
+     */
+    public static Solver<Slot, Ticket> createSolver(DataProperties props) {
+        int threads = props.getPropertyInt("Parallel.NrSolvers", 1);
+
+        if (threads > 1) {
+            logger.info("using parallel solver with " + threads + " threads");
+            return new ParallelSolver<>(props);
+        }
+
+        return new Solver<>(props);
     }
 
     public static void printRows(List<EntryRow> rows, Assignment<Slot, Ticket> sol, Configuration cfg) {
@@ -108,100 +143,75 @@ public class Demo {
         System.out.print("LL");
     }
 
-    public static void main(String[] args) throws Exception {
-        if (args.length != 1) {
-            System.err.println("Expected directory name.");
-            System.exit(1);
-        }
-
-        SchModel model  = new SchModel();
-
-        try (DataSource ds = new DirectoryDataSource(new File(args[0]))) {
-            int students   = ds.getStudents().size();
-            int capacity   = 8;
-            int days       = 5;
-            int rowsNeeded = (students / capacity) + Math.min(students % capacity, 1);
-
-            Availability avail = ds.getAvailability();
-            dumpAvailability(avail);
-            Configuration.Builder cfgbld = new Configuration.Builder()
-                .setDayStart(LocalTime.of(8, 00))
-                .setFullExamLength(30)
-                .setShortExamLength(15);
-
-            List<EntryRow> rows = new ArrayList(rowsNeeded);
-
-            for (int i = 0; i < rowsNeeded; ++i) {
-                cfgbld.addDate(LocalDate.of(2016, Month.MAY, 1).plusDays(i));
+    /**
+     * Writes the schedule as JSON if the file name ends with {@code .json},
+     * otherwise as tab-separated files into the directory.
+     *
+     * @param schedule      schedule to write
+     * @param output        target file or directory
+     * @throws IOException  if the schedule cannot be written
+     */
+    public static void export(ScheduleExport schedule, File output) throws IOException {
+        logger.info("writing schedule to '" + output.getAbsolutePath() + "'");
+
+        if (output.getName().endsWith(".json")) {
+            try (JSONScheduleWriter writer = new JSONScheduleWriter(
+                    new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8))) {
+                schedule.export(writer);
             }
+        } else {
+            if (!output.isDirectory() && !output.mkdirs())
+                throw new IOException("Cannot create directory " + output.getName() + ".");
 
-            Configuration       cfg     = cfgbld.value();
-            DataProperties      props   = getProperties();
+            try (TSVScheduleWriter writer = new TSVScheduleWriter(output)) {
+                schedule.export(writer);
+            }
+        }
+    }
 
-            for (int row = 0; row < rowsNeeded; ++row)
-                rows.add(new EntryRow(row % days, cfg));
+    public static void main(String[] args) throws Exception {
+        if ((args.length < 1) || (args.length > 3)) {
+            System.err.println("Expected directory or snapshot name, optional output and previous schedule.");
+            System.exit(1);
+        }
 
-            rows.stream().forEach(model::addEntryRow);
+        final File   input = new File(args[0]);
+        ModelBuilder builder;
 
-            logger.info("initializing rows");
-            for (EntryRow row : rows) {
-                LocalDate date = cfg.dates.get(row.getDay());
+        if (input.isFile()) {
+            builder = ModelSnapshot.read(input);
+        } else {
+            DirectoryDataSource dds = new DirectoryDataSource(input);
+            dds.preload();
 
-                for (int i = 0; i < Math.min(students, capacity) - 1; ++i) {
-                    row.extendBack();
-                }
+            builder = new ModelBuilder(dds);
+            builder.build();
+        }
 
-                students -= capacity;
+        try (DataSource ds = builder.getSource()) {
+            dumpAvailability(ds.getAvailability());
 
-                row.streamAllSlots().forEach(model::addVariable);
+            SchModel     model   = builder.getModel();
 
-                row.streamCommissarySlots().forEach(s -> {
-                    try {
-                        s.setCommissaries(ds.getTeachers().values().stream()
-                            .filter(teacher -> avail.isAvailable(teacher, date, cfg.dayStart, cfg.dayStart.plusMinutes(row.getEnd() - row.getStart())))
-                            .collect(Collectors.toList())
-                        );
-                    } catch (IOException ex) {
-                        logger.error(ex);
-                        System.exit(2);
-                    }
-                });
-
-                row.streamTimeSlots().forEach(s -> {
-                    LocalTime start = cfg.dayStart.plusMinutes(s.getStart());
-                    LocalTime end   = cfg.dayStart.plusMinutes(s.getEnd());
-
-                    try {
-                        List<Student> possible = ds.getStudents().values().stream()
-                                .filter(student -> !student.hasThesis()
-                                        || student.getThesis().getTeachers().stream()
-                                                .allMatch(t -> avail.isAvailable(t, date, start, end))
-                                )
-                                .collect(Collectors.toList());
-
-                        logger.debug("TS " + s.getId() + " (ER " + s.getParent().getId() + ": " + s.getParent().getDay() + "; S " + s.getStart() +
-                                " has " + possible.size() + " values");
-                        s.setStudents(possible);
-                    } catch (IOException ex) {
-                        logger.error(ex);
-                        System.exit(2);
-                    }
-                });
-            }
-            logger.info("rows initialized, solving");
+            final List<EntryRow>  rows       = builder.getRows();
+            final Configuration   cfg        = builder.getConfiguration();
+            final int             days       = builder.getDays();
+            final int             rowsNeeded = rows.size();
+            DataProperties        props      = getProperties();
 
-            Solver solver = new Solver(props);
+            logger.info("solving");
 
-            model.addGlobalConstraint(new UniqueStudentTicketConstraint());
-            model.addGlobalConstraint(new UniqueCommissionMembersConstraint());
-            model.addGlobalConstraint(new DefenceTeacherOverlapConstraint());
+            Solver<Slot, Ticket> solver = createSolver(props);
 
-            MinimizeBlocksCriterion mbcrit = new MinimizeBlocksCriterion();
-            model.addCriterion(mbcrit);
+            MinimizeBlocksCriterion mbcrit = builder.getCriterion();
             model.init(solver);
 
             solver.setInitalSolution(model);
 
+            if (args.length == 3) {
+                WarmStart.apply(builder, new File(args[2]), solver.currentSolution().getAssignment());
+            }
+
             solver.start();
 
             try {
@@ -210,7 +220,7 @@ public class Demo {
                 System.err.println(ex);
             }
 
-            Solution lastSolution = solver.lastSolution();
+            Solution<Slot, Ticket> lastSolution = solver.lastSolution();
             lastSolution.restoreBest();
 
             logger.info(ToolBox.dict2string(lastSolution.getBestInfo(), 2));
@@ -218,6 +228,10 @@ public class Demo {
             double totalValueBest = model.getTotalValue(lastSolution.getAssignment());
             logger.info("Total value: " + totalValueBest);
 
+            if (args.length >= 2) {
+                export(new ScheduleExporter(model, cfg, lastSolution.getAssignment()), new File(args[1]));
+            }
+
             logger.info("=========================================");
             logger.info("  BLOCK COUNTS                           ");
             logger.info("=========================================");
@@ -0,0 +1,301 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.CompiledAvailability;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DataSource;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.constraints.DefenceTeacherOverlapConstraint;
+import cz.muni.fi.scheduler.model.constraints.UniqueCommissionMembersConstraint;
+import cz.muni.fi.scheduler.model.constraints.UniqueStudentTicketConstraint;
+import cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion;
+import cz.muni.fi.scheduler.model.domain.Domain;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import org.apache.log4j.Logger;
+
+/**
+ * Builds a {@link SchModel} from a {@link DataSource}.
+ *
+ * The builder creates enough rows for all students, spreads them over the
+ * days, restricts the domains of all slots by teachers' availability and
+ * adds the constraints and the {@link MinimizeBlocksCriterion}.
+ *
+ * Domains depend only on the day and the time of a slot. The builder groups
+ * slots by these windows, computes candidates for every window once in a
+ * {@link ForkJoinPool} and shares them among the slots of the window as a
+ * single {@link Domain}.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class ModelBuilder {
+    private static final Logger logger = Logger.getLogger("ModelBuilder");
+
+    private final DataSource        source;
+
+    private int                     capacity;
+    private int                     days;
+    private LocalDate               firstDate;
+    private ForkJoinPool            pool;
+
+    private SchModel                model;
+    private Configuration           config;
+    private List<EntryRow>          rows;
+    private MinimizeBlocksCriterion criterion;
+
+    public ModelBuilder(DataSource source) {
+        this.source    = requireNonNull(source, "source");
+        this.capacity  = 8;
+        this.days      = 5;
+        this.firstDate = LocalDate.of(2016, Month.MAY, 1);
+    }
+
+    public ModelBuilder setCapacity(int capacity) {
+        this.capacity = requirePositive(capacity, "capacity");
+        return this;
+    }
+
+    public ModelBuilder setDays(int days) {
+        this.days = requirePositive(days, "days");
+        return this;
+    }
+
+    public ModelBuilder setFirstDate(LocalDate date) {
+        this.firstDate = requireNonNull(date, "date");
+        return this;
+    }
+
+    /**
+     * Sets the pool used to compute domains.
+     *
+     * @param pool  fork-join pool, {@code null} for the common pool
+     * @return      this builder
+     */
+    public ModelBuilder setPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * Day and interval of a slot; slots with equal windows have equal domains.
+     */
+    private static final class Window {
+        final int day;
+        final int start;
+        final int end;
+
+        Window(int day, int start, int end) {
+            this.day   = day;
+            this.start = start;
+            this.end   = end;
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * day + start) * 31 + end;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Window))
+                return false;
+
+            final Window other = (Window) obj;
+            return (day == other.day) && (start == other.start) && (end == other.end);
+        }
+    }
+
+    /**
+     * Returns teachers available for commissary slots of the row.
+     *
+     * The result is shared by all rows on the same day with the same length
+     * and may be computed in a pool thread, so the method must depend only on
+     * the day and length of the row.
+     *
+     * @param teachers  all teachers
+     * @param avail     availability
+     * @param row       representative row
+     * @return          list of candidates
+     */
+    protected List<Teacher> commissaries(Collection<Teacher> teachers, CompiledAvailability avail,
+            EntryRow row) {
+        final LocalDate date = config.dates.get(row.getDay());
+        final LocalTime end  = config.dayStart.plusMinutes(row.getEnd() - row.getStart());
+
+        return teachers.stream()
+                .filter(teacher -> avail.isAvailable(teacher, date, config.dayStart, end))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns students that can be placed into the time slot.
+     *
+     * The result is shared by all slots with the same day, start and end and
+     * may be computed in a pool thread, so the method must depend only on
+     * these attributes of the slot.
+     *
+     * @param students  all students
+     * @param avail     availability
+     * @param slot      representative time slot
+     * @return          list of candidates
+     */
+    protected List<Student> candidates(Collection<Student> students, CompiledAvailability avail,
+            TimeSlot slot) {
+        final LocalDate date  = config.dates.get(slot.getParent().getDay());
+        final LocalTime start = config.dayStart.plusMinutes(slot.getStart());
+        final LocalTime end   = config.dayStart.plusMinutes(slot.getEnd());
+
+        return students.stream()
+                .filter(student -> !student.hasThesis()
+                        || student.getThesis().getTeachers().stream()
+                                .allMatch(t -> avail.isAvailable(t, date, start, end))
+                )
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Builds the model.
+     *
+     * The teachers and students of the data source are interned in the new
+     * model, so every data source can be used to build only one model.
+     *
+     * @return              the new model
+     * @throws IOException  if the data source fails
+     */
+    public SchModel build() throws IOException {
+        final Collection<Teacher>  teachers = source.getTeachers().values();
+        final Collection<Student>  students = source.getStudents().values();
+        final CompiledAvailability avail    = source.getAvailability().compile();
+
+        int remaining  = students.size();
+        int rowsNeeded = (remaining / capacity) + Math.min(remaining % capacity, 1);
+
+        Configuration.Builder cfgbld = new Configuration.Builder()
+            .setDayStart(LocalTime.of(8, 00))
+            .setFullExamLength(30)
+            .setShortExamLength(15);
+
+        for (int i = 0; i < rowsNeeded; ++i) {
+            cfgbld.addDate(firstDate.plusDays(i));
+        }
+
+        model     = new SchModel();
+        config    = cfgbld.value();
+        rows      = new ArrayList<>(rowsNeeded);
+        criterion = new MinimizeBlocksCriterion();
+
+        teachers.forEach(model::addTeacher);
+        students.forEach(model::addStudent);
+
+        for (int row = 0; row < rowsNeeded; ++row)
+            rows.add(model.newEntryRow(row % days, config));
+
+        // slots with the same window share their candidates, so every
+        // window is computed once; the first slot represents the window
+        Map<Window, List<TimeSlot>>   studentWindows = new LinkedHashMap<>();
+        Map<Window, List<MemberSlot>> teacherWindows = new LinkedHashMap<>();
+
+        logger.info("initializing rows");
+        for (EntryRow row : rows) {
+            for (int i = 0; i < Math.min(remaining, capacity) - 1; ++i) {
+                row.extendBack();
+            }
+
+            remaining -= capacity;
+
+            row.streamAllSlots().forEach(model::addVariable);
+
+            Window rowWindow = new Window(row.getDay(), 0, row.getEnd() - row.getStart());
+            row.streamCommissarySlots().forEach(slot ->
+                    teacherWindows.computeIfAbsent(rowWindow, w -> new ArrayList<>()).add(slot));
+
+            row.streamTimeSlots().forEach(slot ->
+                    studentWindows.computeIfAbsent(new Window(row.getDay(), slot.getStart(), slot.getEnd()),
+                            w -> new ArrayList<>()).add(slot));
+        }
+
+        logger.info("computing domains for " + studentWindows.size() + " time slot windows and "
+                + teacherWindows.size() + " commissary windows");
+
+        final ForkJoinPool executor = pool == null ? ForkJoinPool.commonPool() : pool;
+
+        Map<Window, ForkJoinTask<List<Student>>> studentTasks = new HashMap<>();
+        Map<Window, ForkJoinTask<List<Teacher>>> teacherTasks = new HashMap<>();
+
+        studentWindows.forEach((window, slots) -> studentTasks.put(window,
+                executor.submit(() -> candidates(students, avail, slots.get(0)))));
+
+        teacherWindows.forEach((window, slots) -> teacherTasks.put(window,
+                executor.submit(() -> commissaries(teachers, avail, slots.get(0).getParent()))));
+
+        // slots of a window share the domain, their tickets are created here in a fixed order
+        teacherWindows.forEach((window, slots) -> {
+            Domain<Teacher> possible = new Domain<>(teacherTasks.get(window).join());
+            slots.forEach(slot -> slot.setCommissaries(possible));
+        });
+
+        studentWindows.forEach((window, slots) -> {
+            Domain<Student> possible = new Domain<>(studentTasks.get(window).join());
+
+            for (TimeSlot slot : slots) {
+                logger.debug("TS " + slot.getId() + " (ER " + slot.getParent().getId() + ": " + window.day
+                        + "; S " + window.start + " has " + possible.size() + " values");
+                slot.setStudents(possible);
+            }
+        });
+        logger.info("rows initialized");
+
+        addConstraints();
+        return model;
+    }
+
+    private void addConstraints() {
+        model.addGlobalConstraint(new UniqueStudentTicketConstraint());
+        model.addGlobalConstraint(new UniqueCommissionMembersConstraint());
+        model.addGlobalConstraint(new DefenceTeacherOverlapConstraint());
+        model.addCriterion(criterion);
+    }
+
+    /**
+     * Finishes a model restored from a snapshot, see {@link ModelSnapshot}.
+     *
+     * @param model     model with all people, rows and slots
+     * @param config    configuration of the rows
+     */
+    void restore(SchModel model, Configuration config) {
+        this.model     = requireNonNull(model,  "model");
+        this.config    = requireNonNull(config, "config");
+        this.rows      = new ArrayList<>(model.getEntryRows());
+        this.criterion = new MinimizeBlocksCriterion();
+
+        addConstraints();
+    }
+
+    public DataSource              getSource()        { return source;    }
+    public SchModel                getModel()         { return model;     }
+    public Configuration           getConfiguration() { return config;    }
+    public MinimizeBlocksCriterion getCriterion()     { return criterion; }
+    public int                     getDays()          { return days;      }
+
+    public List<EntryRow> getRows() {
+        return rows == null ? null : Collections.unmodifiableList(rows);
+    }
+}
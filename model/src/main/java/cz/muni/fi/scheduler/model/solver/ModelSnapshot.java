@@ -0,0 +1,311 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.SnapshotDataSource;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotReader;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotWriter;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.Domain;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.log4j.Logger;
+
+/**
+ * Stores models built by {@link ModelBuilder} in binary snapshots.
+ *
+ * The snapshot contains the data of the builder's source (see
+ * {@link SnapshotWriter}) followed by the configuration, the order in which
+ * people were added to the model, the distinct slot domains as arrays of
+ * person ordinals and the shape of every row with indices of the domains of
+ * its slots. Restoring the model therefore neither parses CSV files nor
+ * computes any domain, and shared domains remain shared.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public final class ModelSnapshot {
+    private static final Logger logger = Logger.getLogger("ModelSnapshot");
+
+    private static final int SECTION = 0x5343484d; // "SCHM"
+
+    private ModelSnapshot() { }
+
+    //<editor-fold defaultstate="collapsed" desc="[  Writing  ]">
+
+    /**
+     * Writes the model of the builder and its data.
+     *
+     * @param builder       builder that has built the model
+     * @param file          target file
+     * @throws IOException  if the data source or the file fails
+     */
+    public static void write(ModelBuilder builder, File file) throws IOException {
+        requireNonNull(builder, "builder");
+        requireNonNull(file,    "file");
+
+        if (builder.getModel() == null)
+            throw new IllegalStateException("The model has not been built yet.");
+
+        logger.info("writing snapshot '" + file.getAbsolutePath() + "'");
+
+        try (SnapshotWriter writer = new SnapshotWriter(new FileOutputStream(file))) {
+            writer.writeData(builder.getSource());
+            writeModel(writer.getOutput(), builder);
+        }
+    }
+
+    private static void writePeople(DataOutputStream out, List<? extends Person> people) throws IOException {
+        out.writeInt(people.size());
+
+        for (Person person : people) {
+            out.writeLong(person.getId());
+        }
+    }
+
+    private static void writeDomains(DataOutputStream out, Map<Domain<?>, Integer> domains) throws IOException {
+        List<Domain<?>> ordered = new ArrayList<>(domains.keySet());
+        ordered.sort((a, b) -> Integer.compare(domains.get(a), domains.get(b)));
+
+        out.writeInt(ordered.size());
+
+        for (Domain<?> domain : ordered) {
+            out.writeInt(domain.size());
+
+            for (int i = 0; i < domain.size(); ++i) {
+                out.writeInt(domain.get(i).getOrdinal());
+            }
+        }
+    }
+
+    private static void writeSlot(DataOutputStream out, Map<Domain<?>, Integer> domains, Slot slot)
+            throws IOException {
+        out.writeInt(slot.getDomain() == null ? -1 : domains.get(slot.getDomain()));
+    }
+
+    private static void writeModel(DataOutputStream out, ModelBuilder builder) throws IOException {
+        SchModel       model  = builder.getModel();
+        Configuration  config = builder.getConfiguration();
+        List<EntryRow> rows   = model.getEntryRows();
+
+        Map<Domain<?>, Integer> teacherDomains = new IdentityHashMap<>();
+        Map<Domain<?>, Integer> studentDomains = new IdentityHashMap<>();
+
+        for (EntryRow row : rows) {
+            for (MemberSlot slot : row.streamCommissarySlots().collect(Collectors.toList())) {
+                if (slot.getDomain() != null)
+                    teacherDomains.putIfAbsent(slot.getDomain(), teacherDomains.size());
+            }
+
+            for (TimeSlot slot : row.streamTimeSlots().collect(Collectors.toList())) {
+                if (slot.getDomain() != null)
+                    studentDomains.putIfAbsent(slot.getDomain(), studentDomains.size());
+            }
+        }
+
+        out.writeInt(SECTION);
+
+        out.writeLong(config.dayStart.toNanoOfDay());
+        out.writeInt(config.fullExamLength);
+        out.writeInt(config.shortExamLength);
+        out.writeInt(config.dates.size());
+        for (LocalDate date : config.dates) {
+            out.writeLong(date.toEpochDay());
+        }
+        out.writeInt(builder.getDays());
+
+        writePeople(out, model.getTeachers());
+        writePeople(out, model.getStudents());
+        writeDomains(out, teacherDomains);
+        writeDomains(out, studentDomains);
+
+        out.writeInt(rows.size());
+
+        for (EntryRow row : rows) {
+            List<TimeSlot> timeslots = row.streamTimeSlots().collect(Collectors.toList());
+
+            out.writeInt(row.getDay());
+            out.writeInt(timeslots.size());
+
+            for (MemberSlot slot : row.streamCommissarySlots().collect(Collectors.toList())) {
+                writeSlot(out, teacherDomains, slot);
+            }
+
+            for (TimeSlot slot : timeslots) {
+                writeSlot(out, studentDomains, slot);
+            }
+        }
+
+        logger.debug("written " + rows.size() + " rows, " + teacherDomains.size() + " commissary and "
+                + studentDomains.size() + " time slot domains");
+    }
+
+    //</editor-fold>
+
+    //<editor-fold defaultstate="collapsed" desc="[  Reading  ]">
+
+    /**
+     * Restores a model written by {@link #write(ModelBuilder, File)}.
+     *
+     * The returned builder holds the restored model, its configuration and
+     * rows; its source is a {@link SnapshotDataSource} with the data of the
+     * snapshot.
+     *
+     * @param file          snapshot file
+     * @return              builder with the restored model
+     * @throws IOException  if the file cannot be read or does not contain
+     *                      a model
+     */
+    public static ModelBuilder read(File file) throws IOException {
+        requireNonNull(file, "file");
+        logger.info("reading snapshot '" + file.getAbsolutePath() + "'");
+
+        try (SnapshotReader reader = new SnapshotReader(new FileInputStream(file))) {
+            SnapshotDataSource source = new SnapshotDataSource(reader);
+            return readModel(reader.getInput(), source);
+        }
+    }
+
+    private static <P extends Person> List<P> readPeople(DataInputStream in, Map<Long, P> people)
+            throws IOException {
+        int     count  = in.readInt();
+        List<P> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            long id = in.readLong();
+            P    p  = people.get(id);
+
+            if (p == null)
+                throw new IOException("Snapshot refers to unknown person " + id + ".");
+
+            result.add(p);
+        }
+
+        return result;
+    }
+
+    private static <P extends Person> List<Domain<P>> readDomains(DataInputStream in, List<P> people)
+            throws IOException {
+        int             count  = in.readInt();
+        List<Domain<P>> result = new ArrayList<>(count);
+
+        for (int i = 0; i < count; ++i) {
+            int     size       = in.readInt();
+            List<P> candidates = new ArrayList<>(size);
+
+            for (int j = 0; j < size; ++j) {
+                candidates.add(element(people, in.readInt(), "person"));
+            }
+
+            result.add(new Domain<>(candidates));
+        }
+
+        return result;
+    }
+
+    private static <T> T element(List<T> list, int index, String what) throws IOException {
+        if ((index < 0) || (index >= list.size()))
+            throw new IOException("Snapshot refers to unknown " + what + " " + index + ".");
+
+        return list.get(index);
+    }
+
+    private static ModelBuilder readModel(DataInputStream in, SnapshotDataSource source) throws IOException {
+        if (in.readInt() != SECTION)
+            throw new IOException("Snapshot does not contain a model.");
+
+        Configuration.Builder cfgbld = new Configuration.Builder()
+            .setDayStart(LocalTime.ofNanoOfDay(in.readLong()))
+            .setFullExamLength(in.readInt())
+            .setShortExamLength(in.readInt());
+
+        int dates = in.readInt();
+        for (int i = 0; i < dates; ++i) {
+            cfgbld.addDate(LocalDate.ofEpochDay(in.readLong()));
+        }
+
+        Configuration config = cfgbld.value();
+        int           days   = in.readInt();
+        SchModel      model  = new SchModel();
+
+        readPeople(in, source.getTeachers()).forEach(model::addTeacher);
+        readPeople(in, source.getStudents()).forEach(model::addStudent);
+
+        List<Domain<Teacher>> teacherDomains = readDomains(in, model.getTeachers());
+        List<Domain<Student>> studentDomains = readDomains(in, model.getStudents());
+
+        int rows = in.readInt();
+
+        for (int r = 0; r < rows; ++r) {
+            EntryRow row       = model.newEntryRow(in.readInt(), config);
+            int      timeslots = in.readInt();
+
+            for (int i = 1; i < timeslots; ++i) {
+                row.extendBack();
+            }
+
+            row.streamAllSlots().forEach(model::addVariable);
+
+            for (MemberSlot slot : row.streamCommissarySlots().collect(Collectors.toList())) {
+                int domain = in.readInt();
+                if (domain >= 0)
+                    slot.setCommissaries(element(teacherDomains, domain, "domain"));
+            }
+
+            for (TimeSlot slot : row.streamTimeSlots().collect(Collectors.toList())) {
+                int domain = in.readInt();
+                if (domain >= 0)
+                    slot.setStudents(element(studentDomains, domain, "domain"));
+            }
+        }
+
+        logger.info("restored " + rows + " rows, " + teacherDomains.size() + " commissary and "
+                + studentDomains.size() + " time slot domains");
+
+        ModelBuilder builder = new ModelBuilder(source).setDays(days);
+        builder.restore(model, config);
+        return builder;
+    }
+
+    //</editor-fold>
+
+    /**
+     * Builds the model of an instance directory and writes its snapshot.
+     *
+     * @param args          {@code <instance-dir> <snapshot-file>}
+     * @throws Exception    if the instance cannot be read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: ModelSnapshot <instance-dir> <snapshot-file>");
+            System.exit(1);
+        }
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(new File(args[0]))) {
+            ds.preload();
+
+            ModelBuilder builder = new ModelBuilder(ds);
+            builder.build();
+            write(builder, new File(args[1]));
+        }
+    }
+}
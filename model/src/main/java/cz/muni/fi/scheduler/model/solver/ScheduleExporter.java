@@ -0,0 +1,94 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.ScheduleExport;
+import cz.muni.fi.scheduler.io.ScheduleSink;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.Block;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.log4j.Logger;
+import org.cpsolver.ifs.assignment.Assignment;
+
+/**
+ * Exports an assignment of a {@link SchModel}.
+ *
+ * The export pushes the commission of every row (see
+ * {@link EntryRow#getCommission}), the exam of every assigned time slot and
+ * the blocks of every teacher from the model's {@link Agenda}. Rows without
+ * a chairman have no commission, but their exams are exported.
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class ScheduleExporter implements ScheduleExport {
+    private static final Logger logger = Logger.getLogger("ScheduleExporter");
+
+    private final SchModel                 model;
+    private final Configuration            config;
+    private final Assignment<Slot, Ticket> assignment;
+
+    public ScheduleExporter(SchModel model, Configuration config, Assignment<Slot, Ticket> assignment) {
+        this.model      = requireNonNull(model,      "model");
+        this.config     = requireNonNull(config,     "config");
+        this.assignment = requireNonNull(assignment, "assignment");
+    }
+
+    @Override
+    public void export(ScheduleSink sink) throws IOException {
+        List<EntryRow> rows = model.getEntryRows();
+
+        for (EntryRow row : rows) {
+            if (assignment.getValue(row.getChairmanSlot()) == null) {
+                logger.warn("row " + row.getId() + " has no chairman, skipping its commission");
+                continue;
+            }
+
+            sink.commission(row.getId(), row.getCommission(assignment, config));
+        }
+
+        for (EntryRow row : rows) {
+            final LocalDate date = config.dates.get(row.getDay());
+
+            for (Iterator<TimeSlot> it = row.streamTimeSlots().iterator(); it.hasNext(); ) {
+                TimeSlot slot   = it.next();
+                Ticket   ticket = assignment.getValue(slot);
+
+                if (ticket == null)
+                    continue;
+
+                sink.exam(row.getId(), date,
+                        config.dayStart.plusMinutes(slot.getStart()),
+                        config.dayStart.plusMinutes(slot.getEnd()),
+                        (Student) ticket.getPerson());
+            }
+        }
+
+        Agenda agenda = model.getContext(assignment).getAgenda();
+
+        for (Teacher teacher : model.getTeachers()) {
+            for (Map.Entry<Integer, List<Block>> day : new TreeMap<>(agenda.getBlocks(teacher)).entrySet()) {
+                final LocalDate date = config.dates.get(day.getKey());
+
+                for (Block block : day.getValue()) {
+                    sink.block(teacher, date,
+                            config.dayStart.plusMinutes(block.getInterval().getMin()),
+                            config.dayStart.plusMinutes(block.getInterval().getMax()),
+                            block.isSpanning());
+                }
+            }
+        }
+    }
+}
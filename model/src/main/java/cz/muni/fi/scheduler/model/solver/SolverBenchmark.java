@@ -0,0 +1,280 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.log4j.Logger;
+import org.cpsolver.ifs.solution.Solution;
+import org.cpsolver.ifs.solution.SolutionListener;
+import org.cpsolver.ifs.solver.Solver;
+import org.cpsolver.ifs.util.DataProperties;
+
+/**
+ * Runs the solver on an instance for a fixed time and reports its progress.
+ *
+ * The model is built the same way as in {@link Demo} and solved by the
+ * solver configured in {@code model.properties}. The benchmark samples the
+ * number of iterations and the best value in regular intervals and records
+ * the time of every improvement and of the first complete solution.
+ *
+ * Usage: {@code SolverBenchmark <instance directory> <output file>}. The
+ * instance may also be a snapshot written by {@link ModelSnapshot}. The
+ * results are written as JSON if the output file ends with {@code .json},
+ * as CSV otherwise. The following properties control the benchmark:
+ * <ul>
+ *     <li>{@code Benchmark.TimeLimit}: time budget in seconds (default 60),</li>
+ *     <li>{@code Benchmark.SampleInterval}: sampling interval in milliseconds (default 1000).</li>
+ * </ul>
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class SolverBenchmark {
+    private static final Logger logger = Logger.getLogger("SolverBenchmark");
+
+    //<editor-fold defaultstate="collapsed" desc="[  Results  ]">
+
+    /**
+     * A point on the progress curve.
+     */
+    static class Sample {
+        final double time;
+        final long   iterations;
+        final Double bestValue;
+
+        Sample(double time, long iterations, Double bestValue) {
+            this.time       = time;
+            this.iterations = iterations;
+            this.bestValue  = bestValue;
+        }
+    }
+
+    /**
+     * Results of a single run, serialized as JSON.
+     */
+    static class Result {
+        String       instance;
+        int          variables;
+        int          threads;
+        double       timeLimit;
+        double       buildTime;
+        double       solveTime;
+        long         iterations;
+        double       iterationsPerSecond;
+        Double       timeToFirstComplete;
+        Double       bestValue;
+        List<Sample> samples      = new ArrayList<>();
+        List<Sample> improvements = new ArrayList<>();
+    }
+
+    //</editor-fold>
+
+    /**
+     * Records the progress of the solver.
+     *
+     * The listener is called from the solver threads, the fields are read
+     * by the sampling thread.
+     *
+     * An iteration is a call of {@link #solutionUpdated}, i.e. one update of
+     * the current solution the listener is attached to. A
+     * {@link org.cpsolver.ifs.solver.ParallelSolver} reports the updates of
+     * all its threads to the listeners of its master solution, so the count
+     * is the total over all threads and the listener may be called from
+     * several threads at once.
+     */
+    private static class ProgressListener implements SolutionListener<Slot, Ticket> {
+        private final long           start;
+        private final List<Sample>   improvements;
+        private final LongAdder      iterations;
+
+        private volatile Double      bestValue;
+        private volatile double      firstComplete = -1.0;
+
+        ProgressListener(long start) {
+            this.start        = start;
+            this.improvements = new ArrayList<>();
+            this.iterations   = new LongAdder();
+        }
+
+        double elapsed() {
+            return (System.nanoTime() - start) / 1e9;
+        }
+
+        @Override
+        public void solutionUpdated(Solution<Slot, Ticket> solution) {
+            iterations.increment();
+
+            if ((firstComplete < 0.0) && solution.isComplete())
+                firstComplete = elapsed();
+        }
+
+        @Override
+        public void bestSaved(Solution<Slot, Ticket> solution) {
+            bestValue = solution.getBestValue();
+
+            synchronized (improvements) {
+                improvements.add(new Sample(elapsed(), iterations.sum(), bestValue));
+            }
+        }
+
+        @Override
+        public void getInfo(Solution<Slot, Ticket> solution, Map<String, String> info)
+        { }
+
+        @Override
+        public void getInfo(Solution<Slot, Ticket> solution, Map<String, String> info, Collection<Slot> variables)
+        { }
+
+        @Override
+        public void bestCleared(Solution<Slot, Ticket> solution)
+        { }
+
+        @Override
+        public void bestRestored(Solution<Slot, Ticket> solution)
+        { }
+
+        Sample sample() {
+            return new Sample(elapsed(), iterations.sum(), bestValue);
+        }
+
+        List<Sample> getImprovements() {
+            synchronized (improvements) {
+                return new ArrayList<>(improvements);
+            }
+        }
+    }
+
+    private static Double nullable(double value) {
+        return value < 0.0 ? null : value;
+    }
+
+    private static void writeCSV(Result result, Writer output) {
+        PrintWriter writer = new PrintWriter(output);
+
+        writer.printf(Locale.ROOT, "# instance=%s variables=%d threads=%d%n",
+                result.instance, result.variables, result.threads);
+        writer.printf(Locale.ROOT, "# iterations=%d iterationsPerSecond=%.2f timeToFirstComplete=%s bestValue=%s%n",
+                result.iterations, result.iterationsPerSecond, result.timeToFirstComplete, result.bestValue);
+        writer.println("time,iterations,iterationsPerSecond,bestValue");
+
+        Sample previous = new Sample(0.0, 0L, null);
+        for (Sample sample : result.samples) {
+            double rate = (sample.iterations - previous.iterations) / Math.max(sample.time - previous.time, 1e-9);
+            writer.printf(Locale.ROOT, "%.3f,%d,%.2f,%s%n", sample.time, sample.iterations, rate,
+                    sample.bestValue == null ? "" : String.valueOf(sample.bestValue));
+            previous = sample;
+        }
+
+        writer.flush();
+    }
+
+    private static void writeJSON(Result result, Writer output) {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        gson.toJson(result, output);
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param instance      instance directory or model snapshot
+     * @param props         solver properties
+     * @return              results of the run
+     * @throws Exception    if the instance cannot be read
+     */
+    public static Result run(File instance, DataProperties props) throws Exception {
+        final double timeLimit = props.getPropertyDouble("Benchmark.TimeLimit", 60.0);
+        final long   interval  = props.getPropertyLong("Benchmark.SampleInterval", 1000L);
+
+        Result result = new Result();
+        result.instance  = instance.getName();
+        result.timeLimit = timeLimit;
+        result.threads   = Math.max(1, props.getPropertyInt("Parallel.NrSolvers", 1));
+
+        SchModel model;
+        long     buildStart = System.nanoTime();
+
+        if (instance.isFile()) {
+            model = ModelSnapshot.read(instance).getModel();
+        } else {
+            try (DirectoryDataSource ds = new DirectoryDataSource(instance)) {
+                ds.preload();
+                model = new ModelBuilder(ds).build();
+            }
+        }
+
+        result.buildTime = (System.nanoTime() - buildStart) / 1e9;
+        result.variables = model.variables().size();
+
+        Solver<Slot, Ticket> solver = Demo.createSolver(props);
+        model.init(solver);
+        solver.setInitalSolution(model);
+
+        ProgressListener listener = new ProgressListener(System.nanoTime());
+        solver.currentSolution().addSolutionListener(listener);
+
+        logger.info("solving " + result.variables + " variables for " + timeLimit + " s");
+        solver.start();
+
+        while (solver.isRunning() && (listener.elapsed() < timeLimit)) {
+            Thread.sleep(Math.max(1L, Math.min(interval, (long) ((timeLimit - listener.elapsed()) * 1000) + 1)));
+            result.samples.add(listener.sample());
+        }
+
+        if (solver.isRunning())
+            solver.stopSolver();
+
+        Thread thread = solver.getSolverThread();
+        if (thread != null)
+            thread.join();
+
+        Sample last = listener.sample();
+        result.samples.add(last);
+
+        result.solveTime           = last.time;
+        result.iterations          = last.iterations;
+        result.iterationsPerSecond = last.iterations / Math.max(last.time, 1e-9);
+        result.timeToFirstComplete = nullable(listener.firstComplete);
+        result.bestValue           = last.bestValue;
+        result.improvements        = listener.getImprovements();
+
+        logger.info(String.format(Locale.ROOT, "%d iterations in %.1f s (%.1f it/s), first complete at %s s, best %s",
+                result.iterations, result.solveTime, result.iterationsPerSecond,
+                result.timeToFirstComplete, result.bestValue));
+
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("usage: SolverBenchmark <instance directory> <output file>");
+            System.exit(1);
+        }
+
+        Result result = run(new File(args[0]), Demo.getProperties());
+        File   output = new File(args[1]);
+
+        try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            if (output.getName().endsWith(".json"))
+                writeJSON(result, writer);
+            else
+                writeCSV(result, writer);
+        } catch (IOException ex) {
+            logger.error("failed to write results to " + output.getName());
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import static cz.muni.fi.scheduler.extensions.ValueCheck.*;
+
+import cz.muni.fi.scheduler.data.Commission;
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DataSource;
+import cz.muni.fi.scheduler.io.ScheduleSink;
+import cz.muni.fi.scheduler.io.export.TSVScheduleReader;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.Logger;
+import org.cpsolver.ifs.assignment.Assignment;
+
+/**
+ * Restores a previous schedule into an assignment of a model built from
+ * changed data, so that the search continues from it instead of starting
+ * from scratch.
+ *
+ * Rows are matched by their identifiers and slots by their start times.
+ * A previous ticket is restored only if its person still exists, is still
+ * in the domain of the slot (e.g. the availability still allows it) and the
+ * ticket does not conflict with the tickets restored before it. Everything
+ * else stays unassigned for the solver. Commissions are restored before
+ * exams, see {@link cz.muni.fi.scheduler.io.ScheduleExport}.
+ *
+ * Usage:
+ * <pre>
+ *   solver.setInitalSolution(model);
+ *   WarmStart.apply(builder, previous, solver.currentSolution().getAssignment());
+ *   solver.start();
+ * </pre>
+ *
+ * @author Roman Lacko &lt;<a href="mailto:xlacko1@fi.muni.cz">xlacko1@fi.muni.cz</a>&gt;
+ */
+public class WarmStart implements ScheduleSink {
+    private static final Logger logger = Logger.getLogger("WarmStart");
+
+    private final SchModel                 model;
+    private final Configuration            config;
+    private final Assignment<Slot, Ticket> assignment;
+    private final Map<Long, EntryRow>      rows;
+
+    private int restored;
+    private int dropped;
+
+    public WarmStart(SchModel model, Configuration config, Assignment<Slot, Ticket> assignment) {
+        this.model      = requireNonNull(model,      "model");
+        this.config     = requireNonNull(config,     "config");
+        this.assignment = requireNonNull(assignment, "assignment");
+        this.rows       = new HashMap<>();
+
+        model.getEntryRows().forEach(row -> rows.put(row.getId(), row));
+    }
+
+    /**
+     * Restores a schedule written by {@link cz.muni.fi.scheduler.io.export.TSVScheduleWriter}.
+     *
+     * @param builder       builder of the model, its source provides the
+     *                      current data
+     * @param schedule      directory with the previous schedule
+     * @param assignment    assignment to restore the schedule into
+     * @return              the warm start with its statistics
+     * @throws IOException  if the schedule or the data cannot be read
+     */
+    public static WarmStart apply(ModelBuilder builder, File schedule, Assignment<Slot, Ticket> assignment)
+            throws IOException {
+        requireNonNull(builder, "builder");
+
+        DataSource        source = builder.getSource();
+        WarmStart         start  = new WarmStart(builder.getModel(), builder.getConfiguration(), assignment);
+        TSVScheduleReader reader = new TSVScheduleReader(source.getTeachers(), source.getStudents());
+
+        logger.info("restoring schedule from '" + schedule.getAbsolutePath() + "'");
+        reader.read(schedule, start);
+
+        logger.info("restored " + start.restored + " tickets, dropped " + (start.dropped + reader.getSkipped())
+                + ", " + start.model.unassignedVariables(assignment).size() + " slots left unassigned");
+        return start;
+    }
+
+    public int getRestored() { return restored; }
+    public int getDropped()  { return dropped;  }
+
+    /**
+     * Finds the row of a record, {@code null} if the row no longer exists
+     * or lies on another date.
+     */
+    private EntryRow row(long id, LocalDate date) {
+        EntryRow row = rows.get(id);
+
+        if ((row == null) || !config.dates.get(row.getDay()).equals(date)) {
+            logger.debug("row " + id + " on " + date + " does not exist");
+            return null;
+        }
+
+        return row;
+    }
+
+    /**
+     * Assigns the person to the slot if it is still feasible.
+     */
+    private void restore(Slot slot, Person person) {
+        Ticket ticket = slot.getTicket(person);
+
+        if (ticket == null) {
+            logger.debug(person.getId() + " is no longer in the domain of slot " + slot.getId());
+            ++dropped;
+            return;
+        }
+
+        Set<Ticket> conflicts = model.conflictValues(assignment, ticket);
+
+        if (!conflicts.isEmpty()) {
+            logger.debug(ticket + " conflicts with " + conflicts);
+            ++dropped;
+            return;
+        }
+
+        assignment.assign(0, ticket);
+        ++restored;
+    }
+
+    @Override
+    public void commission(long id, Commission commission) {
+        EntryRow row = row(id, commission.getDate());
+
+        if (row == null) {
+            dropped += commission.getMembers().size();
+            return;
+        }
+
+        restore(row.getChairmanSlot(), commission.getChairman());
+
+        int member = 1;
+        for (Teacher teacher : commission.getMembers()) {
+            if (teacher.equals(commission.getChairman()))
+                continue;
+
+            if (member > 2) {
+                ++dropped;
+                continue;
+            }
+
+            restore(row.getMemberSlot(member++), teacher);
+        }
+    }
+
+    @Override
+    public void exam(long id, LocalDate date, LocalTime start, LocalTime end, Student student) {
+        EntryRow row = row(id, date);
+
+        if (row == null) {
+            ++dropped;
+            return;
+        }
+
+        final long minute = Duration.between(config.dayStart, start).toMinutes();
+
+        for (Iterator<TimeSlot> it = row.streamTimeSlots().iterator(); it.hasNext(); ) {
+            TimeSlot slot = it.next();
+
+            if (slot.getStart() == minute) {
+                restore(slot, student);
+                return;
+            }
+        }
+
+        logger.debug("row " + id + " has no slot at " + start);
+        ++dropped;
+    }
+
+    @Override
+    public void block(Teacher teacher, LocalDate date, LocalTime start, LocalTime end, boolean spanning) {
+        // blocks follow from the restored tickets
+    }
+}
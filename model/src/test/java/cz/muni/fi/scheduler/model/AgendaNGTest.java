@@ -2,9 +2,14 @@ package cz.muni.fi.scheduler.model;
 
 import cz.muni.fi.scheduler.data.Teacher;
 import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
 import cz.muni.fi.scheduler.model.domain.TimeSlot;
 import java.time.LocalDate;
 import java.time.Month;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import static org.testng.Assert.*;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
@@ -20,15 +25,17 @@ public class AgendaNGTest {
                 .addDate(LocalDate.of(2016, Month.MARCH, 17))
                 .addDate(LocalDate.of(2016, Month.MARCH, 18));
 
+        SchModel model = new SchModel();
+
         rows = new EntryRow[4];
 
         builder.setFullExamLength(1);
-        rows[0] = new EntryRow(0, builder.value());
-        rows[2] = new EntryRow(1, builder.value());
+        rows[0] = model.newEntryRow(0, builder.value());
+        rows[2] = model.newEntryRow(1, builder.value());
 
         builder.setFullExamLength(2);
-        rows[1] = new EntryRow(0, builder.value());
-        rows[3] = new EntryRow(1, builder.value());
+        rows[1] = model.newEntryRow(0, builder.value());
+        rows[3] = model.newEntryRow(1, builder.value());
 
         for (EntryRow row : rows) {
             while (row.getEnd() < 6)
@@ -38,9 +45,16 @@ public class AgendaNGTest {
         teachers = new Teacher[10];
         for (int i = 0; i < 10; ++i) {
             teachers[i] = new Teacher(i, "TN" + i, "TS" + i);
+            model.addTeacher(teachers[i]);
         }
     }
 
+    private static Agenda newAgenda() {
+        Agenda agenda = new Agenda();
+        agenda.setConsistencyCheck(true);
+        return agenda;
+    }
+
     /*
      * What we got:
      *         /-----------------------------\
@@ -67,7 +81,7 @@ public class AgendaNGTest {
 
     @Test
     public void testMarkTimeSlot() {
-        Agenda   agenda  = new Agenda();
+        Agenda   agenda  = newAgenda();
 
         TimeSlot markedSlots[] = new TimeSlot[] {
                 rows[1].getSlot(0),
@@ -109,7 +123,7 @@ public class AgendaNGTest {
 
     @Test
     public void testUnmarkTimeSlot() {
-        Agenda   agenda  = new Agenda();
+        Agenda   agenda  = newAgenda();
 
         TimeSlot markedSlots[] = new TimeSlot[] {
                 rows[0].getSlot(3),
@@ -160,7 +174,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeTimeSlotAssign() {
-        Agenda   agenda  = new Agenda();
+        Agenda   agenda  = newAgenda();
 
         TimeSlot fixedSlots[] = new TimeSlot[] {
                 rows[0].getSlot(1),
@@ -215,7 +229,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeTimeSlotUnassign() {
-        Agenda   agenda  = new Agenda();
+        Agenda   agenda  = newAgenda();
 
         TimeSlot markedSlots[] = new TimeSlot[] {
                 rows[0].getSlot(0),
@@ -266,7 +280,7 @@ public class AgendaNGTest {
 
     @Test
     public void testMarkMemberSlot() {
-        Agenda   agenda  = new Agenda();
+        Agenda   agenda  = newAgenda();
 
         /*
          * What we got:
@@ -303,7 +317,7 @@ public class AgendaNGTest {
 
     @Test
     public void testUnmarkMemberSlot() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
 
         /*
@@ -348,7 +362,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeMemberSlotAssign() {
-        Agenda  agenda = new Agenda();
+        Agenda  agenda = newAgenda();
         Teacher t0     = teachers[0];
 
         agenda.markMemberSlot(t0, rows[0].getMemberSlot(0));
@@ -361,7 +375,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeMemberSlotUnassign() {
-        Agenda  agenda = new Agenda();
+        Agenda  agenda = newAgenda();
         Teacher t0     = teachers[0];
 
         agenda.markMemberSlot(t0, rows[0].getMemberSlot(0));
@@ -382,7 +396,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeTimeSlotAssignWithFixedMemberSlot() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -420,7 +434,7 @@ public class AgendaNGTest {
 
     @Test
     public void testMarkTimeSlotWithFixedMemberSlot() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -460,7 +474,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeTimeSlotUnassignWithFixedMemberSlot() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -505,7 +519,7 @@ public class AgendaNGTest {
 
     @Test
     public void testUnmarkTimeSlotWithFixedMemberSlot() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -552,7 +566,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeMemberSlotOverFixedTimeSlots() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -588,7 +602,7 @@ public class AgendaNGTest {
 
     @Test
     public void testMarkMemberSlotOverFixedTimeSlots() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -624,7 +638,7 @@ public class AgendaNGTest {
 
     @Test
     public void testAnalyzeMemberSlotUnassignOverFixedTimeSlots() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -663,7 +677,7 @@ public class AgendaNGTest {
 
     @Test
     public void testUnmarkMemberSlotOverFixedTimeSlots() {
-        Agenda agenda = new Agenda();
+        Agenda agenda = newAgenda();
 
         /*
          * What we got:
@@ -707,4 +721,173 @@ public class AgendaNGTest {
         assertEquals(agenda.unmarkMemberSlot(t0, rows[3].getMemberSlot(1)), 2);
         assertEquals(agenda.blockCount(t0), 5);
     }
+
+//==============================================================================
+//  TOTAL COUNT TESTS
+//==============================================================================
+
+    @Test
+    public void testTotalBlockCount() {
+        Agenda agenda = newAgenda();
+
+        /*
+         * What we got:
+         *         /-----------------------------\  T0 T1
+         * rows[0] |0000|    |0000|    |    |1111|  00
+         * rows[1] |         |         |         |
+         *         |-----------------------------|
+         * rows[2] |    |    |    |    |    |    |
+         * rows[3] |111111111|         |         |     11
+         *         \-----------------------------/
+         *         0    1    2    3    4    5    6
+         */
+
+        Teacher t0 = teachers[0];
+        Teacher t1 = teachers[1];
+
+        assertEquals(agenda.totalBlockCount(), 0);
+
+        agenda.markTimeSlot(t0, rows[0].getSlot(0));
+        agenda.markTimeSlot(t0, rows[0].getSlot(2));
+        agenda.markTimeSlot(t1, rows[0].getSlot(5));
+        agenda.markTimeSlot(t1, rows[3].getSlot(0));
+
+        assertEquals(agenda.totalBlockCount(), 4);
+
+        agenda.markMemberSlot(t0, rows[0].getMemberSlot(0));
+        assertEquals(agenda.totalBlockCount(), 3);
+
+        agenda.markMemberSlot(t1, rows[3].getMemberSlot(1));
+        assertEquals(agenda.totalBlockCount(), 3);
+
+        agenda.unmarkMemberSlot(t0, rows[0].getMemberSlot(0));
+        assertEquals(agenda.totalBlockCount(), 4);
+
+        agenda.unmarkTimeSlot(t0, rows[0].getSlot(0));
+        agenda.unmarkTimeSlot(t1, rows[0].getSlot(5));
+        assertEquals(agenda.totalBlockCount(), 2);
+
+        assertEquals(agenda.totalBlockCount(), agenda.blockCount(t0) + agenda.blockCount(t1));
+        agenda.checkConsistency();
+    }
+
+    @Test
+    public void testGetBlocks() {
+        Agenda agenda = newAgenda();
+
+        /*
+         * What we got:
+         *         /-----------------------------\  T0 T1
+         * rows[0] |0000|0000|    |0000|    |1111|
+         * rows[1] |         |         |         |
+         *         |-----------------------------|
+         * rows[2] |    |    |    |0000|    |    |  00
+         * rows[3] |         |         |         |
+         *         \-----------------------------/
+         *         0    1    2    3    4    5    6
+         */
+
+        Teacher t0 = teachers[0];
+        Teacher t1 = teachers[1];
+        Teacher tx = teachers[2];
+
+        agenda.markTimeSlot(t0, rows[0].getSlot(0));
+        agenda.markTimeSlot(t0, rows[0].getSlot(1));
+        agenda.markTimeSlot(t0, rows[0].getSlot(3));
+        agenda.markTimeSlot(t0, rows[2].getSlot(3));
+        agenda.markMemberSlot(t0, rows[2].getMemberSlot(0));
+        agenda.markTimeSlot(t1, rows[0].getSlot(5));
+
+        Map<Integer, List<Block>> blocks = agenda.getBlocks(t0);
+
+        assertEquals(blocks.size(), 2);
+        assertEquals(blocks.get(0).size(), 2);
+        assertFalse(blocks.get(0).get(0).isSpanning());
+        assertEquals(blocks.get(1).size(), 1);
+        assertTrue(blocks.get(1).get(0).isSpanning());
+
+        assertEquals(agenda.getBlocks(t1).get(0).size(), 1);
+        assertTrue(agenda.getBlocks(tx).isEmpty());
+    }
+
+    @Test
+    public void testSpanningBlockCount() {
+        Agenda  agenda = newAgenda();
+        Teacher t0     = teachers[0];
+        Teacher t1     = teachers[1];
+
+        agenda.markMemberSlot(t0, rows[0].getMemberSlot(0));
+        agenda.markMemberSlot(t0, rows[1].getMemberSlot(1));
+        agenda.markMemberSlot(t0, rows[2].getMemberSlot(0));
+        agenda.markTimeSlot(t0, rows[3].getSlot(0));
+        agenda.markTimeSlot(t1, rows[0].getSlot(0));
+
+        // one spanning block for every commission, defences do not count
+        assertEquals(agenda.spanningBlockCount(t0), 3);
+        assertEquals(agenda.spanningBlockCount(t1), 0);
+        assertEquals(agenda.spanningBlockCount(teachers[2]), 0);
+
+        agenda.unmarkMemberSlot(t0, rows[1].getMemberSlot(1));
+        agenda.unmarkMemberSlot(t0, rows[1].getMemberSlot(1));
+        assertEquals(agenda.spanningBlockCount(t0), 2);
+    }
+
+//==============================================================================
+//  REPLACE TESTS
+//==============================================================================
+
+    @Test
+    public void testAnalyzeTimeSlotReplace() {
+        Agenda   agenda = newAgenda();
+        TimeSlot slot   = rows[0].getSlot(2);
+
+        Teacher t0 = teachers[0];
+        Teacher t1 = teachers[1];
+        Teacher t2 = teachers[2];
+
+        agenda.markTimeSlot(t0, rows[0].getSlot(1));
+        agenda.markTimeSlot(t0, slot);
+        agenda.markTimeSlot(t2, slot);
+        agenda.markTimeSlot(t1, rows[0].getSlot(3));
+
+        // t0 keeps the slot, t2 loses its only block, t1 extends its block
+        int expected = agenda.analyzeTimeSlotReplace(Arrays.asList(t0, t2), Arrays.asList(t0, t1), slot);
+        int total    = agenda.totalBlockCount();
+
+        assertEquals(expected, -1);
+        assertEquals(agenda.totalBlockCount(), total);
+
+        agenda.unmarkTimeSlot(t2, slot);
+        agenda.markTimeSlot(t1, slot);
+        assertEquals(agenda.totalBlockCount() - total, expected);
+
+        assertEquals(agenda.analyzeTimeSlotReplace(Arrays.asList(t0, t1), Arrays.asList(t0, t1), slot), 0);
+        assertEquals(agenda.analyzeTimeSlotReplace(Collections.emptyList(), Arrays.asList(t2), slot), 1);
+    }
+
+    @Test
+    public void testAnalyzeMemberSlotReplace() {
+        Agenda     agenda = newAgenda();
+        MemberSlot slot   = rows[2].getMemberSlot(0);
+
+        Teacher t0 = teachers[0];
+        Teacher t1 = teachers[1];
+
+        agenda.markMemberSlot(t0, slot);
+        agenda.markTimeSlot(t1, rows[2].getSlot(0));
+
+        // t0 loses its block, the member row covers the block of t1
+        assertEquals(agenda.analyzeMemberSlotReplace(t0, t1, slot), -1);
+        assertEquals(agenda.analyzeMemberSlotReplace(t0, t0, slot),  0);
+
+        int total = agenda.totalBlockCount();
+        agenda.unmarkMemberSlot(t0, slot);
+        agenda.markMemberSlot(t1, slot);
+        assertEquals(agenda.totalBlockCount() - total, -1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMarkUninternedTeacher() {
+        newAgenda().markTimeSlot(new Teacher(99, "TN", "TS"), rows[0].getSlot(0));
+    }
 }
@@ -0,0 +1,111 @@
+package cz.muni.fi.scheduler.model;
+
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.util.ArrayList;
+import java.util.List;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class BlockMapNGTest {
+
+    private static List<TimeSlot> timeSlots;
+    private static EntryRow       row;
+
+    @BeforeClass
+    public static void setUp() {
+        timeSlots = new ArrayList<>();
+        row = mock(EntryRow.class);
+        when(row.getDay()).thenReturn(0);
+
+        for (int i = 0; i < 5; ++i) {
+            timeSlots.add(new TimeSlot(2 * i, 2, row));
+        }
+    }
+
+    @Test
+    public void testAddJoinsTouchingSlots() {
+        BlockMap map = new BlockMap();
+
+        assertEquals(map.analyzeAdd(timeSlots.get(0)), 1);
+        assertEquals(map.add(timeSlots.get(0)), 1);
+        assertEquals(map.analyzeAdd(timeSlots.get(2)), 1);
+        assertEquals(map.add(timeSlots.get(2)), 1);
+        assertEquals(map.size(), 2);
+
+        // S1 touches both S0 and S2
+        assertEquals(map.analyzeAdd(timeSlots.get(1)), -1);
+        assertEquals(map.add(timeSlots.get(1)), -1);
+        assertEquals(map.size(), 1);
+
+        // S3 extends the block
+        assertEquals(map.add(timeSlots.get(3)), 0);
+        assertEquals(map.size(), 1);
+    }
+
+    @Test
+    public void testRemoveSplitsBlock() {
+        BlockMap map = new BlockMap();
+        timeSlots.forEach(map::add);
+        assertEquals(map.size(), 1);
+
+        assertEquals(map.analyzeRemove(timeSlots.get(2)), 1);
+        assertEquals(map.analyzeRemove(timeSlots.get(0)), 0);
+        assertEquals(map.analyzeRemove(timeSlots.get(4)), 0);
+
+        assertEquals(map.remove(timeSlots.get(2)), 1);
+        assertEquals(map.size(), 2);
+
+        assertEquals(map.remove(timeSlots.get(0)), 0);
+        assertEquals(map.remove(timeSlots.get(1)), -1);
+        assertEquals(map.size(), 1);
+
+        // removing a slot that is not in the map does nothing
+        assertEquals(map.analyzeRemove(timeSlots.get(2)), 0);
+        assertEquals(map.remove(timeSlots.get(2)), 0);
+        assertEquals(map.size(), 1);
+    }
+
+    @Test
+    public void testOverlappingSlots() {
+        BlockMap map  = new BlockMap();
+        TimeSlot wide = new TimeSlot(1, 6, row);
+
+        map.add(timeSlots.get(0));
+        map.add(timeSlots.get(4));
+        assertEquals(map.size(), 2);
+
+        // [1, 7) overlaps S0 and touches nothing else
+        assertEquals(map.add(wide), 0);
+        assertEquals(map.size(), 2);
+
+        // S0 is covered by the wide slot only partially
+        assertEquals(map.analyzeRemove(timeSlots.get(0)), 0);
+        assertEquals(map.analyzeRemove(wide), 0);
+
+        map.add(timeSlots.get(3));
+        assertEquals(map.size(), 1);
+        assertEquals(map.analyzeRemove(wide), 1);
+    }
+
+    @Test
+    public void testGetBlocks() {
+        BlockMap map = new BlockMap();
+        map.add(timeSlots.get(4));
+        map.add(timeSlots.get(0));
+        map.add(timeSlots.get(1));
+
+        List<Block> blocks = map.getBlocks();
+        assertEquals(blocks.size(), 2);
+
+        assertEquals(blocks.get(0).getFirst(), timeSlots.get(0));
+        assertEquals(blocks.get(0).getLast(),  timeSlots.get(1));
+        assertEquals(blocks.get(1).getFirst(), timeSlots.get(4));
+        assertEquals(blocks.get(1).getLast(),  timeSlots.get(4));
+
+        map.remove(timeSlots.get(4));
+        assertEquals(map.getBlocks().size(), 1);
+    }
+}
@@ -0,0 +1,211 @@
+package cz.muni.fi.scheduler.model;
+
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.solver.ModelBuilder;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import org.cpsolver.ifs.solution.Solution;
+import org.cpsolver.ifs.solver.Solver;
+import org.cpsolver.ifs.util.DataProperties;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Builds and solves several models at the same time.
+ */
+public class ConcurrentModelsNGTest {
+
+    private static final int THREADS = 4;
+    private static final int DAYS    = 2;
+    private static final int SEED    = 13;
+
+    private static TemporaryDirectory instance;
+
+    @BeforeClass
+    public static void setUp() throws IOException {
+        instance = TemporaryDirectory.generate("scheduler-concurrent", new InstanceGenerator.Builder()
+                .setSeed(SEED)
+                .setStudents(40)
+                .setTeachers(15)
+                .setDays(DAYS)
+                .setFirstDate(LocalDate.of(2016, Month.MAY, 2))
+                .value());
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        instance.close();
+    }
+
+    private static DataProperties properties() {
+        DataProperties props = new DataProperties();
+
+        props.setProperty("General.Seed",                 String.valueOf(SEED));
+        props.setProperty("Termination.Class",            "org.cpsolver.ifs.termination.GeneralTerminationCondition");
+        props.setProperty("Termination.StopWhenComplete", "false");
+        props.setProperty("Termination.MaxIters",         "2000");
+        props.setProperty("Termination.TimeOut",          "5");
+
+        return props;
+    }
+
+    /**
+     * Describes the assignment in a way that does not depend on the instances
+     * of the entities.
+     */
+    private static String describe(SchModel model, Assignment<Slot, Ticket> assignment) {
+        StringBuilder result = new StringBuilder();
+
+        for (Slot slot : model.variables()) {
+            Ticket ticket = assignment.getValue(slot);
+            result.append(' ').append(slot.getOrdinal()).append('=')
+                  .append(ticket == null ? "-" : String.valueOf(ticket.getPerson().getId()));
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Builds a model from its own data source, fills a part of it with
+     * a seeded random assignment and runs a bounded solver from there.
+     *
+     * The agenda of the best solution must be consistent and its block
+     * count must match a recount on a fresh assignment.
+     *
+     * @return  description of the initial assignment
+     */
+    private static String buildAndSolve() throws Exception {
+        SchModel model;
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(instance.getDirectory())) {
+            ds.preload();
+            model = new ModelBuilder(ds).setDays(DAYS).build();
+        }
+
+        Solver<Slot, Ticket> solver = new Solver<>(properties());
+        model.init(solver);
+        solver.setInitalSolution(model);
+
+        Assignment<Slot, Ticket> initial = solver.currentSolution().getAssignment();
+        Random                   random  = new Random(SEED);
+
+        for (Slot slot : model.variables()) {
+            List<Ticket> values = slot.values(initial);
+
+            if (values.isEmpty() || random.nextBoolean())
+                continue;
+
+            Ticket ticket = values.get(random.nextInt(values.size()));
+
+            if (model.conflictValues(initial, ticket).isEmpty())
+                initial.assign(0, ticket);
+        }
+
+        String description = describe(model, initial);
+
+        solver.start();
+        solver.getSolverThread().join();
+
+        Solution<Slot, Ticket> solution = solver.lastSolution();
+        solution.restoreBest();
+
+        Assignment<Slot, Ticket> assignment = solution.getAssignment();
+        Agenda                   agenda     = model.getContext(assignment).getAgenda();
+
+        agenda.checkConsistency();
+
+        Assignment<Slot, Ticket> replayed = new DefaultSingleAssignment<>();
+        for (Ticket ticket : assignment.assignedValues()) {
+            replayed.assign(0, ticket);
+        }
+
+        Agenda recount = model.getContext(replayed).getAgenda();
+        recount.checkConsistency();
+
+        assertTrue(assignment.nrAssignedVariables() > 0);
+        assertEquals(agenda.totalBlockCount(), recount.totalBlockCount());
+
+        for (Teacher teacher : model.getTeachers()) {
+            assertEquals(agenda.blockCount(teacher), recount.blockCount(teacher));
+            assertEquals(agenda.spanningBlockCount(teacher), recount.spanningBlockCount(teacher));
+        }
+
+        return description;
+    }
+
+    @Test
+    public void testRowIdsArePerModel() {
+        Configuration cfg = new Configuration.Builder()
+                .addDate(LocalDate.of(2016, Month.MAY, 2))
+                .setFullExamLength(30)
+                .value();
+
+        SchModel first  = new SchModel();
+        SchModel second = new SchModel();
+
+        assertEquals(first.newEntryRow(0, cfg).getId(),  0L);
+        assertEquals(second.newEntryRow(0, cfg).getId(), 0L);
+        assertEquals(first.newEntryRow(0, cfg).getId(),  1L);
+        assertEquals(first.getEntryRows().size(), 2);
+
+        // rows added explicitly must not collide with numbered ones
+        second.addEntryRow(new EntryRow(5L, 0, cfg));
+        assertEquals(second.newEntryRow(0, cfg).getId(), 6L);
+
+        try {
+            second.addEntryRow(new EntryRow(0L, 0, cfg));
+            fail("row ids must be unique within the model");
+        } catch (IllegalArgumentException ex) {
+            assertEquals(second.getEntryRows().size(), 3);
+        }
+    }
+
+    @Test
+    public void testConcurrentModels() throws Exception {
+        final String expected = buildAndSolve();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch  start    = new CountDownLatch(1);
+
+        try {
+            List<Future<String>> results = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; ++i) {
+                Callable<String> task = () -> {
+                    start.await();
+                    return buildAndSolve();
+                };
+
+                results.add(executor.submit(task));
+            }
+
+            start.countDown();
+
+            // the models are built the same way, so the seeded starts are equal
+            for (Future<String> result : results) {
+                assertEquals(result.get(), expected);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
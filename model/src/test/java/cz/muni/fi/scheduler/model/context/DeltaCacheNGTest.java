@@ -0,0 +1,97 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import cz.muni.fi.scheduler.model.solver.ModelBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class DeltaCacheNGTest {
+
+    private static int assignDelta(Agenda agenda, Teacher teacher, Slot slot) {
+        return slot instanceof TimeSlot
+                ? agenda.analyzeTimeSlotAssign(teacher, (TimeSlot) slot)
+                : agenda.analyzeMemberSlotAssign(teacher, (MemberSlot) slot);
+    }
+
+    private static int unassignDelta(Agenda agenda, Teacher teacher, Slot slot) {
+        return slot instanceof TimeSlot
+                ? agenda.analyzeTimeSlotUnassign(teacher, (TimeSlot) slot)
+                : agenda.analyzeMemberSlotUnassign(teacher, (MemberSlot) slot);
+    }
+
+    @Test
+    public void testMatchesAgenda() throws Exception {
+        try (TemporaryDirectory  instance = TemporaryDirectory.generate("scheduler-deltas",
+                     new InstanceGenerator.Builder().setSeed(3).setStudents(40).setTeachers(15).setDays(2).value());
+             DirectoryDataSource ds       = new DirectoryDataSource(instance.getDirectory())) {
+            SchModel                 model      = new ModelBuilder(ds).setDays(2).build();
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            SchModelContext          context    = model.getContext(assignment);
+            DeltaCache               deltas     = context.getDeltaCache();
+            List<Slot>               slots      = new ArrayList<>(model.variables());
+            List<Teacher>            teachers   = new ArrayList<>(model.getTeachers());
+            Random                   random     = new Random(11);
+
+            for (int step = 0; step < 400; ++step) {
+                Slot slot = slots.get(random.nextInt(slots.size()));
+
+                if (assignment.getValue(slot) != null) {
+                    assignment.unassign(0, slot);
+                } else if (!slot.values(assignment).isEmpty()) {
+                    List<Ticket> values = slot.values(assignment);
+                    Ticket       ticket = values.get(random.nextInt(values.size()));
+
+                    if (model.conflictValues(assignment, ticket).isEmpty())
+                        assignment.assign(0, ticket);
+                }
+
+                // evaluate the same pairs repeatedly, so that some results come from the cache
+                Random probe = new Random(step % 7);
+
+                for (int i = 0; i < 50; ++i) {
+                    Teacher teacher = teachers.get(probe.nextInt(teachers.size()));
+                    Slot    other   = slots.get(probe.nextInt(slots.size()));
+
+                    assertEquals(deltas.assignDelta(teacher, other),
+                            assignDelta(context.getAgenda(), teacher, other));
+                    assertEquals(deltas.unassignDelta(teacher, other),
+                            unassignDelta(context.getAgenda(), teacher, other));
+                }
+            }
+
+            assertTrue(assignment.nrAssignedVariables() > 0);
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        Teacher    teacher = new Teacher(1, "Anna", "Smith");
+        DeltaCache deltas  = new DeltaCache(new Agenda());
+
+        teacher.setOrdinal(4);
+
+        assertEquals(deltas.version(teacher, 3), 0);
+        deltas.invalidate(teacher, 3);
+        deltas.invalidate(teacher, 3);
+        deltas.invalidate(teacher, 0);
+
+        assertEquals(deltas.version(teacher, 3), 2);
+        assertEquals(deltas.version(teacher, 0), 1);
+        assertEquals(deltas.version(teacher, 1), 0);
+        assertEquals(deltas.version(teacher, 9), 0);
+    }
+}
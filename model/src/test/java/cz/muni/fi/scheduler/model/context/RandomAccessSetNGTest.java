@@ -0,0 +1,67 @@
+package cz.muni.fi.scheduler.model.context;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class RandomAccessSetNGTest {
+
+    @Test
+    public void testAddRemove() {
+        RandomAccessSet<Integer> set = new RandomAccessSet<>(Integer::intValue);
+
+        assertNull(set.random());
+
+        set.add(3);
+        set.add(7);
+        set.add(3);
+        assertEquals(set.size(), 2);
+
+        set.remove(3);
+        set.remove(3);
+        assertEquals(set.size(), 1);
+        assertEquals(set.random(), Integer.valueOf(7));
+
+        set.remove(7);
+        assertEquals(set.size(), 0);
+        assertNull(set.random());
+    }
+
+    @Test
+    public void testMatchesReferenceSet() {
+        RandomAccessSet<Integer> set      = new RandomAccessSet<>(Integer::intValue);
+        Set<Integer>             expected = new HashSet<>();
+        Random                   random   = new Random(23);
+
+        for (int step = 0; step < 2000; ++step) {
+            Integer value = random.nextInt(100);
+
+            if (random.nextBoolean()) {
+                set.add(value);
+                expected.add(value);
+            } else {
+                set.remove(value);
+                expected.remove(value);
+            }
+
+            assertEquals(set.size(), expected.size());
+
+            if (!expected.isEmpty())
+                assertTrue(expected.contains(set.random()));
+        }
+
+        // every element can be sampled
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 100 * expected.size(); ++i)
+            seen.add(set.random());
+
+        assertEquals(seen, expected);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeKey() {
+        new RandomAccessSet<Integer>(Integer::intValue).add(-1);
+    }
+}
@@ -0,0 +1,129 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.data.Thesis;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.Configuration;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import static org.testng.Assert.*;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class SchModelContextNGTest {
+
+    private SchModel      model;
+    private EntryRow      row;
+    private List<Teacher> teachers;
+
+    @BeforeMethod
+    public void setUp() {
+        Configuration cfg = new Configuration.Builder()
+                .addDate(LocalDate.of(2016, Month.MAY, 2))
+                .setFullExamLength(30)
+                .value();
+
+        Field field = new Field(1, "Informatics", "INF");
+
+        model    = new SchModel();
+        teachers = new ArrayList<>();
+
+        for (int i = 0; i < 4; ++i) {
+            Teacher teacher = new Teacher(i, "TN" + i, "TS" + i);
+            teachers.add(teacher);
+            model.addTeacher(teacher);
+        }
+
+        Thesis  thesis  = new Thesis(1, "T1", teachers.get(0), Arrays.asList(teachers.get(1)));
+        Student student = new Student(100, "SN", "SS", field, Repetition.NOTHING, ExamLevel.MASTER, thesis);
+        model.addStudent(student);
+
+        row = model.newEntryRow(0, cfg);
+        row.extendBack();
+
+        row.streamAllSlots().forEach(model::addVariable);
+        row.streamCommissarySlots().forEach(slot -> slot.setCommissaries(teachers));
+        row.streamTimeSlots().forEach(slot -> slot.setStudents(Arrays.asList(student)));
+    }
+
+    @Test
+    public void testAssignOnFreshAssignment() {
+        Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+        MemberSlot               slot       = row.getMemberSlot(1);
+        Ticket                   ticket     = slot.values(assignment).get(2);
+        Teacher                  teacher    = (Teacher) ticket.getPerson();
+
+        // the context is created while the ticket is being assigned
+        assignment.assign(0, ticket);
+
+        SchModelContext context = model.getContext(assignment);
+        Agenda          agenda  = context.getAgenda();
+
+        assertEquals(agenda.spanningBlockCount(teacher), 1);
+        assertEquals(agenda.totalBlockCount(), 1);
+        assertEquals(context.memberTicketCount(), 1);
+        assertEquals(context.memberSlots(teacher).count(), 1L);
+
+        assignment.unassign(0, slot);
+
+        assertEquals(agenda.spanningBlockCount(teacher), 0);
+        assertEquals(agenda.totalBlockCount(), 0);
+        assertEquals(context.memberTicketCount(), 0);
+        assertEquals(context.memberSlots(teacher).count(), 0L);
+    }
+
+    @Test
+    public void testAssignTimeSlotOnFreshAssignment() {
+        Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+        TimeSlot                 slot       = row.getSlot(0);
+
+        assignment.assign(0, slot.values(assignment).get(0));
+
+        SchModelContext context = model.getContext(assignment);
+        Agenda          agenda  = context.getAgenda();
+
+        assertEquals(agenda.totalBlockCount(), 2);
+        assertEquals(agenda.blockCount(teachers.get(0)), 1L);
+        assertEquals(agenda.blockCount(teachers.get(1)), 1L);
+        assertEquals(context.timeSlotTicketCount(), 1);
+
+        assignment.unassign(0, slot);
+
+        assertEquals(agenda.totalBlockCount(), 0);
+        assertEquals(context.timeSlotTicketCount(), 0);
+        assertEquals(context.defenceSlots(teachers.get(0)).count(), 0L);
+    }
+
+    @Test
+    public void testRepeatedNotification() {
+        Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+        SchModelContext          context    = model.getContext(assignment);
+        Ticket                   ticket     = row.getChairmanSlot().values(assignment).get(3);
+
+        assignment.assign(0, ticket);
+        context.assigned(assignment, ticket);
+
+        assertEquals(context.getAgenda().totalBlockCount(), 1);
+
+        assignment.unassign(0, ticket.variable());
+        context.unassigned(assignment, ticket);
+
+        assertEquals(context.getAgenda().totalBlockCount(), 0);
+        assertEquals(context.memberSlots((Teacher) ticket.getPerson()).count(), 0L);
+    }
+}
@@ -0,0 +1,74 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import cz.muni.fi.scheduler.model.solver.ModelBuilder;
+import cz.muni.fi.scheduler.utils.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class SwapMoveCacheNGTest {
+
+    @Test
+    public void testMatchesRecomputation() throws Exception {
+        try (TemporaryDirectory  instance = TemporaryDirectory.generate("scheduler-swaps",
+                     new InstanceGenerator.Builder().setSeed(4).setStudents(40).setTeachers(15).setDays(2).value());
+             DirectoryDataSource ds       = new DirectoryDataSource(instance.getDirectory())) {
+            SchModel                 model      = new ModelBuilder(ds).setDays(2).build();
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            SchModelContext          context    = model.getContext(assignment);
+            SwapMoveCache            cache      = context.getSwapMoveCache();
+            List<Slot>               slots      = new ArrayList<>(model.variables());
+            List<EntryRow>           rows       = model.getEntryRows();
+            Random                   random     = new Random(29);
+            int                      nonEmpty   = 0;
+
+            for (int step = 0; step < 400; ++step) {
+                Slot slot = slots.get(random.nextInt(slots.size()));
+
+                if (assignment.getValue(slot) != null) {
+                    assignment.unassign(0, slot);
+                } else if (!slot.values(assignment).isEmpty()) {
+                    List<Ticket> values = slot.values(assignment);
+                    Ticket       ticket = values.get(random.nextInt(values.size()));
+
+                    if (model.conflictValues(assignment, ticket).isEmpty())
+                        assignment.assign(0, ticket);
+                }
+
+                for (EntryRow row : rows) {
+                    List<Pair<TimeSlot, TimeSlot>> moves = cache.candidateMoves(assignment, row);
+
+                    // a fresh cache always computes the moves
+                    assertEquals(moves, new SwapMoveCache(context.getDeltaCache()).candidateMoves(assignment, row));
+                    assertSame(cache.candidateMoves(assignment, row), moves);
+
+                    for (Pair<TimeSlot, TimeSlot> move : moves) {
+                        Student student = (Student) assignment.getValue(move.first()).getPerson();
+
+                        assertTrue(student.getThesis().getTeachers().stream()
+                                .mapToInt(t -> context.getAgenda().analyzeTimeSlotAssign(t, move.second()))
+                                .sum() > 0);
+                    }
+
+                    if (!moves.isEmpty())
+                        ++nonEmpty;
+                }
+            }
+
+            assertTrue(nonEmpty > 0);
+        }
+    }
+}
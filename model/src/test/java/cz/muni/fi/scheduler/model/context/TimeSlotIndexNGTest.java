@@ -0,0 +1,49 @@
+package cz.muni.fi.scheduler.model.context;
+
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.TimeSlot;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class TimeSlotIndexNGTest {
+
+    private static List<TimeSlot> overlapping(TimeSlotIndex index, int from, int to) {
+        List<TimeSlot> result = new ArrayList<>();
+        index.forEachOverlapping(from, to, result::add);
+        return result;
+    }
+
+    @Test
+    public void testForEachOverlapping() {
+        EntryRow row1 = mock(EntryRow.class);
+        EntryRow row2 = mock(EntryRow.class);
+        when(row1.getId()).thenReturn(1L);
+        when(row2.getId()).thenReturn(2L);
+
+        TimeSlot s0 = new TimeSlot( 0, 40, row1);
+        TimeSlot s1 = new TimeSlot(40, 20, row1);
+        TimeSlot s2 = new TimeSlot(90, 40, row2);
+
+        TimeSlotIndex index = new TimeSlotIndex();
+        assertTrue(index.add(s2));
+        assertTrue(index.add(s0));
+        assertTrue(index.add(s1));
+        assertFalse(index.add(s1));
+
+        assertEquals(index.asList(), Arrays.asList(s0, s1, s2));
+
+        // touching slots overlap
+        assertEquals(overlapping(index, 60, 90), Arrays.asList(s1, s2));
+        assertEquals(overlapping(index, 10, 20), Arrays.asList(s0));
+        assertEquals(overlapping(index, 61, 89), Arrays.asList());
+        assertEquals(overlapping(index, 0, 200), Arrays.asList(s0, s1, s2));
+
+        assertTrue(index.remove(s1));
+        assertFalse(index.remove(s1));
+        assertEquals(overlapping(index, 40, 60), Arrays.asList(s0));
+    }
+}
@@ -0,0 +1,169 @@
+package cz.muni.fi.scheduler.model.domain;
+
+import cz.muni.fi.scheduler.data.ExamLevel;
+import cz.muni.fi.scheduler.data.Field;
+import cz.muni.fi.scheduler.data.Repetition;
+import cz.muni.fi.scheduler.data.Student;
+import cz.muni.fi.scheduler.data.Teacher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.mockito.Mockito.*;
+import static org.testng.Assert.*;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class TicketListNGTest {
+
+    private static List<Teacher>   teachers;
+    private static Domain<Teacher> domain;
+    private static EntryRow        row;
+
+    @BeforeClass
+    public static void setUp() {
+        teachers = new ArrayList<>();
+        row      = mock(EntryRow.class);
+
+        for (int i = 0; i < 10; ++i) {
+            teachers.add(new Teacher(i, "Name" + i, "Teacher" + i));
+        }
+
+        domain = new Domain<>(teachers);
+    }
+
+    @Test
+    public void testTickets() {
+        MemberSlot slot    = new MemberSlot(row);
+        TicketList tickets = new TicketList(slot, domain);
+
+        assertEquals(tickets.size(), teachers.size());
+
+        Ticket ticket = tickets.get(3);
+        assertSame(ticket.variable(), slot);
+        assertSame(ticket.getPerson(), teachers.get(3));
+        assertSame(tickets.get(3), ticket);
+
+        // tickets are numbered in the order of the domain
+        for (int i = 1; i < tickets.size(); ++i) {
+            assertEquals(tickets.get(i).getId(), tickets.get(i - 1).getId() + 1);
+        }
+    }
+
+    @Test
+    public void testIndexOf() {
+        MemberSlot slot    = new MemberSlot(row);
+        MemberSlot other   = new MemberSlot(row);
+        TicketList tickets = new TicketList(slot, domain);
+
+        assertEquals(tickets.indexOf(new Ticket(slot, teachers.get(7))), 7);
+        assertFalse(tickets.contains(new Ticket(other, teachers.get(7))));
+        assertFalse(tickets.contains(new Ticket(slot, new Teacher(99, "Name", "Nobody"))));
+    }
+
+    @Test
+    public void testSharedDomain() {
+        MemberSlot first  = new MemberSlot(row);
+        MemberSlot second = new MemberSlot(row);
+
+        first.setCommissaries(domain);
+        second.setCommissaries(domain);
+
+        assertSame(first.getDomain(), second.getDomain());
+
+        Ticket a = first.values(null).get(0);
+        Ticket b = second.values(null).get(0);
+
+        assertSame(a.getPerson(), b.getPerson());
+        assertSame(a.variable(), first);
+        assertSame(b.variable(), second);
+        assertNotEquals(a, b);
+    }
+
+    @Test
+    public void testTicketOfPerson() {
+        List<Teacher> interned = new ArrayList<>();
+
+        for (int i = 0; i < 6; ++i) {
+            Teacher teacher = new Teacher(100 + i, "Name" + i, "Interned" + i);
+            teacher.setOrdinal(5 - i);
+            interned.add(teacher);
+        }
+
+        // the domain skips some ordinals
+        MemberSlot slot = new MemberSlot(row);
+        slot.setCommissaries(new Domain<>(interned.subList(1, 5)));
+
+        assertEquals(slot.getDomain().indexOf(interned.get(1)), 0);
+        assertEquals(slot.getDomain().indexOf(interned.get(4)), 3);
+        assertEquals(slot.getDomain().indexOf(interned.get(0)), -1);
+        assertEquals(slot.getDomain().indexOf(interned.get(5)), -1);
+
+        assertSame(slot.getTicket(interned.get(2)), slot.values(null).get(1));
+        assertNull(slot.getTicket(interned.get(5)));
+
+        // a student with the same ordinal is not in the domain
+        Student student = new Student(1, "Name", "Student", new Field(1, "Field", "F"),
+                Repetition.ORAL_EXAM, ExamLevel.BACHELOR, null);
+        student.setOrdinal(interned.get(2).getOrdinal());
+        assertNull(slot.getTicket(student));
+
+        // people that are not interned are found by a scan
+        assertSame(slot.getTicket(new Teacher(102, "Name2", "Interned2")).getPerson(), interned.get(2));
+    }
+
+    @Test
+    public void testOrdinalIsFixed() {
+        Teacher    teacher = new Teacher(200, "Name", "Fixed");
+        Teacher    copy    = new Teacher(200, "Name", "Fixed");
+        MemberSlot slot    = new MemberSlot(row);
+
+        teacher.setOrdinal(3);
+        copy.setOrdinal(3);
+
+        assertEquals(new Ticket(slot, teacher), new Ticket(slot, copy));
+        assertEquals(new Ticket(slot, teacher).hashCode(), new Ticket(slot, copy).hashCode());
+
+        for (int ordinal : new int[] { 3, 4 }) {
+            try {
+                teacher.setOrdinal(ordinal);
+                fail("a person can only be interned once");
+            } catch (IllegalStateException ex) {
+                assertEquals(teacher.getOrdinal(), 3);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final int  threads = 8;
+        MemberSlot slot    = new MemberSlot(row);
+        TicketList tickets = new TicketList(slot, domain);
+
+        ExecutorService        executor = Executors.newFixedThreadPool(threads);
+        List<Future<Ticket[]>> results  = new ArrayList<>();
+
+        try {
+            for (int t = 0; t < threads; ++t) {
+                results.add(executor.submit(() -> {
+                    Ticket[] seen = new Ticket[tickets.size()];
+                    for (int i = 0; i < seen.length; ++i) {
+                        seen[i] = tickets.get(i);
+                    }
+                    return seen;
+                }));
+            }
+
+            Ticket[] expected = results.get(0).get();
+            for (Future<Ticket[]> result : results) {
+                Ticket[] seen = result.get();
+                for (int i = 0; i < seen.length; ++i) {
+                    assertSame(seen[i], expected[i]);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
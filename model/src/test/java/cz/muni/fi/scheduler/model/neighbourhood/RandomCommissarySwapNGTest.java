@@ -0,0 +1,79 @@
+package cz.muni.fi.scheduler.model.neighbourhood;
+
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.data.Teacher;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.model.Agenda;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.MemberSlot;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.solver.ModelBuilder;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import org.cpsolver.ifs.model.SimpleNeighbour;
+import org.cpsolver.ifs.solution.Solution;
+import org.cpsolver.ifs.util.DataProperties;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class RandomCommissarySwapNGTest {
+
+    @Test
+    public void testSelectsLeastUsedTeacher() throws Exception {
+        try (TemporaryDirectory  instance = TemporaryDirectory.generate("scheduler-commissary",
+                     new InstanceGenerator.Builder().setSeed(8).setStudents(40).setTeachers(15).setDays(2).value());
+             DirectoryDataSource ds       = new DirectoryDataSource(instance.getDirectory())) {
+            SchModel                 model      = new ModelBuilder(ds).setDays(2).build();
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            Agenda                   agenda     = model.getContext(assignment).getAgenda();
+
+            // fill the commissions with the first feasible teachers
+            for (EntryRow row : model.getEntryRows()) {
+                for (MemberSlot slot : row.streamCommissarySlots().collect(Collectors.toList())) {
+                    slot.values(assignment).stream()
+                            .filter(ticket -> model.conflictValues(assignment, ticket).isEmpty())
+                            .findFirst()
+                            .ifPresent(ticket -> assignment.assign(0, ticket));
+                }
+            }
+
+            assertTrue(model.getContext(assignment).memberTicketCount() > 0);
+
+            RandomCommissarySwap   selection = new RandomCommissarySwap(new DataProperties());
+            Solution<Slot, Ticket> solution  = new Solution<>(model, assignment);
+
+            for (int i = 0; i < 50; ++i) {
+                @SuppressWarnings("unchecked")
+                SimpleNeighbour<Slot, Ticket> neighbour
+                        = (SimpleNeighbour<Slot, Ticket>) selection.selectNeighbour(solution);
+
+                assertNotNull(neighbour);
+
+                Ticket      ticket = neighbour.getValue();
+                Set<Person> tabu   = ticket.variable().getParent().streamCommissarySlots()
+                        .map(assignment::getValue)
+                        .filter(Objects::nonNull)
+                        .map(Ticket::getPerson)
+                        .collect(Collectors.toSet());
+
+                assertSame(ticket.variable(), neighbour.getVariable());
+                assertFalse(tabu.contains(ticket.getPerson()));
+
+                int least = ticket.variable().getDomain().asList().stream()
+                        .filter(person -> !tabu.contains(person))
+                        .mapToInt(person -> agenda.spanningBlockCount((Teacher) person))
+                        .min()
+                        .getAsInt();
+
+                assertEquals(agenda.spanningBlockCount((Teacher) ticket.getPerson()), least);
+            }
+        }
+    }
+}
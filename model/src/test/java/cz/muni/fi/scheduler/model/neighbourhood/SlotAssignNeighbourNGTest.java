@@ -0,0 +1,96 @@
+package cz.muni.fi.scheduler.model.neighbourhood;
+
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.criteria.MinimizeBlocksCriterion;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import cz.muni.fi.scheduler.model.solver.ModelBuilder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+public class SlotAssignNeighbourNGTest {
+
+    private static Map<Slot, Ticket> snapshot(SchModel model, Assignment<Slot, Ticket> assignment) {
+        Map<Slot, Ticket> values = new HashMap<>();
+        model.variables().forEach(slot -> values.put(slot, assignment.getValue(slot)));
+        return values;
+    }
+
+    /**
+     * Picks a ticket that only conflicts with the current value of its slot.
+     */
+    private static Ticket replacement(SchModel model, Assignment<Slot, Ticket> assignment, Slot slot, Random random) {
+        List<Ticket> values  = slot.values(assignment);
+        Ticket       current = assignment.getValue(slot);
+
+        for (int attempt = 0; attempt < 10; ++attempt) {
+            Ticket      ticket    = values.get(random.nextInt(values.size()));
+            Set<Ticket> conflicts = model.conflictValues(assignment, ticket);
+
+            conflicts.remove(current);
+
+            if (conflicts.isEmpty() && !ticket.equals(current))
+                return ticket;
+        }
+
+        return null;
+    }
+
+    @Test
+    public void testValueMatchesMove() throws Exception {
+        try (TemporaryDirectory  instance = TemporaryDirectory.generate("scheduler-neighbour",
+                     new InstanceGenerator.Builder().setSeed(5).setStudents(40).setTeachers(15).setDays(2).value());
+             DirectoryDataSource ds       = new DirectoryDataSource(instance.getDirectory())) {
+            ModelBuilder             builder    = new ModelBuilder(ds).setDays(2);
+            SchModel                 model      = builder.build();
+            MinimizeBlocksCriterion  criterion  = builder.getCriterion();
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            List<Slot>               slots      = new ArrayList<>(model.variables());
+            Random                   random     = new Random(17);
+            int                      moves      = 0;
+
+            for (Slot slot : slots) {
+                Ticket ticket = slot.values(assignment).isEmpty() ? null : replacement(model, assignment, slot, random);
+
+                if (ticket != null)
+                    assignment.assign(0, ticket);
+            }
+
+            for (int step = 0; step < 300; ++step) {
+                Slot   slot    = slots.get(random.nextInt(slots.size()));
+                Ticket current = assignment.getValue(slot);
+                Ticket ticket  = current == null ? null : replacement(model, assignment, slot, random);
+
+                if (ticket == null)
+                    continue;
+
+                Map<Slot, Ticket>   before    = snapshot(model, assignment);
+                SlotAssignNeighbour neighbour = new SlotAssignNeighbour(ticket);
+                double              value     = neighbour.value(assignment);
+                double              replace   = criterion.getReplaceValue(assignment, current, ticket);
+                int                 total     = model.getContext(assignment).getAgenda().totalBlockCount();
+
+                // the evaluation does not touch the assignment
+                assertEquals(snapshot(model, assignment), before);
+                assertEquals(value, criterion.getWeight() * replace, 1e-9);
+
+                neighbour.assign(assignment, step);
+                assertEquals(model.getContext(assignment).getAgenda().totalBlockCount() - total, replace, 1e-9);
+                ++moves;
+            }
+
+            assertTrue(moves > 0);
+        }
+    }
+}
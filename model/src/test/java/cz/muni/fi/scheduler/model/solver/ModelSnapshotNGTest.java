@@ -0,0 +1,130 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.SnapshotDataSource;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.io.snapshot.SnapshotWriter;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.Domain;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class ModelSnapshotNGTest {
+
+    private static TemporaryDirectory instance;
+    private static File               directory;
+    private static File               snapshot;
+    private static ModelBuilder       original;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        instance  = TemporaryDirectory.generate("scheduler-model", new InstanceGenerator.Builder()
+                .setSeed(3)
+                .setStudents(120)
+                .setTeachers(30)
+                .setDays(3)
+                .setFirstDate(LocalDate.of(2016, Month.MAY, 2))
+                .value());
+        directory = instance.getDirectory();
+        snapshot  = instance.file("model.snapshot");
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(directory)) {
+            original = new ModelBuilder(ds).setDays(3);
+            original.build();
+            ModelSnapshot.write(original, snapshot);
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws IOException {
+        instance.close();
+    }
+
+    private static List<Long> ids(Domain<? extends Person> domain) {
+        return domain.asList().stream().map(Person::getId).collect(Collectors.toList());
+    }
+
+    private static List<Slot> slots(SchModel model) {
+        return model.getEntryRows().stream().flatMap(EntryRow::streamAllSlots).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testRestoresStructure() throws IOException {
+        ModelBuilder restored = ModelSnapshot.read(snapshot);
+        SchModel     expected = original.getModel();
+        SchModel     actual   = restored.getModel();
+
+        assertTrue(restored.getSource() instanceof SnapshotDataSource);
+        assertEquals(restored.getDays(), original.getDays());
+        assertEquals(restored.getConfiguration().dates, original.getConfiguration().dates);
+        assertEquals(restored.getConfiguration().dayStart, original.getConfiguration().dayStart);
+        assertEquals(restored.getRows().size(), original.getRows().size());
+        assertEquals(actual.variables().size(), expected.variables().size());
+        assertEquals(actual.globalConstraints().size(), expected.globalConstraints().size());
+        assertEquals(actual.getCriteria().size(), expected.getCriteria().size());
+
+        for (int i = 0; i < expected.getTeachers().size(); ++i) {
+            assertEquals(actual.getTeachers().get(i).getId(), expected.getTeachers().get(i).getId());
+            assertEquals(actual.getTeachers().get(i).getOrdinal(), i);
+        }
+
+        for (int i = 0; i < expected.getStudents().size(); ++i) {
+            assertEquals(actual.getStudents().get(i).getId(), expected.getStudents().get(i).getId());
+        }
+
+        List<Slot> es = slots(expected);
+        List<Slot> as = slots(actual);
+        assertEquals(as.size(), es.size());
+
+        for (int i = 0; i < es.size(); ++i) {
+            Slot e = es.get(i);
+            Slot a = as.get(i);
+
+            assertEquals(a.getClass(), e.getClass());
+            assertEquals(a.getOrdinal(), e.getOrdinal());
+            assertEquals(a.getParent().getDay(), e.getParent().getDay());
+            assertEquals(a.getParent().getStart(), e.getParent().getStart());
+            assertEquals(a.getParent().getEnd(), e.getParent().getEnd());
+            assertEquals(ids(a.getDomain()), ids(e.getDomain()));
+        }
+    }
+
+    @Test
+    public void testSharesDomains() throws IOException {
+        SchModel actual = ModelSnapshot.read(snapshot).getModel();
+
+        Map<Domain<?>, Boolean> expected = new IdentityHashMap<>();
+        Map<Domain<?>, Boolean> restored = new IdentityHashMap<>();
+
+        slots(original.getModel()).forEach(slot -> expected.put(slot.getDomain(), true));
+        slots(actual).forEach(slot -> restored.put(slot.getDomain(), true));
+
+        assertEquals(restored.size(), expected.size());
+        assertTrue(restored.size() < actual.variables().size());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testDataOnlySnapshot() throws Exception {
+        File data = new File(directory, "data.snapshot");
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(directory)) {
+            SnapshotWriter.write(ds, data);
+        }
+
+        ModelSnapshot.read(data);
+    }
+}
@@ -0,0 +1,142 @@
+package cz.muni.fi.scheduler.model.solver;
+
+import cz.muni.fi.scheduler.data.Person;
+import cz.muni.fi.scheduler.io.DirectoryDataSource;
+import cz.muni.fi.scheduler.io.InstanceGenerator;
+import cz.muni.fi.scheduler.io.TemporaryDirectory;
+import cz.muni.fi.scheduler.io.export.TSVScheduleWriter;
+import cz.muni.fi.scheduler.model.SchModel;
+import cz.muni.fi.scheduler.model.domain.EntryRow;
+import cz.muni.fi.scheduler.model.domain.Slot;
+import cz.muni.fi.scheduler.model.domain.Ticket;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.cpsolver.ifs.assignment.Assignment;
+import org.cpsolver.ifs.assignment.DefaultSingleAssignment;
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class WarmStartNGTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2016, Month.MAY, 2);
+
+    private TemporaryDirectory temporary;
+    private File               instance;
+    private File               schedule;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        temporary = TemporaryDirectory.generate("scheduler-warm", new InstanceGenerator.Builder()
+                .setSeed(9)
+                .setStudents(40)
+                .setTeachers(20)
+                .setDays(2)
+                .setFirstDate(FIRST_DATE)
+                .value());
+        instance  = temporary.getDirectory();
+        schedule  = temporary.file("schedule");
+        schedule.mkdir();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        temporary.close();
+    }
+
+    private static ModelBuilder build(DirectoryDataSource ds) throws IOException {
+        ModelBuilder builder = new ModelBuilder(ds).setDays(2).setFirstDate(FIRST_DATE);
+        builder.build();
+        return builder;
+    }
+
+    private static Ticket assignFirstFeasible(SchModel model, Assignment<Slot, Ticket> assignment, Slot slot) {
+        for (Ticket ticket : slot.values(assignment)) {
+            if (model.conflictValues(assignment, ticket).isEmpty()) {
+                assignment.assign(0, ticket);
+                return ticket;
+            }
+        }
+
+        fail("slot " + slot.getId() + " has no feasible ticket");
+        return null;
+    }
+
+    /**
+     * Rewrites the file without the lines that start with the given identifier.
+     */
+    private void dropLines(String file, long id, String... append) throws IOException {
+        Path path = new File(instance, file).toPath();
+
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8).stream()
+                .filter(line -> !line.startsWith(id + "\t"))
+                .collect(Collectors.toList());
+        lines.addAll(Arrays.asList(append));
+
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testRestoresFeasibleTickets() throws Exception {
+        Person chairman;
+        Person removed;
+
+        // solve a part of the original instance and write it
+        try (DirectoryDataSource ds = new DirectoryDataSource(instance)) {
+            ModelBuilder             builder    = build(ds);
+            SchModel                 model      = builder.getModel();
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            EntryRow                 row        = model.getEntryRows().get(0);
+
+            chairman = assignFirstFeasible(model, assignment, row.getChairmanSlot()).getPerson();
+            assignFirstFeasible(model, assignment, row.getMemberSlot(1));
+            assignFirstFeasible(model, assignment, row.getMemberSlot(2));
+
+            removed = assignFirstFeasible(model, assignment, row.getSlot(0)).getPerson();
+            assignFirstFeasible(model, assignment, row.getSlot(1));
+            assignFirstFeasible(model, assignment, row.getSlot(2));
+
+            try (TSVScheduleWriter writer = new TSVScheduleWriter(schedule)) {
+                new ScheduleExporter(model, builder.getConfiguration(), assignment).export(writer);
+            }
+        }
+
+        // the student drops out and the chairman is not available on the day
+        dropLines("students.csv", removed.getId());
+        dropLines("availability.csv", chairman.getId(),
+                chairman.getId() + "\t" + FIRST_DATE.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"))
+                + "\t00:00\t00:01");
+
+        try (DirectoryDataSource ds = new DirectoryDataSource(instance)) {
+            ModelBuilder             builder    = build(ds);
+            Assignment<Slot, Ticket> assignment = new DefaultSingleAssignment<>();
+            EntryRow                 row        = builder.getModel().getEntryRows().get(0);
+
+            WarmStart start = WarmStart.apply(builder, schedule, assignment);
+
+            assertEquals(start.getRestored(), 4);
+            assertEquals(start.getDropped(), 1);
+
+            assertNull(assignment.getValue(row.getChairmanSlot()));
+            assertNotNull(assignment.getValue(row.getMemberSlot(1)));
+            assertNotNull(assignment.getValue(row.getMemberSlot(2)));
+            assertNull(assignment.getValue(row.getSlot(0)));
+            assertNotNull(assignment.getValue(row.getSlot(1)));
+            assertNotNull(assignment.getValue(row.getSlot(2)));
+
+            // restored tickets belong to the new model
+            assertSame(assignment.getValue(row.getSlot(1)).getPerson(),
+                    ds.getStudents().get(assignment.getValue(row.getSlot(1)).getPerson().getId()));
+        }
+    }
+}